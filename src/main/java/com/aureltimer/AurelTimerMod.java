@@ -6,7 +6,12 @@ import com.aureltimer.gui.TimerOverlay;
 import com.aureltimer.handlers.ChatHandler;
 import com.aureltimer.managers.TimerManager;
 import com.aureltimer.managers.WhitelistManager;
+import com.aureltimer.sync.ConnectionWarmup;
+import com.aureltimer.utils.AlertDispatcher;
+import com.aureltimer.utils.AlertScheduler;
+import com.aureltimer.utils.ModScheduler;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
@@ -17,8 +22,6 @@ import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class AurelTimerMod implements ClientModInitializer {
@@ -33,7 +36,6 @@ public class AurelTimerMod implements ClientModInitializer {
     private static WhitelistManager whitelistManager;
     
     // Délai de grâce pour éviter les arrêts prématurés (Velocity proxy)
-    private static ScheduledExecutorService disconnectGraceExecutor;
     private static volatile boolean isDisconnectScheduled = false;
     private static volatile boolean isConnectionGracePeriod = false;
 
@@ -41,16 +43,12 @@ public class AurelTimerMod implements ClientModInitializer {
     public void onInitializeClient() {
         LOGGER.info("Initialisation d'Aurel Timer Mod...");
 
+        // DNS + TLS vers le Worker pendant le chargement du jeu
+        ConnectionWarmup.start();
+
         // Initialiser la configuration
         ModConfig.getInstance();
 
-        // Initialiser l'executor pour le délai de grâce
-        disconnectGraceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "AurelTimer-DisconnectGrace");
-            t.setDaemon(true);
-            return t;
-        });
-
         // Initialiser le système de whitelist
         whitelistManager = new WhitelistManager();
         whitelistManager.initialize();
@@ -81,8 +79,10 @@ public class AurelTimerMod implements ClientModInitializer {
             "category.aureltimer.general"
         ));
 
-        // Enregistrer le gestionnaire de touches
+        // Gestionnaire de touches + livraison des alertes sur le thread du jeu
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
+            AlertDispatcher.drainOnClientTick();
+
             if (openTimerKey.wasPressed()) {
                 timerOverlay.toggleVisibility();
             }
@@ -104,7 +104,7 @@ public class AurelTimerMod implements ClientModInitializer {
             
             // Période de grâce après connexion (5 secondes)
             isConnectionGracePeriod = true;
-            disconnectGraceExecutor.schedule(() -> {
+            ModScheduler.schedule(() -> {
                 isConnectionGracePeriod = false;
                 LOGGER.info("✅ Période de grâce après connexion terminée");
             }, 5, TimeUnit.SECONDS);
@@ -119,6 +119,8 @@ public class AurelTimerMod implements ClientModInitializer {
                 LOGGER.info("✅ TimerManager relancé avec succès");
             }
             
+            timerManager.setConnected(true);
+            
             if (timerManager != null && timerManager.isSyncEnabled()) {
                 // La sync se fera automatiquement avec le nouveau système
                 LOGGER.info("✅ Sync automatique activée pour la connexion serveur");
@@ -135,9 +137,14 @@ public class AurelTimerMod implements ClientModInitializer {
             
             LOGGER.info("🛑 Déconnexion détectée - délai de grâce de 30 secondes...");
             
+            // Plus de polling hors serveur (reprise immédiate à la reconnexion)
+            if (timerManager != null) {
+                timerManager.setConnected(false);
+            }
+            
             // Programmer l'arrêt avec délai de grâce
             isDisconnectScheduled = true;
-            disconnectGraceExecutor.schedule(() -> {
+            ModScheduler.schedule(() -> {
                 if (isDisconnectScheduled) {
                     LOGGER.info("🛑 Délai de grâce écoulé - arrêt propre des managers");
                     if (timerManager != null) {
@@ -150,6 +157,9 @@ public class AurelTimerMod implements ClientModInitializer {
             }, 30, TimeUnit.SECONDS);
         });
 
+        // Fermeture du jeu : managers puis scheduler du mod
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> shutdown());
+
         LOGGER.info("Aurel Timer Mod initialisé avec succès !");
         LOGGER.info("🌍 Le mod détectera automatiquement le nom de la dimension depuis les messages HUD pour nommer les timers");
         LOGGER.info("⚙️ Appuyez sur K pour ouvrir la configuration");
@@ -178,20 +188,15 @@ public class AurelTimerMod implements ClientModInitializer {
      * Arrêt propre du mod (appelé lors de la fermeture du jeu)
      */
     public static void shutdown() {
-        if (disconnectGraceExecutor != null && !disconnectGraceExecutor.isShutdown()) {
-            disconnectGraceExecutor.shutdown();
-            try {
-                if (!disconnectGraceExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                    disconnectGraceExecutor.shutdownNow();
-                }
-            } catch (InterruptedException e) {
-                disconnectGraceExecutor.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-        }
-        
+        isDisconnectScheduled = false;
+
         if (timerManager != null) {
             timerManager.close();
         }
+        if (whitelistManager != null) {
+            whitelistManager.shutdown();
+        }
+        AlertScheduler.shutdown();
+        ModScheduler.shutdown();
     }
 }
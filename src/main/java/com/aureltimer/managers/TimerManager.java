@@ -1,9 +1,12 @@
 package com.aureltimer.managers;
 
 import com.aureltimer.models.DimensionTimer;
+import com.aureltimer.models.TimerChangeSet;
 import com.aureltimer.models.TimerData;
 import com.aureltimer.utils.TimeAuthority;
+import com.aureltimer.utils.AlertDispatcher;
 import com.aureltimer.utils.AlertScheduler;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +26,8 @@ public class TimerManager {
     private final TimerSyncManager syncManager;
     
     public TimerManager() {
-        this.syncManager = new TimerSyncManager();
+        // Journal des écritures dans le dossier de config Fabric (survit aux déconnexions)
+        this.syncManager = new TimerSyncManager(FabricLoader.getInstance().getConfigDir());
         this.syncManager.setTimerManager(this);
     }
     
@@ -78,17 +82,13 @@ public class TimerManager {
             // Ignorer silencieusement si pas trouvé
         }
         
-        // Programmer l'alerte pour les timers locaux (pas ceux de la sync)
+        // Programmer (ou déplacer) les alertes du timer
         try {
-            int totalSeconds = minutes * 60 + seconds;
-            if (totalSeconds > 60) {
-                int delaySeconds = totalSeconds - 60;
-                boolean alertScheduled = com.aureltimer.utils.AlertScheduler.scheduleUniqueAlert(dimensionName, delaySeconds);
-                if (alertScheduled) {
-                    LOGGER.info("🔔 Alerte locale programmée pour {} dans {}s", dimensionName, delaySeconds);
-                } else {
-                    LOGGER.debug("🔔 Alerte déjà programmée pour {}", dimensionName);
-                }
+            int alertsChanged = AlertScheduler.scheduleAlerts(dimensionName, timer.getExpiresAtUtc());
+            if (alertsChanged > 0) {
+                LOGGER.info("🔔 {} alerte(s) locale(s) programmée(s) pour {}", alertsChanged, dimensionName);
+            } else {
+                LOGGER.debug("🔔 Alertes inchangées pour {}", dimensionName);
             }
         } catch (Exception e) {
             LOGGER.error("Erreur lors de la programmation d'alerte locale: {}", e.getMessage());
@@ -189,11 +189,13 @@ public class TimerManager {
     
     public void clearTimer(String dimensionName) {
         dimensionTimers.remove(dimensionName);
+        AlertScheduler.cancelAlerts(dimensionName);
         LOGGER.info("Timer supprimé pour {}", dimensionName);
     }
     
     public void clearAllTimers() {
         dimensionTimers.clear();
+        AlertScheduler.cancelAll();
         LOGGER.info("Tous les timers ont été supprimés");
     }
     
@@ -225,36 +227,54 @@ public class TimerManager {
         syncManager.setSyncEnabled(enabled);
     }
     
+    /**
+     * Connexion/déconnexion serveur (le polling est suspendu hors serveur)
+     */
+    public void setConnected(boolean connected) {
+        syncManager.setConnected(connected);
+    }
+    
     /**
      * ✅ MÉTRIQUES DEBUG pour diagnostics
      */
     public String getDebugMetrics() {
-        return syncManager.getDebugMetrics();
+        return syncManager.getDebugMetrics() + ", " + AlertScheduler.getDebugMetrics() + ", " + AlertDispatcher.getDebugMetrics();
     }
     
     /**
-     * 📥 Réception d'un timer synchronisé depuis le serveur
+     * 📥 Réception des changements synchronisés depuis le serveur (un lot par sync)
      */
-    public void onTimerSyncReceived(TimerData timerData, String opId) {
-        LOGGER.info("📥 Timer sync reçu: {} [{}]", timerData.getDimensionName(), opId);
+    public void onTimerChangesReceived(TimerChangeSet changeSet, String opId) {
+        for (TimerData timerData : changeSet.getAdded()) {
+            applySyncedTimer(timerData);
+        }
+        for (TimerData timerData : changeSet.getUpdated()) {
+            applySyncedTimer(timerData);
+        }
+        for (String dimensionName : changeSet.getRemoved()) {
+            // Un timer expiré reste affiché localement (couleur "expiré"), seule une
+            // suppression d'un timer encore actif est répercutée
+            DimensionTimer existing = dimensionTimers.get(dimensionName);
+            if (existing != null && !existing.isExpired()) {
+                dimensionTimers.remove(dimensionName);
+                AlertScheduler.cancelAlerts(dimensionName);
+            }
+        }
         
+        LOGGER.info("✅ Timers sync appliqués: {} [{}]", changeSet, opId);
+    }
+    
+    private void applySyncedTimer(TimerData timerData) {
         // Créer ou mettre à jour le timer local
         DimensionTimer timer = new DimensionTimer(timerData);
         dimensionTimers.put(timerData.getDimensionName(), timer);
         
-        // Calculer le temps restant pour l'alerte
+        // Programmer (ou déplacer) les alertes d'après l'expiration synchronisée
+        AlertScheduler.scheduleAlerts(timerData.getDimensionName(), timerData.getExpiresAtUtc());
         long remainingSeconds = timerData.getSecondsRemaining();
-        int minutes = (int) (remainingSeconds / 60);
-        int seconds = (int) (remainingSeconds % 60);
-        
-        // Programmer l'alerte avec le temps restant (en secondes)
-        int delaySeconds = (int) remainingSeconds - 60; // Alerte 1 minute avant
-        if (delaySeconds > 0) {
-            AlertScheduler.scheduleUniqueAlert(timerData.getDimensionName(), delaySeconds);
-        }
         
-        LOGGER.info("✅ Timer sync appliqué: {} - {} minutes et {} secondes [{}]", 
-                   timerData.getDimensionName(), minutes, seconds, opId);
+        LOGGER.debug("📥 Timer sync: {} - {} minutes et {} secondes", 
+                    timerData.getDimensionName(), remainingSeconds / 60, remainingSeconds % 60);
     }
     
     /**
@@ -1,46 +1,89 @@
 package com.aureltimer.managers;
 
+import com.aureltimer.models.TimerDelta;
 import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.models.ShardManifest;
+import com.aureltimer.models.TimerChangeSet;
 import com.aureltimer.models.TimerData;
+import com.aureltimer.sync.AdaptivePollScheduler;
 import com.aureltimer.sync.CloudflareClient;
+import com.aureltimer.sync.ConnectionWarmup;
+import com.aureltimer.sync.TimerEventStream;
+import com.aureltimer.sync.TimerMergeEngine;
+import com.aureltimer.sync.TimerShards;
+import com.aureltimer.sync.TimerSnapshotCache;
+import com.aureltimer.sync.WriteJournal;
 import com.aureltimer.utils.Actor;
+import com.aureltimer.utils.IoExecutor;
+import com.aureltimer.utils.ModScheduler;
 import com.aureltimer.utils.ShortId;
 import com.aureltimer.utils.TimeAuthority;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 🚀 NOUVEAU TIMER SYNC MANAGER - CLOUDFLARE
  * 
  * Manager principal de synchronisation utilisant :
- * - CloudflareClient pour GET/POST (Worker read + write proxy)
- * - Actor pattern unique pour toutes les mutations
+ * - CloudflareClient pour GET/POST (Worker read + write proxy), I/O asynchrone
+ *   hors du thread de l'Actor, les résultats sont ré-injectés dans l'Actor
+ * - Actor pattern unique pour toutes les mutations, écritures du joueur
+ *   prioritaires sur le travail périodique
  * - Circuit breakers séparés READ/WRITE
- * - Merge déterministe sur conflits
+ * - Merge déterministe par timer (TimerMergeEngine) sur lecture et revalidation
+ * - Journal disque des écritures en attente (WriteJournal), rejoué au démarrage
+ *   et à la reconnexion
+ * - Snapshot disque du dernier document (TimerSnapshotCache) : timers affichés
+ *   dès le lancement, premier GET conditionnel
  */
 public class TimerSyncManager implements AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TimerSyncManager.class);
     
     // Configuration
-    private static final Duration PERIODIC_SYNC_INTERVAL = Duration.ofSeconds(30);
     private static final Duration DEBOUNCE_DELAY = Duration.ofSeconds(12);
     private static final Duration SANITY_CHECK_DELAY = Duration.ofSeconds(3);
+    private static final int MAX_CONFLICT_RETRIES = 4;
+    private static final Duration CONFLICT_BASE_BACKOFF = Duration.ofMillis(250);
+    private static final Duration CONFLICT_MAX_BACKOFF = Duration.ofSeconds(5);
+    // Poll de sécurité quand le flux SSE est connecté
+    private static final Duration PUSH_SAFETY_POLL_INTERVAL = Duration.ofMinutes(5);
+    // Rejeu du journal au démarrage, une fois le chargement initial revenu
+    private static final Duration JOURNAL_REPLAY_DELAY = Duration.ofSeconds(3);
+    // Sauvegardes du snapshot regroupées (rafale de merges = une seule écriture disque)
+    private static final Duration SNAPSHOT_SAVE_DELAY = Duration.ofSeconds(2);
     
     // Client unique
     private final CloudflareClient cloudflareClient;
-    private final Gson gson;
     
     // Actor pattern
     private final Actor syncActor;
     
+    // Polling adaptatif (remplace l'intervalle fixe de 30s)
+    private final AdaptivePollScheduler pollScheduler = new AdaptivePollScheduler();
+    private volatile ScheduledFuture<?> nextPollFuture;
+    
+    // Push SSE (le polling conditionnel prend le relais quand il tombe)
+    private final TimerEventStream eventStream;
+    private volatile long lastPollAtMs = 0;
+    
     // Référence au TimerManager pour notifications
     private TimerManager timerManager;
     
@@ -48,31 +91,108 @@ public class TimerSyncManager implements AutoCloseable {
     private final AtomicReference<WorkerTimerSyncData> currentData;
     private final AtomicReference<String> currentETag;
     
+    // Document découpé en shards : ETag du manifeste + ETag connu de chaque shard
+    private final AtomicReference<String> manifestETag = new AtomicReference<>(null);
+    private final ConcurrentHashMap<Integer, String> shardETags = new ConcurrentHashMap<>();
+    private volatile int shardCount = 0;
+    
     // Anti-double déclenchement
     private final ConcurrentHashMap<String, Long> processedEvents;
+    
+    // Fenêtre de coalescence des écritures (dimension → dernière valeur)
+    private final ConcurrentHashMap<String, TimerData> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    
+    // Écritures non acquittées, survivent à l'arrêt de l'Actor
+    private final WriteJournal writeJournal;
+    
+    // Dernier document fusionné sur disque (null = pas de persistance)
+    private final TimerSnapshotCache snapshotCache;
+    private final AtomicBoolean snapshotSaveScheduled = new AtomicBoolean(false);
+    
+    // Métriques : cycles de lecture (poll, rattrapage push, init) et octets reçus par ces
+    // lectures seules - les écritures et leurs revalidations sont comptées à part
+    private final AtomicLong readCycles = new AtomicLong(0);
+    private final AtomicLong readCycleBytes = new AtomicLong(0);
+    
+    // Métrique de démarrage : création du manager → première lecture réussie
+    private final long createdNanos = System.nanoTime();
+    private final AtomicLong firstSyncMs = new AtomicLong(-1);
+    
+    // Métriques d'écriture (concurrence optimiste)
+    private final AtomicLong writeAttempts = new AtomicLong(0);
+    private final AtomicLong writeConflicts = new AtomicLong(0);
+    private final AtomicLong conflictRetries = new AtomicLong(0);
+    private final AtomicLong abandonedWrites = new AtomicLong(0);
+    private final AtomicLong supersededWrites = new AtomicLong(0);
     private static final long EVENT_TTL_MS = 30_000; // 30 secondes
     
     // Flags
     private volatile boolean syncEnabled = true;
     private volatile boolean inFlightGet = false;
+    private volatile boolean forceFullGet = false;
     private volatile boolean shutdown = false;
+    private volatile boolean initialReplayDone = false;
     
+    /**
+     * Manager sans état disque (clients headless, simulation)
+     */
     public TimerSyncManager() {
+        this(null);
+    }
+    
+    /**
+     * @param stateDirectory dossier du journal et du snapshot (config Fabric), null = mémoire seulement
+     */
+    public TimerSyncManager(Path stateDirectory) {
         LOGGER.info("🚀 Initialisation nouveau TimerSyncManager (Cloudflare Worker Proxy)");
         
         this.cloudflareClient = new CloudflareClient();
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.writeJournal = stateDirectory != null
+            ? WriteJournal.open(stateDirectory.resolve(WriteJournal.FILE_NAME))
+            : WriteJournal.inMemory();
+        this.snapshotCache = stateDirectory != null
+            ? new TimerSnapshotCache(stateDirectory.resolve(TimerSnapshotCache.FILE_NAME))
+            : null;
         
-        this.syncActor = new Actor("TimerSync");
+        this.syncActor = Actor.create("TimerSync");
         
         this.currentData = new AtomicReference<>(createEmptyData());
         this.currentETag = new AtomicReference<>(null);
         
+        // Démarrage à chaud : lecture synchrone, l'overlay a des timers avant tout appel réseau
+        restoreSnapshot();
+        
         this.processedEvents = new ConcurrentHashMap<>();
         
+        this.eventStream = new TimerEventStream(cloudflareClient, () -> currentData.get().seq, new TimerEventStream.Listener() {
+            @Override
+            public void onConnected() {
+                // Rattrapage immédiat de ce qui a pu changer avant la connexion
+                syncActor.submit(() -> performWorkerGet(currentETag.get(), "PUSH-" + ShortId.newId()));
+            }
+            
+            @Override
+            public void onChange(TimerDelta delta) {
+                syncActor.submit(() -> applyPushedChanges(delta));
+            }
+            
+            @Override
+            public void onDisconnected() {
+                // Retour au rythme normal, avec un poll immédiat : les changements
+                // poussés pendant un flux silencieux ont pu être perdus
+                syncActor.submit(() -> {
+                    if (!shutdown && !pollScheduler.isPaused()) {
+                        scheduleNextPoll(Duration.ZERO);
+                    }
+                });
+            }
+        });
+        
         // Démarrage immédiat
         startPeriodicTasks();
         performInitialLoad();
+        eventStream.start();
         
         LOGGER.info("✅ TimerSyncManager initialisé et prêt");
     }
@@ -94,15 +214,20 @@ public class TimerSyncManager implements AutoCloseable {
             return;
         }
         
-        String opId = "CREATE-" + ShortId.newId();
-        LOGGER.info("📝 Programmation timer: {} [{}]", dimensionName, opId);
+        // Journalisé avant d'être programmé : un arrêt pendant le debounce ne le perd pas
+        writeJournal.record(dimensionName, timerData);
         
-        // Scheduling via Actor avec debounce
-        syncActor.schedule(() -> {
-            performCreateOrUpdate(dimensionName, timerData, opId);
-        }, DEBOUNCE_DELAY);
+        // Fenêtre de coalescence : toutes les dimensions mises à jour pendant le debounce
+        // partent ensemble (la dernière valeur d'une dimension écrase les précédentes)
+        pendingWrites.put(dimensionName, timerData);
         
-        LOGGER.info("⏳ Upload programmé dans {}s [{}]", DEBOUNCE_DELAY.getSeconds(), opId);
+        if (flushScheduled.compareAndSet(false, true)) {
+            String opId = "CREATE-" + ShortId.newId();
+            syncActor.schedule(Actor.Priority.HIGH, () -> flushPendingWrites(opId), DEBOUNCE_DELAY);
+            LOGGER.info("⏳ Upload programmé dans {}s: {} [{}]", DEBOUNCE_DELAY.getSeconds(), dimensionName, opId);
+        } else {
+            LOGGER.info("📝 Timer {} ajouté à l'upload en attente ({} dimension(s))", dimensionName, pendingWrites.size());
+        }
     }
     
     /**
@@ -155,6 +280,18 @@ public class TimerSyncManager implements AutoCloseable {
      */
     public void setTimerManager(TimerManager timerManager) {
         this.timerManager = timerManager;
+        if (timerManager == null) return;
+        
+        // Le snapshot est restauré dans le constructeur, avant qu'un TimerManager soit
+        // branché : ses timers lui sont livrés maintenant comme "ajoutés" (affichage et
+        // alertes), sur l'Actor pour rester ordonné avec les merges
+        syncActor.submit(Actor.Priority.HIGH, () -> {
+            WorkerTimerSyncData data = currentData.get();
+            if (data == null || data.timers.isEmpty()) return;
+            TimerDelta restored = new TimerDelta();
+            data.timers.forEach(restored::put);
+            notifyTimerManagerOfChanges(TimerChangeSet.from(new WorkerTimerSyncData(), restored), "RESTORE-" + ShortId.newId());
+        });
     }
     
     /**
@@ -178,29 +315,99 @@ public class TimerSyncManager implements AutoCloseable {
         WorkerTimerSyncData data = currentData.get();
         int timerCount = (data != null && data.timers != null) ? data.timers.size() : 0;
         
-        return String.format("TimerSync[enabled=%s, timers=%d, etag=%s, cf=%s]",
-            syncEnabled, timerCount, 
+        long cycles = readCycles.get();
+        long readBytes = readCycleBytes.get();
+        
+        long attempts = writeAttempts.get();
+        long writeBytes = cloudflareClient.getWriteBytes();
+        
+        return String.format("TimerSync[enabled=%s, timers=%d, push=%s, ttfs=%dms, %s, %s, %s, write[n=%d,conflicts=%d (%.0f%%),retries=%d,abandoned=%d,superseded=%d], %s, etag=%s, bytes[read=%dB/cycle (n=%d), write=%dB/write, other=%dB], cf=%s]",
+            syncEnabled, timerCount, eventStream.isConnected(), firstSyncMs.get(), ConnectionWarmup.getDebugMetrics(),
+            pollScheduler.getDebugMetrics(),
+            syncActor.getDebugMetrics() + ", " + IoExecutor.getDebugMetrics() + ", " + ModScheduler.getDebugMetrics(),
+            attempts, writeConflicts.get(), attempts > 0 ? writeConflicts.get() * 100.0 / attempts : 0.0,
+            conflictRetries.get(), abandonedWrites.get(), supersededWrites.get(), writeJournal.getDebugMetrics(),
             currentETag.get() != null ? currentETag.get().substring(0, Math.min(8, currentETag.get().length())) + "..." : "null",
+            cycles > 0 ? readBytes / cycles : 0, cycles,
+            attempts > 0 ? writeBytes / attempts : 0,
+            // Revalidations avant écriture et vérifications de propagation
+            Math.max(0, cloudflareClient.getWireBytes() - readBytes - writeBytes),
             cloudflareClient.getDebugMetrics()
         );
     }
     
+    /**
+     * Octets échangés avec le Worker depuis le démarrage (après compression)
+     */
+    public long getWireBytes() {
+        return cloudflareClient.getWireBytes();
+    }
+    
     // ================== IMPLÉMENTATION INTERNE ==================
     
     private void startPeriodicTasks() {
-        // Sync périodique toutes les 30s
-        syncActor.scheduleAtFixedRate(() -> {
-            if (!shutdown && syncEnabled) {
-                performPeriodicSync();
-            }
-        }, PERIODIC_SYNC_INTERVAL, PERIODIC_SYNC_INTERVAL);
+        // Sync périodique adaptative (10s → 5min selon l'activité)
+        scheduleNextPoll(pollScheduler.nextDelay(currentData.get(), TimeAuthority.getInstance().now()));
         
-        // Nettoyage des événements expirés toutes les 60s
+        // Nettoyage des événements et des timers expirés toutes les 60s
         syncActor.scheduleAtFixedRate(() -> {
             cleanupExpiredEvents();
+            sweepExpiredTimers();
         }, Duration.ofSeconds(60), Duration.ofSeconds(60));
         
-        LOGGER.info("⏰ Tâches périodiques démarrées (sync={}s)", PERIODIC_SYNC_INTERVAL.getSeconds());
+        // Connexion gardée ouverte entre des polls espacés (HEAD avant la fermeture par le JDK)
+        Duration keepWarmCheck = CloudflareClient.keepWarmCheckInterval();
+        syncActor.scheduleAtFixedRate(this::keepConnectionWarm, keepWarmCheck, keepWarmCheck);
+        
+        LOGGER.info("⏰ Tâches périodiques démarrées (sync adaptative)");
+    }
+    
+    /**
+     * Programme le prochain cycle de poll (remplace le cycle en attente)
+     */
+    private void scheduleNextPoll(Duration delay) {
+        if (shutdown) return;
+        ScheduledFuture<?> previous = nextPollFuture;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        nextPollFuture = syncActor.scheduleCoalescing("poll", Actor.Priority.LOW, this::runPollCycle, delay);
+    }
+    
+    /**
+     * Maintien de la connexion tant que le polling est actif (rien hors serveur)
+     */
+    private void keepConnectionWarm() {
+        ScheduledFuture<?> nextPoll = nextPollFuture;
+        if (shutdown || !syncEnabled || pollScheduler.isPaused() || nextPoll == null) return;
+        if (cloudflareClient.keepWarmIfIdle(Math.max(0, nextPoll.getDelay(TimeUnit.MILLISECONDS)))) {
+            LOGGER.debug("♨️ HEAD de maintien - prochain poll dans {}s", nextPoll.getDelay(TimeUnit.SECONDS));
+        }
+    }
+    
+    private void runPollCycle() {
+        if (!shutdown && syncEnabled && !pollScheduler.isPaused()) {
+            performPeriodicSync();
+        }
+        scheduleNextPoll(pollScheduler.nextDelay(currentData.get(), TimeAuthority.getInstance().now()));
+    }
+    
+    /**
+     * Connexion/déconnexion serveur : le polling est suspendu hors serveur
+     */
+    public void setConnected(boolean connected) {
+        pollScheduler.setPaused(!connected);
+        LOGGER.info("🔌 Polling {}", connected ? "repris" : "en pause (déconnecté)");
+        if (connected && !shutdown) {
+            // Reprise immédiate au lieu d'attendre la fin de la pause
+            syncActor.submit(() -> {
+                scheduleNextPoll(Duration.ZERO);
+                // Au premier connect, c'est le rejeu du chargement initial qui s'en charge
+                if (initialReplayDone) {
+                    replayJournal("RECONNECT");
+                }
+            });
+        }
     }
     
     private void performInitialLoad() {
@@ -208,8 +415,51 @@ public class TimerSyncManager implements AutoCloseable {
             String opId = "INIT-" + ShortId.newId();
             LOGGER.info("🔄 Chargement initial... [{}]", opId);
             
-            performWorkerGet(null, opId + "-INIT");
+            // Conditionnel si un snapshot a été restauré : 304 quand rien n'a bougé
+            performWorkerGet(currentETag.get(), opId + "-INIT");
         }, Duration.ofSeconds(1));
+        
+        // Après le premier GET : les entrées déjà dépassées côté Worker ne sont pas réécrites
+        syncActor.schedule(() -> {
+            initialReplayDone = true;
+            replayJournal("INIT");
+        }, JOURNAL_REPLAY_DELAY);
+    }
+    
+    /**
+     * Rejoue les écritures non acquittées du journal en un seul lot, avec celles
+     * déjà en attente (une dimension en attente garde sa valeur la plus récente)
+     */
+    private void replayJournal(String reason) {
+        if (!syncEnabled || shutdown) return;
+        
+        Map<String, TimerData> journaled = writeJournal.pendingWrites();
+        if (journaled.isEmpty()) return;
+        
+        // Un timer plus récent a été créé entre-temps : l'entrée n'a plus lieu d'être
+        // (à égalité on réécrit, la copie locale peut venir de notre propre upload échoué)
+        WorkerTimerSyncData known = currentData.get();
+        Map<String, TimerData> superseded = new LinkedHashMap<>();
+        journaled.forEach((dimension, timerData) -> {
+            WorkerTimerSyncData.SyncTimer remote = known.timers.get(dimension);
+            if (remote != null && TimerMergeEngine.compare(remote, new WorkerTimerSyncData.SyncTimer(timerData)) > 0) {
+                superseded.put(dimension, timerData);
+            }
+        });
+        if (!superseded.isEmpty()) {
+            writeJournal.acknowledge(superseded);
+            superseded.keySet().forEach(journaled::remove);
+            LOGGER.info("📒 Journal : {} entrée(s) remplacée(s) par un timer plus récent {}", superseded.size(), superseded.keySet());
+            if (journaled.isEmpty()) return;
+        }
+        
+        journaled.forEach(pendingWrites::putIfAbsent);
+        String opId = "REPLAY-" + ShortId.newId();
+        LOGGER.info("📒 Rejeu du journal ({}) : {} écriture(s) non acquittée(s) {} [{}]", 
+                   reason, journaled.size(), journaled.keySet(), opId);
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushPendingWrites(opId);
+        }
     }
     
     private void performPeriodicSync() {
@@ -218,67 +468,317 @@ public class TimerSyncManager implements AutoCloseable {
             return;
         }
         
+        // Flux SSE actif : seul un poll de sécurité espacé est conservé
+        if (eventStream.isConnected()
+                && System.currentTimeMillis() - lastPollAtMs < PUSH_SAFETY_POLL_INTERVAL.toMillis()) {
+            return;
+        }
+        pollScheduler.onPoll();
+        
         String opId = "SYNC-" + ShortId.newId();
         LOGGER.debug("🔄 Sync périodique... [{}]", opId);
         
         performWorkerGet(currentETag.get(), opId);
     }
     
-    private void performCreateOrUpdate(String dimensionName, TimerData timerData, String opId) {
-        LOGGER.info("🚀 Démarrage pipeline creation/update [{}] (Thread: {})", opId, Thread.currentThread().getName());
+    /**
+     * Vide la fenêtre de coalescence : un seul cycle d'écriture pour tout le lot
+     */
+    private void flushPendingWrites(String opId) {
+        flushScheduled.set(false);
         
-        try {
-            // 1. Revalidation GET avant POST
-            LOGGER.debug("📥 1. Revalidation GET... [{}]", opId);
-            String currentETagValue = currentETag.get();
-            CloudflareClient.GetResult getResult = cloudflareClient.getTimers(currentETagValue, opId + "-REVAL");
-            
-            if (getResult.isSuccess() && getResult.isNewContent()) {
-                // Nouvelles données - merge
-                LOGGER.info("🔄 Nouvelles données détectées - merge... [{}]", opId);
-                WorkerTimerSyncData remoteData = gson.fromJson(getResult.getJsonBody(), WorkerTimerSyncData.class);
-                performDeterministicMerge(remoteData, getResult.getEtag(), opId);
+        Map<String, TimerData> batch = new LinkedHashMap<>();
+        for (String dimension : pendingWrites.keySet()) {
+            TimerData timerData = pendingWrites.remove(dimension);
+            if (timerData != null) {
+                batch.put(dimension, timerData);
             }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        LOGGER.info("📦 Upload groupé de {} dimension(s): {} [{}]", batch.size(), batch.keySet(), opId);
+        startWrite(new WriteAttempt(batch, opId, 0, CONFLICT_BASE_BACKOFF.toMillis()));
+    }
+    
+    private void startWrite(WriteAttempt write) {
+        writeAttempts.incrementAndGet();
+        if (cloudflareClient.isDeltaWriteSupported()) {
+            performDeltaWrite(write);
+        } else if (cloudflareClient.isShardingSupported() && shardCount > 0) {
+            performShardedWrite(write);
+        } else {
+            performCreateOrUpdate(write);
+        }
+    }
+    
+    /**
+     * Écriture par shard : le lot est découpé, chaque shard est revalidé puis écrit
+     * avec If-Match sur son propre ETag (pas de conflit entre shards différents)
+     */
+    private void performShardedWrite(WriteAttempt write) {
+        int shards = shardCount;
+        Map<Integer, Map<String, TimerData>> batchesByShard = new LinkedHashMap<>();
+        write.batch.forEach((dimension, timerData) -> batchesByShard
+            .computeIfAbsent(TimerShards.shardOf(dimension, shards), shard -> new LinkedHashMap<>())
+            .put(dimension, timerData));
+        
+        LOGGER.info("🚀 Démarrage écriture par shard {} [{}]", batchesByShard.keySet(), write.opId);
+        batchesByShard.forEach((shard, batch) -> {
+            WriteAttempt shardWrite = new WriteAttempt(batch, write.opId, write.attempt, write.backoffMs);
+            String opId = write.opId + "-S" + shard;
             
-            // 2. Mise à jour locale
-            LOGGER.debug("📝 2. Mise à jour locale... [{}]", opId);
-            WorkerTimerSyncData data = currentData.get();
-            data = data.copy(); // Copie pour immutabilité
-            data.putTimer(dimensionName, timerData);
-            data.lastUpdated = TimeAuthority.getInstance().now().toString();
-            currentData.set(data);
-            
-            // 3. POST Worker (write proxy)
-            LOGGER.info("📤 3. POST Worker proxy... [{}]", opId);
-            String jsonToUpload = gson.toJson(data);
-            CloudflareClient.PostResult postResult = cloudflareClient.postTimers(jsonToUpload, currentETagValue, opId + "-POST");
-            
-            if (postResult.isSuccess()) {
-                String newETag = postResult.getEtag();
-                LOGGER.info("✅ POST Worker réussi - ETag: {} [{}]", newETag, opId);
-                
-                // 4. Sanity check après 3s (seulement si ETag disponible)
-                if (newETag != null && !newETag.isEmpty()) {
-                    syncActor.schedule(() -> {
-                        performSanityCheck(newETag, opId + "-SANITY");
-                    }, SANITY_CHECK_DELAY);
+            cloudflareClient.getShardAsync(shard, shardETags.get(shard), opId + "-REVAL")
+                .thenAccept(getResult -> syncActor.submit(Actor.Priority.HIGH, () -> {
+                    if (getResult.isSuccess() && getResult.isNewContent()) {
+                        applyShard(shard, getResult, opId);
+                    }
+                    uploadShard(shard, shardWrite, opId);
+                }))
+                .exceptionally(e -> {
+                    LOGGER.error("❌ Erreur écriture shard {} [{}]", shard, opId, e);
+                    return null;
+                });
+        });
+    }
+    
+    private void uploadShard(int shard, WriteAttempt pending, String opId) {
+        int shards = shardCount;
+        
+        // Mise à jour locale (merge du lot) puis extraction des seules dimensions du shard
+        WriteAttempt write = mergeWriteBatch(pending);
+        if (write == null) return;
+        WorkerTimerSyncData data = currentData.get();
+        
+        WorkerTimerSyncData shardData = new WorkerTimerSyncData();
+        shardData.lastUpdated = data.lastUpdated;
+        data.timers.forEach((dimension, timer) -> {
+            if (TimerShards.shardOf(dimension, shards) == shard) {
+                shardData.timers.put(dimension, timer);
+            }
+        });
+        data.deleted.forEach((dimension, tombstone) -> {
+            if (TimerShards.shardOf(dimension, shards) == shard) {
+                shardData.deleted.put(dimension, tombstone);
+            }
+        });
+        
+        LOGGER.info("📤 POST shard {} ({} timers)... [{}]", shard, shardData.timers.size(), opId);
+        cloudflareClient.postShardAsync(shard, shardData, shardETags.get(shard), opId + "-POST")
+            .thenAccept(postResult -> syncActor.submit(Actor.Priority.HIGH, () -> {
+                if (postResult.isSuccess()) {
+                    if (postResult.getEtag() != null) {
+                        shardETags.put(shard, postResult.getEtag());
+                    }
+                    writeJournal.acknowledge(write.batch);
+                    LOGGER.info("✅ POST shard {} réussi - ETag: {} [{}]", shard, postResult.getEtag(), opId);
+                } else if (postResult.isPreconditionFailed() || postResult.isConflict()) {
+                    writeConflicts.incrementAndGet();
+                    scheduleConflictRetry(write, postResult.getErrorMessage());
+                } else {
+                    LOGGER.error("❌ POST shard {} échoué: {} [{}]", shard, postResult.getErrorMessage(), opId);
+                }
+            }));
+    }
+    
+    /**
+     * Écriture delta : seuls les timers modifiés sont envoyés, pas de revalidation GET
+     * (le Worker applique le patch sur sa dernière version) sauf pour un retry après
+     * conflit, qui relit d'abord le document pour écarter les dimensions dépassées
+     */
+    private void performDeltaWrite(WriteAttempt pending) {
+        String opId = pending.opId;
+        LOGGER.info("🚀 Démarrage écriture delta {} [{}]", pending.batch.keySet(), opId);
+        
+        if (pending.attempt == 0) {
+            patchTimers(pending);
+            return;
+        }
+        cloudflareClient.getTimersAsync(currentETag.get(), opId + "-REVAL")
+            .thenAccept(getResult -> syncActor.submit(Actor.Priority.HIGH, () -> {
+                if (getResult.isSuccess() && getResult.isNewContent()) {
+                    performDeterministicMerge(getResult.getData(), getResult.getEtag(), opId);
+                }
+                patchTimers(pending);
+            }))
+            .exceptionally(e -> {
+                LOGGER.error("❌ Erreur revalidation écriture delta [{}]", opId, e);
+                return null;
+            });
+    }
+    
+    private void patchTimers(WriteAttempt pending) {
+        String opId = pending.opId;
+        
+        // 1. Mise à jour locale (merge du lot)
+        WriteAttempt write = mergeWriteBatch(pending);
+        if (write == null) return;
+        WorkerTimerSyncData data = currentData.get();
+        TimerDelta delta = new TimerDelta();
+        write.batch.keySet().forEach(dimension -> delta.put(dimension, data.timers.get(dimension)));
+        
+        // 2. PATCH Worker - l'ETag local n'est pas avancé : le document distant peut contenir
+        //    d'autres changements que le prochain GET conditionnel doit récupérer
+        cloudflareClient.patchTimersAsync(delta, opId + "-PATCH")
+            .thenAccept(patchResult -> syncActor.submit(Actor.Priority.HIGH, () -> {
+                if (patchResult.isDeltaUnsupported()) {
+                    performCreateOrUpdate(write);
                 } else {
-                    LOGGER.warn("⚠️ POST réussi mais ETag manquant - pas de sanity check [{}]", opId);
+                    handlePostResult(patchResult, write);
                 }
-                
-            } else if (postResult.isPreconditionFailed()) {
-                LOGGER.warn("⚠️ POST Worker - conflit 412, relance revalidation [{}]", opId);
-                // Laisser le retry handler s'en occuper
-                
+            }));
+    }
+    
+    private void performCreateOrUpdate(WriteAttempt write) {
+        String opId = write.opId;
+        LOGGER.info("🚀 Démarrage pipeline creation/update [{}] (Thread: {})", opId, Thread.currentThread().getName());
+        
+        // 1. Revalidation GET avant POST (I/O hors de l'Actor, reprise sur l'Actor)
+        LOGGER.debug("📥 1. Revalidation GET... [{}]", opId);
+        cloudflareClient.getTimersAsync(currentETag.get(), opId + "-REVAL")
+            .thenAccept(getResult -> syncActor.submit(Actor.Priority.HIGH, () -> {
+                if (getResult.isSuccess() && getResult.isNewContent()) {
+                    // Nouvelles données - merge
+                    LOGGER.info("🔄 Nouvelles données détectées - merge... [{}]", opId);
+                    performDeterministicMerge(getResult.getData(), getResult.getEtag(), opId);
+                }
+                // If-Match sur l'ETag revalidé (après merge éventuel)
+                uploadTimers(write, currentETag.get());
+            }))
+            .exceptionally(e -> {
+                LOGGER.error("❌ Erreur pipeline creation/update [{}]", opId, e);
+                return null;
+            });
+    }
+    
+    private void uploadTimers(WriteAttempt pending, String ifMatch) {
+        String opId = pending.opId;
+        
+        // 2. Mise à jour locale (merge du lot sur le document revalidé à chaque tentative)
+        LOGGER.debug("📝 2. Mise à jour locale... [{}]", opId);
+        WriteAttempt write = mergeWriteBatch(pending);
+        if (write == null) return;
+        WorkerTimerSyncData data = currentData.get();
+        
+        // 3. POST Worker (write proxy) - un seul document fusionné pour tout le lot
+        LOGGER.info("📤 3. POST Worker proxy ({} dimension(s))... [{}]", write.batch.size(), opId);
+        cloudflareClient.postTimersAsync(data, ifMatch, opId + "-POST")
+            .thenAccept(postResult -> syncActor.submit(Actor.Priority.HIGH, () -> handlePostResult(postResult, write)));
+    }
+    
+    /**
+     * Passe le lot par le TimerMergeEngine contre le document local (revalidé quand
+     * le chemin d'écriture le permet) : une dimension n'est écrite que si le document
+     * fusionné garde notre version. Les entrées déjà dépassées - timer plus récent ou
+     * tombstone qui les couvre - sont acquittées dans le journal et retirées du lot.
+     *
+     * @return le lot restant (document local mis à jour), null s'il n'y a plus rien à écrire
+     */
+    private WriteAttempt mergeWriteBatch(WriteAttempt write) {
+        Instant now = TimeAuthority.getInstance().now();
+        WorkerTimerSyncData data = mergeBatch(write.batch, now).merged;
+        WriteAttempt remaining = dropSuperseded(write, data);
+        if (remaining == null) {
+            return null;
+        }
+        data.lastUpdated = now.toString();
+        data.stats.totalTimersCreated += remaining.batch.size();
+        currentData.set(data);
+        return remaining;
+    }
+    
+    private TimerMergeEngine.MergeResult mergeBatch(Map<String, TimerData> batch, Instant now) {
+        Map<String, WorkerTimerSyncData.SyncTimer> candidates = new LinkedHashMap<>();
+        batch.forEach((dimension, timerData) -> candidates.put(dimension, new WorkerTimerSyncData.SyncTimer(timerData)));
+        return TimerMergeEngine.mergeTimers(currentData.get(), candidates, null, now);
+    }
+    
+    /**
+     * Retire du lot les dimensions dont le document fusionné ne garde pas notre version
+     * (acquittées dans le journal) ; null si le lot devient vide
+     */
+    private WriteAttempt dropSuperseded(WriteAttempt write, WorkerTimerSyncData merged) {
+        Map<String, TimerData> kept = new LinkedHashMap<>();
+        Map<String, TimerData> superseded = new LinkedHashMap<>();
+        write.batch.forEach((dimension, timerData) -> {
+            WorkerTimerSyncData.SyncTimer held = merged.timers.get(dimension);
+            if (held != null && TimerMergeEngine.compare(held, new WorkerTimerSyncData.SyncTimer(timerData)) == 0) {
+                kept.put(dimension, timerData);
             } else {
-                LOGGER.error("❌ POST Worker échoué: {} [{}]", postResult.getErrorMessage(), opId);
+                superseded.put(dimension, timerData);
             }
+        });
+        
+        if (!superseded.isEmpty()) {
+            supersededWrites.addAndGet(superseded.size());
+            writeJournal.acknowledge(superseded);
+            LOGGER.info("📒 {} écriture(s) déjà dépassée(s) par le document distant, retirée(s) du lot {} [{}]",
+                       superseded.size(), superseded.keySet(), write.opId);
+        }
+        if (kept.isEmpty()) {
+            return null;
+        }
+        return superseded.isEmpty() ? write : new WriteAttempt(kept, write.opId, write.attempt, write.backoffMs);
+    }
+    
+    private void handlePostResult(CloudflareClient.PostResult postResult, WriteAttempt write) {
+        String opId = write.opId;
+        if (postResult.isSuccess()) {
+            String newETag = postResult.getEtag();
+            LOGGER.info("✅ POST Worker réussi - ETag: {} [{}]", newETag, opId);
+            writeJournal.acknowledge(write.batch);
             
-        } catch (Exception e) {
-            LOGGER.error("❌ Erreur pipeline creation/update [{}]", opId, e);
+            // 4. Sanity check après 3s (seulement si ETag disponible)
+            if (newETag != null && !newETag.isEmpty()) {
+                syncActor.schedule(Actor.Priority.LOW, () -> {
+                    performSanityCheck(newETag, opId + "-SANITY");
+                }, SANITY_CHECK_DELAY);
+            } else {
+                LOGGER.warn("⚠️ POST réussi mais ETag manquant - pas de sanity check [{}]", opId);
+            }
+            
+        } else if (postResult.isPreconditionFailed() || postResult.isConflict()) {
+            writeConflicts.incrementAndGet();
+            scheduleConflictRetry(write, postResult.getErrorMessage());
+            
+        } else {
+            LOGGER.error("❌ POST Worker échoué: {} [{}]", postResult.getErrorMessage(), opId);
         }
     }
     
+    /**
+     * Concurrence optimiste : re-fetch + re-merge + ré-application des changements locaux,
+     * après un backoff "decorrelated jitter" pour que les clients ne se recroisent pas en rythme
+     */
+    private void scheduleConflictRetry(WriteAttempt failed, String reason) {
+        // Seules les dimensions que le document connu ne dépasse pas sont retentées ;
+        // la tentative suivante refait le même tri après revalidation
+        WriteAttempt write = dropSuperseded(failed, mergeBatch(failed.batch, TimeAuthority.getInstance().now()).merged);
+        if (write == null) {
+            LOGGER.info("✅ Conflit d'écriture ({}) - toutes les dimensions sont déjà dépassées, rien à retenter [{}]",
+                       reason, failed.opId);
+            return;
+        }
+        if (write.attempt >= MAX_CONFLICT_RETRIES) {
+            abandonedWrites.incrementAndGet();
+            LOGGER.error("❌ Écriture abandonnée après {} conflits ({}): {} [{}]", 
+                        write.attempt + 1, reason, write.batch.keySet(), write.opId);
+            return;
+        }
+        
+        // sleep = min(cap, random(base, previous * 3))
+        long base = CONFLICT_BASE_BACKOFF.toMillis();
+        long upper = Math.max(base + 1, write.backoffMs * 3);
+        long backoffMs = Math.min(CONFLICT_MAX_BACKOFF.toMillis(), ThreadLocalRandom.current().nextLong(base, upper));
+        
+        WriteAttempt retry = new WriteAttempt(write.batch, write.opId, write.attempt + 1, backoffMs);
+        conflictRetries.incrementAndGet();
+        LOGGER.warn("⚠️ Conflit d'écriture ({}) - tentative {}/{} dans {}ms [{}]", 
+                   reason, retry.attempt, MAX_CONFLICT_RETRIES, backoffMs, write.opId);
+        syncActor.schedule(Actor.Priority.HIGH, () -> startWrite(retry), Duration.ofMillis(backoffMs));
+    }
+    
     private void performWorkerGet(String ifNoneMatchETag, String opId) {
         if (inFlightGet) {
             LOGGER.debug("⏳ GET déjà en cours - ignoré [{}]", opId);
@@ -286,73 +786,301 @@ public class TimerSyncManager implements AutoCloseable {
         }
         
         inFlightGet = true;
-        try {
-            LOGGER.debug("🔍 Appel cloudflareClient.getTimers... [{}]", opId);
-            CloudflareClient.GetResult result = cloudflareClient.getTimers(ifNoneMatchETag, opId);
+        lastPollAtMs = System.currentTimeMillis();
+        readCycles.incrementAndGet();
+        
+        // Lecture incrémentale dès que le Worker a fourni un curseur (et qu'on a un ETag de base)
+        long cursor = currentData.get().seq;
+        boolean incremental = cursor > 0 && ifNoneMatchETag != null && !forceFullGet;
+        forceFullGet = false;
+        
+        // Lecture complète d'un document découpé : manifeste puis shards modifiés uniquement
+        if (!incremental && cloudflareClient.isShardingSupported()) {
+            performShardedGet(ifNoneMatchETag, opId);
+            return;
+        }
+        
+        LOGGER.debug("🔍 Appel cloudflareClient.getTimersAsync (since={})... [{}]", incremental ? cursor : "-", opId);
+        completeRead(incremental
+            ? cloudflareClient.getTimerChangesAsync(ifNoneMatchETag, cursor, opId)
+            : cloudflareClient.getTimersAsync(ifNoneMatchETag, opId),
+            "GET Worker", opId, true, result -> handleWorkerGetResult(result, opId));
+    }
+    
+    /**
+     * Reprend une lecture dans l'Actor. inFlightGet est relâché à la fin du handler
+     * (dernière étape) ou en cas d'échec : requête en erreur, tâche refusée par la
+     * boîte aux lettres ou exception du handler - sinon plus aucun GET ne partirait.
+     *
+     * @param lastStep false si le handler enchaîne une autre lecture (manifeste → shards)
+     */
+    private <T> void completeRead(CompletableFuture<T> request, String what, String opId,
+                                  boolean lastStep, Consumer<T> handler) {
+        request
+            .thenCompose(result -> syncActor.submit(() -> {
+                try {
+                    handler.accept(result);
+                } finally {
+                    if (lastStep) {
+                        inFlightGet = false;
+                    }
+                }
+            }))
+            .exceptionally(e -> {
+                inFlightGet = false;
+                LOGGER.error("❌ Erreur {} [{}]", what, opId, e);
+                return null;
+            });
+    }
+    
+    /**
+     * GET conditionnel du manifeste, puis GET conditionnel des seuls shards dont l'ETag a changé
+     */
+    private void performShardedGet(String ifNoneMatchETag, String opId) {
+        completeRead(cloudflareClient.getManifestAsync(manifestETag.get(), opId + "-MANIFEST"),
+            "GET manifeste", opId, false, manifestResult -> handleManifestResult(manifestResult, ifNoneMatchETag, opId));
+    }
+    
+    private void handleManifestResult(CloudflareClient.ManifestResult manifestResult, String ifNoneMatchETag, String opId) {
+        readCycleBytes.addAndGet(manifestResult.getWireBytes());
+        if (manifestResult.isUnsupported()) {
+            // Worker sans shards : document complet
+            completeRead(cloudflareClient.getTimersAsync(ifNoneMatchETag, opId),
+                "GET Worker", opId, true, result -> handleWorkerGetResult(result, opId));
+            return;
+        }
+        
+        if (!manifestResult.isSuccess() || manifestResult.isNotModified()) {
+            inFlightGet = false;
+            onReadCompleted(manifestResult.isSuccess()
+                ? AdaptivePollScheduler.Outcome.NOT_MODIFIED : AdaptivePollScheduler.Outcome.FAILED);
+            return;
+        }
+        
+        ShardManifest manifest = manifestResult.getManifest();
+        if (manifest.shardCount != shardCount) {
+            // Redécoupage côté Worker : les ETags connus ne correspondent plus
+            LOGGER.info("📋 Découpage en {} shards [{}]", manifest.shardCount, opId);
+            shardETags.clear();
+            shardCount = manifest.shardCount;
+        }
+        
+        List<Integer> changedShards = new ArrayList<>();
+        for (int shard = 0; shard < manifest.shardCount; shard++) {
+            if (!Objects.equals(manifest.getShardEtag(shard), shardETags.get(shard))) {
+                changedShards.add(shard);
+            }
+        }
+        
+        if (changedShards.isEmpty()) {
+            inFlightGet = false;
+            completeShardedGet(manifestResult, opId);
+            onReadCompleted(AdaptivePollScheduler.Outcome.NOT_MODIFIED);
+            return;
+        }
+        
+        LOGGER.debug("📋 {} shard(s) modifié(s) sur {}: {} [{}]", changedShards.size(), manifest.shardCount, changedShards, opId);
+        List<CompletableFuture<CloudflareClient.GetResult>> shardGets = new ArrayList<>();
+        for (int shard : changedShards) {
+            shardGets.add(cloudflareClient.getShardAsync(shard, shardETags.get(shard), opId + "-S" + shard));
+        }
+        
+        completeRead(CompletableFuture.allOf(shardGets.toArray(new CompletableFuture<?>[0])),
+            "GET shards", opId, true, ignored -> {
+                boolean complete = true;
+                boolean newContent = false;
+                for (int i = 0; i < changedShards.size(); i++) {
+                    CloudflareClient.GetResult result = shardGets.get(i).join();
+                    readCycleBytes.addAndGet(result.getWireBytes());
+                    if (result.isSuccess() && result.isNewContent()) {
+                        applyShard(changedShards.get(i), result, opId);
+                        newContent = true;
+                    } else if (!result.isSuccess()) {
+                        complete = false;
+                    }
+                }
+                // Manifeste mémorisé seulement si tous les shards modifiés ont été lus
+                if (complete) {
+                    completeShardedGet(manifestResult, opId);
+                }
+                onReadCompleted(!complete ? AdaptivePollScheduler.Outcome.FAILED
+                    : newContent ? AdaptivePollScheduler.Outcome.NEW_CONTENT : AdaptivePollScheduler.Outcome.NOT_MODIFIED);
+            });
+    }
+    
+    /**
+     * Merge des timers d'un shard (les métadonnées du document local sont conservées)
+     */
+    private void applyShard(int shard, CloudflareClient.GetResult result, String opId) {
+        shardETags.put(shard, result.getEtag());
+        TimerMergeEngine.MergeResult merge = TimerMergeEngine.mergeTimers(
+            currentData.get(), result.getData().timers, result.getData().deleted, TimeAuthority.getInstance().now());
+        commitMerge(merge, currentETag.get(), opId);
+    }
+    
+    /**
+     * Tous les shards du manifeste sont à jour : le curseur local rejoint celui du Worker
+     */
+    private void completeShardedGet(CloudflareClient.ManifestResult manifestResult, String opId) {
+        manifestETag.set(manifestResult.getEtag());
+        scheduleSnapshotSave();
+        long seq = manifestResult.getManifest().seq;
+        WorkerTimerSyncData data = currentData.get();
+        if (seq > data.seq) {
+            WorkerTimerSyncData advanced = data.copy();
+            advanced.seq = seq;
+            currentData.set(advanced);
+            LOGGER.debug("📋 Shards à jour - seq {} [{}]", seq, opId);
+        }
+    }
+    
+    /**
+     * Fin d'une lecture : rythme du poll suivant et mesure de la première synchro
+     */
+    private void onReadCompleted(AdaptivePollScheduler.Outcome outcome) {
+        pollScheduler.onPollResult(outcome);
+        if (outcome != AdaptivePollScheduler.Outcome.FAILED
+                && firstSyncMs.compareAndSet(-1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos))) {
+            LOGGER.info("⏱️ Première synchronisation du manager en {}ms", firstSyncMs.get());
+            ConnectionWarmup.markFirstSync();
+        }
+    }
+    
+    private void handleWorkerGetResult(CloudflareClient.GetResult result, String opId) {
+        readCycleBytes.addAndGet(result.getWireBytes());
+        LOGGER.debug("🔍 Résultat GET: success={}, newContent={}, notModified={} [{}]", 
+                    result.isSuccess(), result.isNewContent(), result.isNotModified(), opId);
+        
+        if (result.isSuccess() && result.isIncremental()) {
+            onReadCompleted(AdaptivePollScheduler.Outcome.NEW_CONTENT);
+            applyIncrementalChanges(result, opId);
             
-            LOGGER.debug("🔍 Résultat GET: success={}, newContent={}, notModified={} [{}]", 
-                        result.isSuccess(), result.isNewContent(), result.isNotModified(), opId);
+        } else if (result.isSuccess() && result.isNewContent()) {
+            LOGGER.info("📥 Nouvelles données Worker reçues [{}]", opId);
+            onReadCompleted(AdaptivePollScheduler.Outcome.NEW_CONTENT);
+            recordStaleness(result.getData());
+            performDeterministicMerge(result.getData(), result.getEtag(), opId);
             
-            if (result.isSuccess() && result.isNewContent()) {
-                LOGGER.info("📥 Nouvelles données Worker reçues [{}]", opId);
-                WorkerTimerSyncData newData = gson.fromJson(result.getJsonBody(), WorkerTimerSyncData.class);
-                performDeterministicMerge(newData, result.getEtag(), opId);
-                
-            } else if (result.isNotModified()) {
-                LOGGER.debug("304 - Pas de changement [{}]", opId);
-                
-            } else {
-                LOGGER.warn("⚠️ GET Worker échoué: {} [{}]", result.getErrorMessage(), opId);
-            }
+        } else if (result.isNotModified()) {
+            LOGGER.debug("304 - Pas de changement [{}]", opId);
+            onReadCompleted(AdaptivePollScheduler.Outcome.NOT_MODIFIED);
             
-        } finally {
-            inFlightGet = false;
+        } else {
+            LOGGER.warn("⚠️ GET Worker échoué: {} [{}]", result.getErrorMessage(), opId);
+            onReadCompleted(AdaptivePollScheduler.Outcome.FAILED);
         }
     }
     
-    private void performDeterministicMerge(WorkerTimerSyncData remoteData, String newETag, String opId) {
-        LOGGER.debug("🔄 Merge déterministe... [{}]", opId);
+    /**
+     * Applique les changements "since" sur une copie du snapshot courant
+     */
+    private void applyIncrementalChanges(CloudflareClient.GetResult result, String opId) {
+        WorkerTimerSyncData localData = currentData.get();
+        
+        // Curseur incohérent (snapshot remplacé entre-temps) - prochain GET complet
+        if (result.sinceSeq != localData.seq) {
+            LOGGER.warn("⚠️ Curseur incohérent (local={}, réponse={}) - GET complet au prochain cycle [{}]", 
+                       localData.seq, result.sinceSeq, opId);
+            forceFullGet = true;
+            return;
+        }
+        
+        LOGGER.info("📥 {} changement(s) incrémentaux reçus (seq {} → {}) [{}]", 
+                   result.getChanges().getTimers().size(), result.sinceSeq, result.getChanges().getSeq(), opId);
+        TimerMergeEngine.MergeResult merge = TimerMergeEngine.mergeDelta(
+            localData, result.getChanges(), TimeAuthority.getInstance().now());
+        commitMerge(merge, result.getEtag(), opId);
+    }
+    
+    /**
+     * Applique un changement poussé par SSE (un événement par écriture, seq +1)
+     */
+    private void applyPushedChanges(TimerDelta delta) {
+        if (shutdown || !syncEnabled) {
+            return;
+        }
         
         WorkerTimerSyncData localData = currentData.get();
         
-        // Pour l'instant, simple remplacement par remote (later: vraie logique de merge)
-        // TODO: Implémenter merge déterministe selon les règles définies
+        if (delta.getSeq() > 0 && delta.getSeq() <= localData.seq) {
+            LOGGER.debug("📡 Changement push déjà appliqué (seq={}) - ignoré", delta.getSeq());
+            return;
+        }
+        
+        String opId = "PUSH-" + ShortId.newId();
+        
+        // Trou dans la séquence : rattrapage via GET incrémental
+        if (localData.seq == 0 || delta.getSeq() != localData.seq + 1) {
+            LOGGER.debug("📡 Séquence push discontinue (local={}, reçu={}) - GET de rattrapage [{}]", 
+                        localData.seq, delta.getSeq(), opId);
+            performWorkerGet(currentETag.get(), opId);
+            return;
+        }
+        
+        LOGGER.info("📡 {} changement(s) poussés (seq {} → {}) [{}]", 
+                   delta.getTimers().size(), localData.seq, delta.getSeq(), opId);
+        TimerMergeEngine.MergeResult merge = TimerMergeEngine.mergeDelta(
+            localData, delta, TimeAuthority.getInstance().now());
+        commitMerge(merge, currentETag.get(), opId);
+    }
+    
+    private void performDeterministicMerge(WorkerTimerSyncData remoteData, String newETag, String opId) {
+        LOGGER.debug("🔄 Merge déterministe... [{}]", opId);
         
-        currentData.set(remoteData);
+        // Merge par timer : les écritures locales pas encore uploadées ne sont pas écrasées
+        // et un remote périmé ne fait pas reculer un timer
+        TimerMergeEngine.MergeResult merge = TimerMergeEngine.mergeFull(
+            currentData.get(), remoteData, TimeAuthority.getInstance().now());
+        commitMerge(merge, newETag, opId);
+    }
+    
+    private void commitMerge(TimerMergeEngine.MergeResult merge, String newETag, String opId) {
+        WorkerTimerSyncData previous = currentData.getAndSet(merge.merged);
         currentETag.set(newETag);
+        scheduleSnapshotSave();
         
-        // CRUCIAL: Notifier le TimerManager des nouveaux timers
-        notifyTimerManagerOfSync(remoteData, opId);
+        // CRUCIAL: Notifier le TimerManager des changements (pas du document entier)
+        notifyTimerManagerOfChanges(TimerChangeSet.from(previous, merge.changes), opId);
         
-        LOGGER.info("✅ Merge terminé - {} timers, ETag: {} [{}]", 
-                   remoteData.timers.size(), 
-                   newETag.substring(0, Math.min(8, newETag.length())) + "...",
+        LOGGER.info("✅ Merge terminé - {} timers, {} changement(s), ETag: {} [{}]", 
+                   merge.merged.timers.size(), merge.changes.getTimers().size(),
+                   newETag != null ? newETag.substring(0, Math.min(8, newETag.length())) + "..." : "null",
                    opId);
     }
     
-    private void notifyTimerManagerOfSync(WorkerTimerSyncData remoteData, String opId) {
-        LOGGER.debug("📢 Notification TimerManager des timers synchronisés... [{}]", opId);
-        
-        // Convertir chaque timer distant en TimerData local
-        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : remoteData.timers.entrySet()) {
-            try {
-                String dimensionName = entry.getKey();
-                WorkerTimerSyncData.SyncTimer syncTimer = entry.getValue();
-                TimerData timerData = syncTimer.toTimerData(dimensionName);
-                if (timerData != null) {
-                    // Notifier le TimerManager via l'événement sync
-                    if (timerManager != null) {
-                        timerManager.onTimerSyncReceived(timerData, opId + "-SYNC");
-                    } else {
-                        LOGGER.warn("⚠️ TimerManager non défini - notification sync ignorée [{}]", opId);
-                    }
-                }
-            } catch (Exception e) {
-                LOGGER.warn("⚠️ Erreur conversion timer sync: {} [{}]", e.getMessage(), opId);
-            }
+    /**
+     * Ancienneté du document distant à réception (hors chargement initial)
+     */
+    private void recordStaleness(WorkerTimerSyncData remoteData) {
+        WorkerTimerSyncData localData = currentData.get();
+        if (currentETag.get() == null || remoteData.lastUpdated == null
+                || remoteData.lastUpdated.equals(localData.lastUpdated)) {
+            return;
+        }
+        try {
+            Instant remoteUpdate = Instant.parse(remoteData.lastUpdated);
+            pollScheduler.recordStaleness(Duration.between(remoteUpdate, TimeAuthority.getInstance().now()));
+        } catch (Exception e) {
+            // lastUpdated absent ou illisible : pas d'échantillon
         }
     }
     
+    /**
+     * Notifie le TimerManager des seuls timers ajoutés/modifiés/supprimés par le merge
+     */
+    private void notifyTimerManagerOfChanges(TimerChangeSet changeSet, String opId) {
+        if (changeSet.isEmpty()) {
+            LOGGER.debug("📢 Aucun changement de timer à notifier [{}]", opId);
+            return;
+        }
+        if (timerManager == null) {
+            LOGGER.warn("⚠️ TimerManager non défini - notification sync ignorée [{}]", opId);
+            return;
+        }
+        LOGGER.debug("📢 Notification TimerManager: {} [{}]", changeSet, opId);
+        timerManager.onTimerChangesReceived(changeSet, opId + "-SYNC");
+    }
+    
     private void performSanityCheck(String expectedETag, String opId) {
         LOGGER.debug("🔍 Sanity check... [{}]", opId);
         
@@ -362,8 +1090,11 @@ public class TimerSyncManager implements AutoCloseable {
             return;
         }
         
-        CloudflareClient.GetResult result = cloudflareClient.getTimers(null, opId);
-        
+        cloudflareClient.getTimersAsync(null, opId)
+            .thenAccept(result -> syncActor.submit(Actor.Priority.LOW, () -> checkPropagation(result, expectedETag, opId)));
+    }
+    
+    private void checkPropagation(CloudflareClient.GetResult result, String expectedETag, String opId) {
         if (result.isSuccess()) {
             String actualETag = result.getEtag();
             if (actualETag != null && expectedETag.equals(actualETag)) {
@@ -381,8 +1112,62 @@ public class TimerSyncManager implements AutoCloseable {
         }
     }
     
+    // ================== SNAPSHOT DISQUE ==================
+    
+    private void restoreSnapshot() {
+        if (snapshotCache == null) return;
+        
+        TimerSnapshotCache.Snapshot snapshot = snapshotCache.load();
+        if (snapshot == null) return;
+        
+        // Les timers expirés depuis la dernière session ne sont pas ré-affichés
+        Instant now = TimeAuthority.getInstance().now();
+        WorkerTimerSyncData data = snapshot.data;
+        data.timers = new ConcurrentHashMap<>(data.timers);
+        data.timers.values().removeIf(timer -> !TimerMergeEngine.isValid(timer, now));
+        
+        currentData.set(data);
+        currentETag.set(snapshot.etag);
+        manifestETag.set(snapshot.manifestEtag);
+        shardCount = snapshot.shardCount;
+        shardETags.putAll(snapshot.shardEtags);
+        
+        LOGGER.info("♻️ Snapshot restauré - {} timer(s) actif(s), seq {}, ETag: {}", 
+                   data.timers.size(), data.seq, snapshot.etag);
+    }
+    
+    private void scheduleSnapshotSave() {
+        if (snapshotCache != null && !shutdown && snapshotSaveScheduled.compareAndSet(false, true)) {
+            // Tâche à clé : jamais sacrifiée par une boîte pleine (le drapeau resterait levé)
+            syncActor.scheduleCoalescing("snapshot", Actor.Priority.LOW, this::saveSnapshot, SNAPSHOT_SAVE_DELAY);
+        }
+    }
+    
+    private void saveSnapshot() {
+        snapshotSaveScheduled.set(false);
+        snapshotCache.save(new TimerSnapshotCache.Snapshot(currentData.get(), currentETag.get(),
+            manifestETag.get(), shardCount, new LinkedHashMap<>(shardETags)));
+    }
+    
     // ================== UTILITAIRES ==================
     
+    /**
+     * Lot d'écriture en cours et état de sa boucle de retry
+     */
+    private static final class WriteAttempt {
+        final Map<String, TimerData> batch;
+        final String opId;
+        final int attempt;
+        final long backoffMs;
+        
+        WriteAttempt(Map<String, TimerData> batch, String opId, int attempt, long backoffMs) {
+            this.batch = batch;
+            this.opId = opId;
+            this.attempt = attempt;
+            this.backoffMs = backoffMs;
+        }
+    }
+    
     private WorkerTimerSyncData createEmptyData() {
         WorkerTimerSyncData data = new WorkerTimerSyncData();
         data.version = "1.0.0";
@@ -414,14 +1199,39 @@ public class TimerSyncManager implements AutoCloseable {
             (now - entry.getValue()) > EVENT_TTL_MS);
     }
     
+    /**
+     * Timers expirés et tombstones périmées : balayés ici plutôt qu'à chaque merge
+     * (les deltas et shards ne lisent que leurs dimensions)
+     */
+    private void sweepExpiredTimers() {
+        TimerMergeEngine.MergeResult sweep = TimerMergeEngine.sweepExpired(
+            currentData.get(), TimeAuthority.getInstance().now());
+        if (sweep.hasChanges()) {
+            commitMerge(sweep, currentETag.get(), "SWEEP-" + ShortId.newId());
+        }
+    }
+    
     @Override
     public void close() {
         LOGGER.info("🛑 Arrêt TimerSyncManager...");
         shutdown = true;
         
+        // Les uploads encore programmés sont perdus avec l'Actor : le journal les garde
+        writeJournal.close();
+        if (writeJournal.size() > 0) {
+            LOGGER.info("📒 {} écriture(s) non acquittée(s) conservée(s) dans le journal", writeJournal.size());
+        }
+        
+        if (eventStream != null) {
+            eventStream.close();
+        }
         if (syncActor != null) {
             syncActor.shutdown();
         }
+        // Dernier état connu pour le prochain démarrage (sauvegarde programmée perdue avec l'Actor)
+        if (snapshotCache != null) {
+            saveSnapshot();
+        }
         if (cloudflareClient != null) {
             cloudflareClient.close();
         }
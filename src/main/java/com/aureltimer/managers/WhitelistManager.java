@@ -1,6 +1,9 @@
 package com.aureltimer.managers;
 
 import com.aureltimer.models.WhitelistData;
+import com.aureltimer.utils.Actor;
+import com.aureltimer.utils.CircuitBreaker;
+import com.aureltimer.utils.IoExecutor;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import net.minecraft.client.MinecraftClient;
@@ -9,13 +12,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Gestionnaire de la whitelist dynamique
@@ -25,9 +30,16 @@ public class WhitelistManager {
     private static final Logger LOGGER = LoggerFactory.getLogger("WhitelistManager");
     private static final String WHITELIST_URL = "https://gist.githubusercontent.com/AurelPP/33163bd71cd0769f58c617fec115b690/raw/whitelist.json";
     private static final int TIMEOUT_MS = 10000; // 10 secondes
+    private static final long RETRY_WITHOUT_WHITELIST_MS = 30_000;
     
     private final Gson gson;
-    private final ScheduledExecutorService executor;
+    // Lane série du scheduler du mod : seule à modifier l'état de la whitelist
+    private final Actor lane;
+    
+    // Gist injoignable : on cesse de le solliciter, sondes espacées de 1 à 30 min
+    private final CircuitBreaker breaker = new CircuitBreaker("whitelist", 5, Duration.ofHours(2), 2, 0.5,
+        Duration.ofMinutes(1), Duration.ofMinutes(30), 1);
+    private final AtomicBoolean retryScheduled = new AtomicBoolean(false);
     
     private WhitelistData currentWhitelist;
     private long lastUpdateTime = 0;
@@ -36,11 +48,8 @@ public class WhitelistManager {
     
     public WhitelistManager() {
         this.gson = new GsonBuilder().create();
-        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "WhitelistManager");
-            t.setDaemon(true);
-            return t;
-        });
+        this.lane = Actor.create("Whitelist");
+        this.breaker.addListener((cb, from, to) -> LOGGER.info("🔌 Circuit breaker whitelist : {} → {}", from, to));
     }
     
     /**
@@ -53,58 +62,90 @@ public class WhitelistManager {
         updateWhitelist();
         
         // Planifier les mises à jour périodiques (toutes les 30 minutes par défaut)
-        executor.scheduleAtFixedRate(this::updateWhitelist, 30, 30, TimeUnit.MINUTES);
+        lane.scheduleAtFixedRateSafe(this::updateWhitelist, 30, 30, TimeUnit.MINUTES);
     }
     
     /**
      * Met à jour la whitelist depuis le serveur distant
+     * 
+     * Le téléchargement tourne sur IoExecutor (thread virtuel) ; le résultat est
+     * appliqué sur la lane du gestionnaire, seule à modifier son état.
      */
     public void updateWhitelist() {
-        CompletableFuture.runAsync(() -> {
-            try {
-                LOGGER.info("📥 Téléchargement de la whitelist...");
-                
-                URL url = new URL(WHITELIST_URL);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(TIMEOUT_MS);
-                connection.setReadTimeout(TIMEOUT_MS);
-                connection.setRequestProperty("User-Agent", "AurelTimer/1.3.0");
-                
-                int responseCode = connection.getResponseCode();
-                if (responseCode == 200) {
-                    String jsonResponse = readInputStream(connection.getInputStream());
-                    WhitelistData newWhitelist = gson.fromJson(jsonResponse, WhitelistData.class);
-                    
-                    if (newWhitelist != null) {
-                        currentWhitelist = newWhitelist;
-                        lastUpdateTime = System.currentTimeMillis();
-                        
-                        // Vérifier le joueur actuel
-                        checkCurrentPlayer();
-                        
-                        LOGGER.info("✅ Whitelist mise à jour: {}", currentWhitelist);
-                        
-                        // Planifier la prochaine mise à jour selon le TTL
-                        if (currentWhitelist.ttl_minutes > 0) {
-                            rescheduleUpdate(currentWhitelist.ttl_minutes);
-                        }
-                    } else {
-                        LOGGER.error("❌ Impossible de parser la whitelist JSON");
-                        handleWhitelistFailure();
-                    }
-                } else {
-                    LOGGER.error("❌ Erreur HTTP lors du téléchargement: {}", responseCode);
-                    handleWhitelistFailure();
-                }
-                
-                connection.disconnect();
-                
-            } catch (Exception e) {
-                LOGGER.error("❌ Erreur lors de la mise à jour de la whitelist: {}", e.getMessage());
+        lane.submit(() -> {
+            if (!breaker.tryAcquire()) {
+                LOGGER.warn("🔴 Circuit breaker whitelist ouvert - téléchargement ignoré");
                 handleWhitelistFailure();
+                return;
+            }
+            LOGGER.info("📥 Téléchargement de la whitelist...");
+            CompletableFuture.supplyAsync(this::downloadWhitelist, IoExecutor.executor())
+                .whenCompleteAsync(this::applyDownload, lane.executor());
+        });
+    }
+    
+    /**
+     * GET bloquant du gist (thread d'I/O) - null si le JSON est illisible
+     */
+    private WhitelistData downloadWhitelist() {
+        HttpURLConnection connection = null;
+        try {
+            URL url = new URL(WHITELIST_URL);
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setRequestProperty("User-Agent", "AurelTimer/1.3.0");
+            
+            int responseCode = connection.getResponseCode();
+            if (responseCode != 200) {
+                throw new IOException("Erreur HTTP lors du téléchargement: " + responseCode);
+            }
+            String jsonResponse = readInputStream(connection.getInputStream());
+            return gson.fromJson(jsonResponse, WhitelistData.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
             }
-        }, executor);
+        }
+    }
+    
+    /**
+     * Applique le résultat du téléchargement (lane du gestionnaire)
+     */
+    private void applyDownload(WhitelistData newWhitelist, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof UncheckedIOException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            LOGGER.error("❌ Erreur lors de la mise à jour de la whitelist: {}", cause.getMessage());
+            breaker.onFailure();
+            handleWhitelistFailure();
+            return;
+        }
+        if (newWhitelist == null) {
+            LOGGER.error("❌ Impossible de parser la whitelist JSON");
+            breaker.onFailure();
+            handleWhitelistFailure();
+            return;
+        }
+        
+        breaker.onSuccess();
+        currentWhitelist = newWhitelist;
+        lastUpdateTime = System.currentTimeMillis();
+        
+        // Vérifier le joueur actuel
+        checkCurrentPlayer();
+        
+        LOGGER.info("✅ Whitelist mise à jour: {}", currentWhitelist);
+        
+        // Planifier la prochaine mise à jour selon le TTL
+        if (currentWhitelist.ttl_minutes > 0) {
+            rescheduleUpdate(currentWhitelist.ttl_minutes);
+        }
     }
     
     /**
@@ -143,6 +184,15 @@ public class WhitelistManager {
             // Pas de whitelist du tout - refuser l'accès
             isVerified = false;
             LOGGER.error("🚫 Aucune whitelist disponible - Accès refusé");
+            
+            // Nouvel essai sans attendre le cycle de 30 min, au rythme du circuit breaker
+            long delay = Math.max(RETRY_WITHOUT_WHITELIST_MS, breaker.getRemainingOpenMillis());
+            if (!lane.isShutdown() && retryScheduled.compareAndSet(false, true)) {
+                lane.schedule(() -> {
+                    retryScheduled.set(false);
+                    updateWhitelist();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
         } else {
             // Garder la dernière whitelist valide
             LOGGER.warn("⚠️ Utilisation de la dernière whitelist connue");
@@ -154,7 +204,9 @@ public class WhitelistManager {
      */
     private void rescheduleUpdate(int ttlMinutes) {
         // Annuler les tâches précédentes et en créer une nouvelle
-        executor.schedule(this::updateWhitelist, ttlMinutes, TimeUnit.MINUTES);
+        if (!lane.isShutdown()) {
+            lane.schedule(this::updateWhitelist, ttlMinutes, TimeUnit.MINUTES);
+        }
     }
     
     /**
@@ -202,9 +254,7 @@ public class WhitelistManager {
      * Ferme le gestionnaire et arrête les tâches
      */
     public void shutdown() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
+        lane.shutdown();
     }
     
     /**
@@ -125,22 +125,9 @@ public class DimensionDetectionMixin {
                 if (dimensionName != null && !dimensionName.trim().isEmpty()) {
                     // Vérifier que la dimension n'est pas le timeString lui-même
                     if (!dimensionName.equals(timeString) && !dimensionName.contains("minutes") && !dimensionName.contains("secondes")) {
+                        // Les alertes sont programmées par updateTimer (un handle par dimension et seuil)
                         AurelTimerMod.getTimerManager().updateTimer(dimensionName, timeString);
                         LOGGER.info("⏰ Timer créé pour {}: {}", dimensionName, timeString);
-                        
-                        // Programmer l'alerte à 1 minute (système unifié)
-                        try {
-                            int minutes = Integer.parseInt(timeString.split(" ")[0]);
-                            int seconds = Integer.parseInt(timeString.split(" ")[3]); // Index 3 pour "Y" dans "X minutes et Y secondes"
-                            int totalSeconds = minutes * 60 + seconds;
-                            
-                            if (totalSeconds > 60) {
-                                int delaySeconds = totalSeconds - 60;
-                                com.aureltimer.utils.AlertScheduler.scheduleUniqueAlert(dimensionName, delaySeconds);
-                            }
-                        } catch (Exception e) {
-                            LOGGER.error("Erreur parsing pour alerte: {}", e.getMessage());
-                        }
                     } else {
                         LOGGER.error("❌ ERREUR: La dimension détectée '{}' semble être un timer au lieu d'un nom de dimension!", dimensionName);
                     }
@@ -0,0 +1,43 @@
+package com.aureltimer.models;
+
+import com.google.gson.Gson;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ✅ MANIFESTE DES SHARDS (GET /timer_sync/manifest.json)
+ *
+ * Petit document listant l'ETag de chaque shard : un client ne télécharge
+ * que les shards dont l'ETag a changé depuis sa dernière lecture.
+ * {"seq": 42, "shardCount": 8, "shards": ["\"a1b2...\"", ...]}
+ */
+public class ShardManifest {
+
+    private static final Gson GSON = new Gson();
+
+    // Numéro de séquence du document global au moment du manifeste
+    public long seq = 0;
+    public int shardCount = 0;
+    public List<String> shards = new ArrayList<>();
+
+    /**
+     * ETag d'un shard (null si inconnu)
+     */
+    public String getShardEtag(int shard) {
+        return shard >= 0 && shard < shards.size() ? shards.get(shard) : null;
+    }
+
+    public boolean isValid() {
+        return shardCount > 0 && shards != null && shards.size() == shardCount;
+    }
+
+    public static ShardManifest fromJson(Reader reader) {
+        try {
+            return GSON.fromJson(reader, ShardManifest.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
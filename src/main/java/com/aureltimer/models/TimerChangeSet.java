@@ -0,0 +1,77 @@
+package com.aureltimer.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ CHANGEMENTS DE TIMERS ISSUS D'UNE SYNCHRONISATION
+ *
+ * Diff typé entre le snapshot local précédent et le document fusionné :
+ * - added   : dimension absente avant
+ * - updated : dimension présente dont le timer a changé
+ * - removed : dimension supprimée (tombstone serveur ou expiration)
+ *
+ * Livré en un seul lot au TimerManager : le coût d'une sync suit le nombre
+ * de changements, pas la taille du document.
+ */
+public class TimerChangeSet {
+
+    private final List<TimerData> added = new ArrayList<>();
+    private final List<TimerData> updated = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+
+    /**
+     * Construit le diff à partir des changements effectifs d'un merge
+     */
+    public static TimerChangeSet from(WorkerTimerSyncData previous, TimerDelta changes) {
+        TimerChangeSet changeSet = new TimerChangeSet();
+
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : changes.getTimers().entrySet()) {
+            String dimensionName = entry.getKey();
+            WorkerTimerSyncData.SyncTimer syncTimer = entry.getValue();
+
+            if (syncTimer == null) {
+                changeSet.removed.add(dimensionName);
+                continue;
+            }
+
+            TimerData timerData = syncTimer.toTimerData(dimensionName);
+            if (timerData == null) {
+                continue;
+            }
+            if (previous.timers.containsKey(dimensionName)) {
+                changeSet.updated.add(timerData);
+            } else {
+                changeSet.added.add(timerData);
+            }
+        }
+        return changeSet;
+    }
+
+    public List<TimerData> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    public List<TimerData> getUpdated() {
+        return Collections.unmodifiableList(updated);
+    }
+
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + updated.size() + removed.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d ~%d -%d", added.size(), updated.size(), removed.size());
+    }
+}
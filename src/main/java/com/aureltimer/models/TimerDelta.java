@@ -0,0 +1,188 @@
+package com.aureltimer.models;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ✅ TIMER DELTA - ÉCRITURE PAR DIMENSION (JSON MERGE PATCH, RFC 7396)
+ *
+ * Ne transporte que les timers modifiés au lieu du document complet :
+ * - {"timers": {"Ressource1": {...}}} → ajoute/remplace le timer
+ * - {"timers": {"Ressource1": null}}  → supprime le timer
+ * - {"deleted": {"Ressource1": {...}}} → version supprimée (tombstone), accompagne
+ *   le null : la suppression ne vaut que contre une version plus ancienne ou égale
+ *
+ * Le serveur applique le patch atomiquement sur la dernière version du document,
+ * la taille d'upload et la surface de conflit suivent donc la taille du changement.
+ *
+ * Même format en lecture incrémentale (GET ?since=N) : le Worker renvoie les timers
+ * ajoutés/modifiés/supprimés après le curseur N, avec le nouveau "seq" du document.
+ */
+public class TimerDelta {
+
+    public static final String CONTENT_TYPE = "application/merge-patch+json";
+
+    // Gson avec serializeNulls : indispensable pour encoder les suppressions
+    private static final Gson PATCH_GSON = new GsonBuilder().serializeNulls().create();
+    private static final Gson GSON = new Gson();
+
+    // null = suppression de la dimension
+    private final Map<String, WorkerTimerSyncData.SyncTimer> timers = new LinkedHashMap<>();
+
+    // Version supprimée des dimensions à null (absente = Worker sans tombstones)
+    private final Map<String, WorkerTimerSyncData.SyncTimer> deleted = new LinkedHashMap<>();
+
+    // Numéro de séquence du document après application (0 = inconnu, cas de l'upload)
+    private long seq = 0;
+
+    /**
+     * ✅ AJOUTER/METTRE À JOUR UN TIMER
+     */
+    public TimerDelta put(String dimensionName, WorkerTimerSyncData.SyncTimer timer) {
+        timers.put(dimensionName, timer);
+        return this;
+    }
+
+    /**
+     * ✅ SUPPRIMER UN TIMER
+     */
+    public TimerDelta remove(String dimensionName) {
+        timers.put(dimensionName, null);
+        return this;
+    }
+
+    /**
+     * ✅ SUPPRIMER UN TIMER EN DONNANT LA VERSION SUPPRIMÉE (tombstone)
+     */
+    public TimerDelta remove(String dimensionName, WorkerTimerSyncData.SyncTimer deletedVersion) {
+        timers.put(dimensionName, null);
+        if (deletedVersion != null) {
+            deleted.put(dimensionName, deletedVersion);
+        }
+        return this;
+    }
+
+    /**
+     * ✅ TOMBSTONE SEULE (version supprimée connue, dimension déjà absente)
+     */
+    public TimerDelta tombstone(String dimensionName, WorkerTimerSyncData.SyncTimer deletedVersion) {
+        deleted.put(dimensionName, deletedVersion);
+        return this;
+    }
+
+    public Map<String, WorkerTimerSyncData.SyncTimer> getTimers() {
+        return timers;
+    }
+
+    public Map<String, WorkerTimerSyncData.SyncTimer> getDeleted() {
+        return deleted;
+    }
+
+    public boolean isEmpty() {
+        return timers.isEmpty() && deleted.isEmpty();
+    }
+
+    public long getSeq() { return seq; }
+    public TimerDelta setSeq(long seq) { this.seq = seq; return this; }
+
+    /**
+     * Applique le delta sur un document (côté client ou serveur)
+     */
+    public void applyTo(WorkerTimerSyncData data) {
+        timers.forEach((dimension, timer) -> {
+            if (timer == null) {
+                data.timers.remove(dimension);
+            } else {
+                data.timers.put(dimension, timer);
+            }
+        });
+        if (data.deleted == null) {
+            data.deleted = new java.util.HashMap<>();
+        }
+        data.deleted.putAll(deleted);
+        if (seq > 0) {
+            data.seq = seq;
+        }
+        data.lastUpdated = java.time.Instant.now().toString();
+    }
+
+    /**
+     * Convertit vers JSON merge-patch compact
+     */
+    public String toJson() {
+        JsonObject timersPatch = new JsonObject();
+        timers.forEach((dimension, timer) ->
+            timersPatch.add(dimension, timer != null ? GSON.toJsonTree(timer) : JsonNull.INSTANCE));
+
+        JsonObject patch = new JsonObject();
+        if (seq > 0) {
+            patch.addProperty("seq", seq);
+        }
+        patch.add("timers", timersPatch);
+        if (!deleted.isEmpty()) {
+            patch.add("deleted", GSON.toJsonTree(deleted));
+        }
+        return PATCH_GSON.toJson(patch);
+    }
+
+    /**
+     * Parse un JSON merge-patch vers TimerDelta
+     */
+    public static TimerDelta fromJson(String json) {
+        return fromJson(new StringReader(json));
+    }
+
+    /**
+     * Parse en streaming un JSON merge-patch (une seule passe sur le flux)
+     */
+    public static TimerDelta fromJson(Reader source) {
+        try (JsonReader reader = new JsonReader(source)) {
+            TimerDelta delta = new TimerDelta();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("seq".equals(name)) {
+                    delta.setSeq(reader.nextLong());
+                } else if ("timers".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String dimension = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            delta.remove(dimension);
+                        } else {
+                            delta.put(dimension, GSON.fromJson(reader, WorkerTimerSyncData.SyncTimer.class));
+                        }
+                    }
+                    reader.endObject();
+                } else if ("deleted".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String dimension = reader.nextName();
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                        } else {
+                            delta.tombstone(dimension, GSON.fromJson(reader, WorkerTimerSyncData.SyncTimer.class));
+                        }
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return delta;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
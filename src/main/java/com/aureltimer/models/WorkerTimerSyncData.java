@@ -2,6 +2,8 @@ package com.aureltimer.models;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import java.io.Reader;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -18,20 +20,29 @@ public class WorkerTimerSyncData {
     public String lastUpdated;
     public int ttlMinutes = 60;
     
+    // Numéro de séquence monotone du document (0 = Worker sans curseur)
+    public long seq = 0;
+    
     // ===== SETTINGS =====
     public Settings settings = new Settings();
     
     // ===== TIMERS =====
     public Map<String, SyncTimer> timers = new HashMap<>();
     
+    // ===== TOMBSTONES =====
+    // Dernière version supprimée par dimension : une version plus ancienne ou égale
+    // ne peut plus revenir, une plus récente (createdAt) l'emporte sur la suppression
+    public Map<String, SyncTimer> deleted = new HashMap<>();
+    
     // ===== STATS =====
     public Stats stats = new Stats();
     
     // ETag pour cache
     private String etag;
     
-    // Gson instance
-    private static final Gson GSON = new GsonBuilder()
+    // Gson instances : compact pour le réseau, pretty-print pour les dumps de debug
+    private static final Gson GSON = new Gson();
+    private static final Gson PRETTY_GSON = new GsonBuilder()
         .setPrettyPrinting()
         .create();
     
@@ -55,9 +66,27 @@ public class WorkerTimerSyncData {
     }
     
     /**
-     * Convertit vers JSON
+     * Parse en streaming depuis un flux (une seule passe, pas de String intermédiaire)
+     */
+    public static WorkerTimerSyncData fromJson(Reader reader) {
+        try {
+            return GSON.fromJson(new JsonReader(reader), WorkerTimerSyncData.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Convertit vers JSON lisible (debug uniquement)
      */
     public String toJson() {
+        return PRETTY_GSON.toJson(this);
+    }
+    
+    /**
+     * Convertit vers JSON compact (format réseau)
+     */
+    public String toCompactJson() {
         return GSON.toJson(this);
     }
     
@@ -202,10 +231,22 @@ public class WorkerTimerSyncData {
      * ✅ COPIE POUR IMMUTABILITÉ
      */
     public WorkerTimerSyncData copy() {
+        WorkerTimerSyncData copy = copyMetadata();
+        copy.timers = new HashMap<>(this.timers);
+        copy.deleted = new HashMap<>(copy.deleted);
+        return copy;
+    }
+    
+    /**
+     * Copie des métadonnées seulement : timers et deleted restent partagés avec
+     * ce document (copy-on-write, à copier avant toute écriture)
+     */
+    public WorkerTimerSyncData copyMetadata() {
         WorkerTimerSyncData copy = new WorkerTimerSyncData();
         copy.version = this.version;
         copy.lastUpdated = this.lastUpdated;
         copy.ttlMinutes = this.ttlMinutes;
+        copy.seq = this.seq;
         
         // Deep copy settings
         copy.settings = new Settings();
@@ -213,8 +254,9 @@ public class WorkerTimerSyncData {
         copy.settings.maxTimersPerDimension = this.settings.maxTimersPerDimension;
         copy.settings.syncEnabled = this.settings.syncEnabled;
         
-        // Deep copy timers
-        copy.timers = new HashMap<>(this.timers);
+        // Maps partagées
+        copy.timers = this.timers;
+        copy.deleted = this.deleted != null ? this.deleted : new HashMap<>();
         
         // Deep copy stats
         copy.stats = new Stats();
@@ -0,0 +1,165 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.WorkerTimerSyncData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * ✅ PLANIFICATEUR DE POLL ADAPTATIF
+ *
+ * Remplace l'intervalle fixe de 30s par un délai calculé à chaque cycle :
+ * - Resserré (10s) quand un timer connu expire bientôt (nouveau /legendaryspawn probable)
+ *   ou quand les derniers polls ont ramené du nouveau contenu
+ * - Backoff exponentiel sur les longues séries de 304 (jusqu'à 5 min)
+ * - En pause tant que le joueur n'est pas connecté à un serveur
+ *
+ * Pas de thread : l'Actor appelle nextDelay() pour programmer le cycle suivant.
+ * Les métriques peuvent être lues depuis n'importe quel thread (méthodes synchronisées).
+ */
+public class AdaptivePollScheduler {
+
+    // Configuration
+    private static final Duration MIN_INTERVAL = Duration.ofSeconds(10);
+    private static final Duration BASE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration MAX_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration EXPIRY_HORIZON = Duration.ofMinutes(2);
+    private static final int NOT_MODIFIED_STREAK_THRESHOLD = 4;
+    private static final int FAST_POLLS_AFTER_CHANGE = 3;
+    private static final int STALENESS_SAMPLES = 32;
+
+    public enum Outcome { NEW_CONTENT, NOT_MODIFIED, FAILED }
+
+    private volatile boolean paused = true;
+    private int notModifiedStreak = 0;
+    private int fastPollsRemaining = 0;
+    private volatile Duration lastDelay = BASE_INTERVAL;
+
+    // Métriques
+    private final Deque<Long> pollTimestamps = new ArrayDeque<>();
+    private final long[] stalenessSamples = new long[STALENESS_SAMPLES];
+    private int stalenessCount = 0;
+    private int stalenessIndex = 0;
+
+    /**
+     * Met en pause / reprend le polling (connexion serveur)
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Enregistre un poll effectué
+     */
+    public synchronized void onPoll() {
+        long now = System.currentTimeMillis();
+        pollTimestamps.addLast(now);
+        trimPollWindow(now);
+    }
+
+    /**
+     * Enregistre le résultat d'un GET
+     */
+    public synchronized void onPollResult(Outcome outcome) {
+        switch (outcome) {
+            case NEW_CONTENT:
+                notModifiedStreak = 0;
+                fastPollsRemaining = FAST_POLLS_AFTER_CHANGE;
+                break;
+            case NOT_MODIFIED:
+                notModifiedStreak++;
+                break;
+            case FAILED:
+                // Le circuit breaker gère les échecs, on garde le rythme courant
+                break;
+        }
+    }
+
+    /**
+     * Enregistre l'ancienneté d'une donnée distante au moment où on l'a reçue
+     */
+    public synchronized void recordStaleness(Duration staleness) {
+        if (staleness.isNegative()) return;
+        stalenessSamples[stalenessIndex] = staleness.toMillis();
+        stalenessIndex = (stalenessIndex + 1) % STALENESS_SAMPLES;
+        stalenessCount = Math.min(stalenessCount + 1, STALENESS_SAMPLES);
+    }
+
+    /**
+     * Calcule le délai avant le prochain poll
+     */
+    public synchronized Duration nextDelay(WorkerTimerSyncData data, Instant now) {
+        Duration delay;
+        if (paused) {
+            delay = MAX_INTERVAL;
+        } else if (fastPollsRemaining > 0) {
+            fastPollsRemaining--;
+            delay = MIN_INTERVAL;
+        } else if (hasTimerNearExpiry(data, now)) {
+            delay = MIN_INTERVAL;
+        } else if (notModifiedStreak > NOT_MODIFIED_STREAK_THRESHOLD) {
+            int exponent = Math.min(notModifiedStreak - NOT_MODIFIED_STREAK_THRESHOLD, 10);
+            Duration backoff = BASE_INTERVAL.multipliedBy(1L << exponent);
+            delay = backoff.compareTo(MAX_INTERVAL) > 0 ? MAX_INTERVAL : backoff;
+        } else {
+            delay = BASE_INTERVAL;
+        }
+        lastDelay = delay;
+        return delay;
+    }
+
+    private boolean hasTimerNearExpiry(WorkerTimerSyncData data, Instant now) {
+        if (data == null || data.timers == null) return false;
+        for (WorkerTimerSyncData.SyncTimer timer : data.timers.values()) {
+            try {
+                Duration untilExpiry = Duration.between(now, Instant.parse(timer.expiresAt));
+                if (untilExpiry.abs().compareTo(EXPIRY_HORIZON) <= 0) {
+                    return true;
+                }
+            } catch (Exception e) {
+                // Timer illisible : ignoré pour la planification
+            }
+        }
+        return false;
+    }
+
+    private void trimPollWindow(long now) {
+        long cutoff = now - Duration.ofHours(1).toMillis();
+        while (!pollTimestamps.isEmpty() && pollTimestamps.peekFirst() < cutoff) {
+            pollTimestamps.pollFirst();
+        }
+    }
+
+    /**
+     * Nombre de polls sur la dernière heure
+     */
+    public synchronized int getPollsLastHour() {
+        trimPollWindow(System.currentTimeMillis());
+        return pollTimestamps.size();
+    }
+
+    /**
+     * Ancienneté médiane des données distantes à réception (ms, -1 si inconnue)
+     */
+    public synchronized long getMedianStalenessMs() {
+        if (stalenessCount == 0) return -1;
+        long[] sorted = Arrays.copyOf(stalenessSamples, stalenessCount);
+        Arrays.sort(sorted);
+        return sorted[stalenessCount / 2];
+    }
+
+    /**
+     * Métriques de debug
+     */
+    public String getDebugMetrics() {
+        return String.format("poll[next=%ds, paused=%s, polls/h=%d, staleness50=%dms]",
+            lastDelay.getSeconds(), paused, getPollsLastHour(), getMedianStalenessMs());
+    }
+}
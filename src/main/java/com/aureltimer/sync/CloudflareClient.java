@@ -1,16 +1,28 @@
 package com.aureltimer.sync;
 
+import com.aureltimer.models.ShardManifest;
+import com.aureltimer.models.TimerDelta;
 import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.utils.CircuitBreaker;
+import com.aureltimer.utils.IoExecutor;
+import com.aureltimer.utils.ModScheduler;
 import com.aureltimer.utils.TimeAuthority;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -18,292 +30,877 @@ import java.util.concurrent.atomic.AtomicLong;
  * ✅ CLIENT CLOUDFLARE (Worker + R2)
  * 
  * Client HTTP natif pour éviter les dépendances AWS SDK.
- * Utilise HttpURLConnection pour GET/POST vers Cloudflare Workers.
+ * Utilise un java.net.http.HttpClient partagé (HTTP/2, keep-alive) pour GET/POST
+ * vers Cloudflare Workers, avec des variantes asynchrones (CompletableFuture).
  */
 public class CloudflareClient {
     
     // Classes de résultat pour compatibilité
     public static class GetResult {
         public final WorkerTimerSyncData data;
+        public final TimerDelta changes;
+        public final long sinceSeq;
         public final String etag;
         public final boolean success;
-        public final String jsonBody;
+        // Octets reçus sur le réseau pour cette réponse (renseigné par le client)
+        long wireBytes;
         
         public GetResult(WorkerTimerSyncData data, String etag, boolean success) {
             this.data = data;
+            this.changes = null;
+            this.sinceSeq = 0;
             this.etag = etag;
             this.success = success;
-            this.jsonBody = data != null ? data.toJson() : null;
+        }
+        
+        /**
+         * Résultat incrémental (GET ?since=N) : seulement les changements après le curseur
+         */
+        public GetResult(TimerDelta changes, long sinceSeq, String etag) {
+            this.data = null;
+            this.changes = changes;
+            this.sinceSeq = sinceSeq;
+            this.etag = etag;
+            this.success = true;
         }
         
         public boolean isSuccess() { return success; }
-        public boolean isNewContent() { return data != null; }
-        public boolean isNotModified() { return success && data == null; }
+        public boolean isNewContent() { return data != null || changes != null; }
+        public boolean isIncremental() { return changes != null; }
+        public boolean isNotModified() { return success && data == null && changes == null; }
+        public TimerDelta getChanges() { return changes; }
         public String getEtag() { return etag; }
-        public String getJsonBody() { return jsonBody; }
+        public WorkerTimerSyncData getData() { return data; }
+        public long getWireBytes() { return wireBytes; }
+        
+        /**
+         * JSON du document - re-sérialisé à la demande (debug uniquement, le chemin
+         * de sync utilise directement getData())
+         */
+        public String getJsonBody() { return data != null ? data.toJson() : null; }
         public String getErrorMessage() { return success ? null : "Erreur GET"; }
     }
     
     public static class PostResult {
         public final boolean success;
+        public final int status; // 0 si pas de réponse HTTP (circuit ouvert, erreur réseau)
         public final String error;
         public final String etag;
         
         public PostResult(boolean success, String error) {
-            this.success = success;
-            this.error = error;
-            this.etag = null;
+            this(success, 0, error, null);
         }
         
-        public PostResult(boolean success, String error, String etag) {
+        public PostResult(boolean success, int status, String error, String etag) {
             this.success = success;
+            this.status = status;
             this.error = error;
             this.etag = etag;
         }
         
         public boolean isSuccess() { return success; }
-        public boolean isPreconditionFailed() { return !success && error != null && error.contains("412"); }
+        public boolean isPreconditionFailed() { return !success && status == 412; }
+        public boolean isConflict() { return !success && status == 409; }
+        public boolean isDeltaUnsupported() { return !success && error != null && error.startsWith(DELTA_UNSUPPORTED); }
         public String getEtag() { return etag; }
         public String getErrorMessage() { return error; }
     }
     
-    private static final Logger LOGGER = LoggerFactory.getLogger(CloudflareClient.class);
+    /**
+     * Résultat d'un GET du manifeste des shards
+     */
+    public static class ManifestResult {
+        public final ShardManifest manifest;
+        public final String etag;
+        public final boolean success;
+        public final boolean unsupported;
+        long wireBytes;
+        
+        ManifestResult(ShardManifest manifest, String etag, boolean success, boolean unsupported) {
+            this.manifest = manifest;
+            this.etag = etag;
+            this.success = success;
+            this.unsupported = unsupported;
+        }
+        
+        public boolean isSuccess() { return success; }
+        public boolean isNotModified() { return success && manifest == null; }
+        public boolean isUnsupported() { return unsupported; }
+        public ShardManifest getManifest() { return manifest; }
+        public String getEtag() { return etag; }
+        public long getWireBytes() { return wireBytes; }
+    }
     
-    // Circuit breakers séparés pour lecture/écriture
-    private static final AtomicLong readCircuitBreakerUntil = new AtomicLong(0);
-    private static final AtomicLong writeCircuitBreakerUntil = new AtomicLong(0);
-    private static final AtomicInteger readFailures = new AtomicInteger(0);
-    private static final AtomicInteger writeFailures = new AtomicInteger(0);
+    private static final Logger LOGGER = LoggerFactory.getLogger(CloudflareClient.class);
     
     // Configuration
-    private static final int MAX_FAILURES = 3;
-    private static final Duration CIRCUIT_BREAKER_DURATION = Duration.ofMinutes(2);
-    private static final int CONNECT_TIMEOUT = 5000;
-    private static final int READ_TIMEOUT = 10000;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final double MAX_HEDGE_RATE = 0.1;
+    private static final Duration WARMUP_TIMEOUT = Duration.ofSeconds(10);
+    // Flux SSE : délai jusqu'aux headers seulement, le corps reste ouvert (voir TimerEventStream)
+    private static final Duration EVENTS_HEADERS_TIMEOUT = Duration.ofSeconds(10);
+    // Fermeture des connexions inactives par le HttpClient (30s par défaut, non modifiée ici)
+    private static final long IDLE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(
+        Long.getLong("jdk.httpclient.keepalive.timeout", 30));
+    // HEAD de maintien envoyé après 2/3 du délai d'inactivité, jamais plus tôt
+    private static final long KEEP_WARM_AFTER_MS = IDLE_TIMEOUT_MS * 2 / 3;
+    // Un poll qui part au moins 2s avant la fermeture réutilise la connexion
+    private static final long KEEP_WARM_MARGIN_MS = 2000;
+    private static final String USER_AGENT = "AurelTimer/1.4.7";
+    private static final String DELTA_UNSUPPORTED = "Delta non supporté";
+    public static final String SINCE_HEADER = "X-Sync-Since";
+    
+    // Support PATCH détecté côté Worker (optimiste jusqu'au premier refus)
+    private static volatile boolean deltaWriteSupported = true;
+    
+    // Support des corps gzip en écriture (optimiste jusqu'au premier 415)
+    private static volatile boolean compressionSupported = true;
+    
+    // Document découpé en shards côté Worker (optimiste jusqu'au premier 404 du manifeste)
+    private static volatile boolean shardingSupported = true;
+    
+    // GET de couverture après le p95 (désactivable avec -Daureltimer.sync.hedge=false)
+    private static final boolean HEDGING_ENABLED = Boolean.parseBoolean(System.getProperty("aureltimer.sync.hedge", "true"));
+    
+    // Écritures en format binaire : activées dès que le Worker répond en binaire à un GET
+    private static volatile boolean binarySupported = false;
+    
+    // Dernier échange sur la connexion partagée (hors flux SSE) et HEAD de maintien envoyés
+    private static volatile long lastExchangeNanos = System.nanoTime();
+    private static final AtomicLong keepWarmSent = new AtomicLong(0);
+    
+    // Négociation du format de lecture : binaire compact si possible, JSON sinon
+    private static final String ACCEPT = TimerBinaryCodec.ACCEPT_TYPE + ", application/json;q=0.9";
     
     /**
-     * GET timers depuis Cloudflare Worker
+     * Transport partagé : HTTP/2 + keep-alive, une seule poignée de main TLS
+     * réutilisée par toutes les requêtes (poll, revalidation, POST, sanity check).
+     * Callbacks et décodage des réponses sur IoExecutor (threads virtuels).
+     */
+    private static final HttpClient HTTP_CLIENT = buildHttpClient();
+    
+    // Un circuit breaker par endpoint : un manifeste en panne ne coupe pas les écritures
+    private final CircuitBreaker documentReads = CircuitBreaker.withDefaults("get");
+    private final CircuitBreaker shardReads = CircuitBreaker.withDefaults("shard-get");
+    private final CircuitBreaker manifestReads = CircuitBreaker.withDefaults("manifest");
+    private final CircuitBreaker documentWrites = CircuitBreaker.withDefaults("write");
+    private final CircuitBreaker shardWrites = CircuitBreaker.withDefaults("shard-write");
+    
+    // Latences par opération : timeouts et délais de couverture adaptatifs
+    private final LatencyTracker documentLatency = new LatencyTracker("get");
+    private final LatencyTracker shardLatency = new LatencyTracker("shard-get");
+    private final LatencyTracker manifestLatency = new LatencyTracker("manifest");
+    private final LatencyTracker writeLatency = new LatencyTracker("write");
+    
+    // Métriques transport
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong lastLatencyMs = new AtomicLong(0);
+    private final AtomicLong hedgeableGets = new AtomicLong(0);
+    private final AtomicLong hedgesSent = new AtomicLong(0);
+    private final AtomicLong hedgeWins = new AtomicLong(0);
+    
+    // Octets sur le réseau (compressés) vs octets du corps décompressé (JSON ou binaire)
+    private final AtomicLong bytesSent = new AtomicLong(0);
+    private final AtomicLong rawBytesSent = new AtomicLong(0);
+    private final AtomicLong bytesReceived = new AtomicLong(0);
+    private final AtomicLong rawBytesReceived = new AtomicLong(0);
+    
+    public CloudflareClient() {
+        for (CircuitBreaker breaker : breakers()) {
+            breaker.addListener(CloudflareClient::logTransition);
+        }
+    }
+    
+    /**
+     * Abonnement aux changements d'état des circuit breakers (tous endpoints)
+     */
+    public void addCircuitBreakerListener(CircuitBreaker.Listener listener) {
+        for (CircuitBreaker breaker : breakers()) {
+            breaker.addListener(listener);
+        }
+    }
+    
+    /**
+     * GET timers depuis Cloudflare Worker (bloquant, pour compatibilité)
      */
     public GetResult getTimers(String etag, String opId) {
-        if (isCircuitBreakerOpen(readCircuitBreakerUntil.get())) {
-            LOGGER.warn("🔴 Circuit breaker lecture ouvert - skip GET [{}]", opId);
-            return new GetResult(null, null, false);
+        return getTimersAsync(etag, opId).join();
+    }
+    
+    /**
+     * GET timers depuis Cloudflare Worker - asynchrone, ne bloque jamais l'appelant
+     */
+    public CompletableFuture<GetResult> getTimersAsync(String etag, String opId) {
+        return sendGet(CloudflareConfig.WORKER_TIMERS_URL, documentReads, documentLatency, etag, opId);
+    }
+    
+    /**
+     * GET incrémental : seulement les timers ajoutés/modifiés/supprimés après le curseur
+     * 
+     * Un Worker sans support du curseur ignore le paramètre et renvoie le document
+     * complet (sans header X-Sync-Since) : le résultat est alors un GET classique.
+     */
+    public CompletableFuture<GetResult> getTimerChangesAsync(String etag, long sinceSeq, String opId) {
+        return sendGet(CloudflareConfig.WORKER_TIMERS_URL + "?since=" + sinceSeq, documentReads, documentLatency, etag, opId);
+    }
+    
+    private CompletableFuture<GetResult> sendGet(String url, CircuitBreaker breaker, LatencyTracker latency,
+                                                 String etag, String opId) {
+        if (!breaker.tryAcquire()) {
+            LOGGER.debug("🔴 Circuit breaker {} ouvert - skip GET [{}]", breaker.getName(), opId);
+            return CompletableFuture.completedFuture(new GetResult(null, null, false));
         }
         
         LOGGER.debug("🔍 Tentative GET timers... [{}]", opId);
         
-        try {
-            URL url = new URL(CloudflareConfig.WORKER_TIMERS_URL);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            
-            // Configuration
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(CONNECT_TIMEOUT);
-            conn.setReadTimeout(READ_TIMEOUT);
-            conn.setRequestProperty("User-Agent", "AurelTimer/1.4.3");
-            
-            // ETag pour cache
-            if (etag != null && !etag.isEmpty()) {
-                conn.setRequestProperty("If-None-Match", etag);
-            }
-            
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+            .GET()
+            .timeout(latency.timeout())
+            .header("User-Agent", USER_AGENT)
+            .header("Accept", ACCEPT)
+            .header("Accept-Encoding", HttpCompression.ACCEPT_ENCODING)
             // Headers pour TimeAuthority
-            conn.setRequestProperty("Date", Instant.now().toString());
-            
-            int responseCode = conn.getResponseCode();
-            
+            .header("Date", Instant.now().toString());
+        
+        // ETag pour cache
+        if (etag != null && !etag.isEmpty()) {
+            builder.header("If-None-Match", etag);
+        }
+        
+        long startNanos = System.nanoTime();
+        return sendHedged(builder.build(), latency, opId)
+            .handle((response, error) -> {
+                recordLatency(latency, startNanos, error == null);
+                if (error != null) {
+                    LOGGER.error("❌ Erreur GET timers [{}]", opId, error);
+                    breaker.onFailure();
+                    return new GetResult(null, null, false);
+                }
+                return handleGetResponse(response, breaker, etag, opId);
+            });
+    }
+    
+    /**
+     * Décodage streaming : le modèle est construit en une seule passe depuis le flux
+     * de la réponse, sans String intermédiaire ni re-sérialisation.
+     * Le format (binaire ou JSON) suit le Content-Type renvoyé par le Worker.
+     */
+    private GetResult handleGetResponse(HttpResponse<InputStream> response, CircuitBreaker breaker, String etag, String opId) {
+        AtomicLong received = new AtomicLong();
+        GetResult result = readGetResponse(response, received, breaker, etag, opId);
+        bytesReceived.addAndGet(received.get());
+        result.wireBytes = received.get();
+        return result;
+    }
+    
+    private GetResult readGetResponse(HttpResponse<InputStream> response, AtomicLong received, CircuitBreaker breaker,
+                                      String etag, String opId) {
+        int responseCode = response.statusCode();
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        
+        // Décompression seulement pour un 200 avec corps : un 304 (ou un corps vide
+        // annoncé gzip) ne doit ni lever EOFException ni compter comme un échec
+        try (InputStream raw = HttpCompression.counting(response.body(), received)) {
             if (responseCode == 304) {
                 LOGGER.debug("📋 Cache hit (304) - pas de changement");
-                readFailures.set(0);
+                breaker.onSuccess();
                 return new GetResult(null, etag, true); // Pas de changement
             }
             
             if (responseCode == 200) {
-                // Lire la réponse
-                String responseBody = readResponse(conn);
-                String newEtag = conn.getHeaderField("ETag");
-                
-                // Mettre à jour TimeAuthority
-                String dateHeader = conn.getHeaderField("Date");
-                if (dateHeader != null) {
-                    TimeAuthority.updateFromHttpDate(dateHeader);
-                }
-                
-                // Parser JSON
-                WorkerTimerSyncData data = WorkerTimerSyncData.fromJson(responseBody);
-                if (data != null) {
-                    data.setEtag(newEtag);
-                    LOGGER.info("📥 GET réussi - {} timers, ETag: {}", 
-                        data.getTimers().size(), newEtag);
-                    readFailures.set(0);
-                    return new GetResult(data, newEtag, true);
+                try (InputStream body = HttpCompression.decodeNonEmpty(raw, contentEncoding)) {
+                    GetResult result = body != null ? parseGetBody(response, body, breaker) : null;
+                    if (result != null) {
+                        return result;
+                    }
+                    LOGGER.warn("⚠️ GET 200 {} [{}]", body == null ? "sans corps" : "illisible", opId);
                 }
+            } else {
+                // Gestion des erreurs
+                handleHttpError("GET", responseCode, readErrorBody(raw, contentEncoding));
             }
-            
-            // Gestion des erreurs
-            handleHttpError("GET", responseCode, conn);
-            readFailures.incrementAndGet();
-            
-            LOGGER.warn("❌ GET échoué - Code: {}, Échecs: {}/{} [{}]", 
-                       responseCode, readFailures.get(), MAX_FAILURES, opId);
-            
-            if (readFailures.get() >= MAX_FAILURES) {
-                openCircuitBreaker(readCircuitBreakerUntil);
-                LOGGER.warn("🔴 Circuit breaker lecture ouvert après {} échecs [{}]", MAX_FAILURES, opId);
-            }
-            
-        } catch (Exception e) {
-            LOGGER.error("❌ Erreur GET timers", e);
-            readFailures.incrementAndGet();
-            
-            if (readFailures.get() >= MAX_FAILURES) {
-                openCircuitBreaker(readCircuitBreakerUntil);
-                LOGGER.warn("🔴 Circuit breaker lecture ouvert après {} échecs", MAX_FAILURES);
-            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("❌ Erreur lecture réponse GET [{}]", opId, e);
         }
         
+        LOGGER.warn("❌ GET échoué - Code: {} [{}]", responseCode, opId);
+        breaker.onFailure();
+        
         return new GetResult(null, null, false);
     }
     
     /**
-     * POST timers vers Cloudflare Worker
+     * Corps d'un GET 200 (document complet ou delta), null s'il est illisible
      */
-    public PostResult postTimers(String jsonData, String ifMatch, String opId) {
-        if (isCircuitBreakerOpen(writeCircuitBreakerUntil.get())) {
-            LOGGER.warn("🔴 Circuit breaker écriture ouvert - skip POST");
-            return new PostResult(false, "Circuit breaker ouvert");
+    private GetResult parseGetBody(HttpResponse<InputStream> response, InputStream body, CircuitBreaker breaker) {
+        String newEtag = response.headers().firstValue("ETag").orElse(null);
+        
+        // Mettre à jour TimeAuthority
+        response.headers().firstValue("Date").ifPresent(TimeAuthority::updateFromHttpDate);
+        
+        InputStream decoded = HttpCompression.counting(body, rawBytesReceived);
+        Reader reader = new InputStreamReader(decoded, StandardCharsets.UTF_8);
+        boolean binary = TimerBinaryCodec.isBinary(response.headers().firstValue("Content-Type").orElse(null));
+        
+        // Réponse incrémentale (GET ?since=N)
+        long sinceSeq = parseSeq(response.headers().firstValue(SINCE_HEADER).orElse(null));
+        if (sinceSeq > 0) {
+            TimerDelta changes = TimerDelta.fromJson(reader);
+            if (changes != null) {
+                LOGGER.info("📥 GET incrémental réussi - {} changement(s) depuis seq {}, ETag: {}", 
+                    changes.getTimers().size(), sinceSeq, newEtag);
+                breaker.onSuccess();
+                return new GetResult(changes, sinceSeq, newEtag);
+            }
+            return null;
         }
         
-        try {
-            URL url = new URL(CloudflareConfig.WORKER_TIMERS_URL);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            
-            // Configuration
-            conn.setRequestMethod("POST");
-            conn.setConnectTimeout(CONNECT_TIMEOUT);
-            conn.setReadTimeout(READ_TIMEOUT);
-            conn.setDoOutput(true);
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("User-Agent", "AurelTimer/1.4.3");
-            conn.setRequestProperty("Authorization", "Bearer " + CloudflareConfig.getWriteToken());
-            
-            // If-Match pour concurrence optimiste
-            if (ifMatch != null && !ifMatch.isEmpty()) {
-                conn.setRequestProperty("If-Match", ifMatch);
+        // Parser binaire ou JSON selon le format négocié
+        WorkerTimerSyncData data = binary ? TimerBinaryCodec.decode(decoded) : WorkerTimerSyncData.fromJson(reader);
+        if (data == null) {
+            return null;
+        }
+        if (binary && !binarySupported) {
+            binarySupported = true;
+            LOGGER.info("📦 Format binaire supporté par le Worker - activé pour les écritures");
+        }
+        data.setEtag(newEtag);
+        LOGGER.info("📥 GET réussi - {} timers ({}), ETag: {}", 
+            data.getTimers().size(), binary ? "binaire" : "JSON", newEtag);
+        breaker.onSuccess();
+        return new GetResult(data, newEtag, true);
+    }
+    
+    /**
+     * Texte d'une réponse d'erreur pour les logs (vide si absent ou indécodable)
+     */
+    private static String readErrorBody(InputStream raw, String contentEncoding) {
+        try (InputStream body = HttpCompression.decodeNonEmpty(raw, contentEncoding)) {
+            return body != null ? new String(body.readAllBytes(), StandardCharsets.UTF_8) : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+    
+    /**
+     * POST timers vers Cloudflare Worker (bloquant, pour compatibilité)
+     */
+    public PostResult postTimers(WorkerTimerSyncData data, String ifMatch, String opId) {
+        return postTimersAsync(data, ifMatch, opId).join();
+    }
+    
+    /**
+     * POST timers vers Cloudflare Worker - asynchrone, ne bloque jamais l'appelant
+     */
+    public CompletableFuture<PostResult> postTimersAsync(WorkerTimerSyncData data, String ifMatch, String opId) {
+        if (!documentWrites.tryAcquire()) {
+            LOGGER.debug("🔴 Circuit breaker écriture ouvert - skip POST [{}]", opId);
+            return CompletableFuture.completedFuture(new PostResult(false, "Circuit breaker ouvert"));
+        }
+        
+        long startNanos = System.nanoTime();
+        return sendDocument(CloudflareConfig.WORKER_TIMERS_URL, data, ifMatch)
+            .handle((response, error) -> {
+                recordLatency(writeLatency, startNanos, error == null);
+                if (error != null) {
+                    LOGGER.error("❌ Erreur POST timers [{}]", opId, error);
+                    documentWrites.onFailure();
+                    return new PostResult(false, "Erreur inconnue");
+                }
+                return handlePostResponse(response, documentWrites);
+            });
+    }
+    
+    /**
+     * POST d'un document, en binaire si le Worker l'a annoncé, en JSON sinon.
+     * Un 415 sur le corps binaire désactive le format et renvoie aussitôt en JSON.
+     */
+    private CompletableFuture<HttpResponse<String>> sendDocument(String url, WorkerTimerSyncData data, String ifMatch) {
+        if (!binarySupported) {
+            return sendWrite(url, "POST", "application/json", data.toCompactJson().getBytes(StandardCharsets.UTF_8),
+                ifMatch, compressionSupported);
+        }
+        return sendWrite(url, "POST", TimerBinaryCodec.CONTENT_TYPE, TimerBinaryCodec.encode(data), ifMatch, compressionSupported)
+            .thenCompose(response -> {
+                if (response.statusCode() == 415) {
+                    binarySupported = false;
+                    LOGGER.warn("⚠️ Corps binaire refusé par le Worker (415) - retour au JSON");
+                    return sendDocument(url, data, ifMatch);
+                }
+                return CompletableFuture.completedFuture(response);
+            });
+    }
+    
+    /**
+     * Envoie un corps (POST/PATCH), compressé en gzip au-delà du seuil.
+     * Si le Worker refuse le corps compressé (415), la compression est désactivée
+     * et la requête est renvoyée immédiatement en clair.
+     */
+    private CompletableFuture<HttpResponse<String>> sendWrite(String url, String method, String contentType, byte[] raw,
+                                                             String ifMatch, boolean allowCompression) {
+        byte[] payload = raw;
+        boolean compressed = false;
+        if (allowCompression && raw.length >= HttpCompression.COMPRESSION_THRESHOLD_BYTES) {
+            try {
+                payload = HttpCompression.gzip(raw);
+                compressed = true;
+            } catch (IOException e) {
+                LOGGER.debug("Compression gzip impossible - envoi en clair: {}", e.getMessage());
             }
-            
+        }
+        
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+            .method(method, HttpRequest.BodyPublishers.ofByteArray(payload))
+            .timeout(writeLatency.timeout())
+            .header("Content-Type", contentType)
+            .header("User-Agent", USER_AGENT)
+            .header("Authorization", "Bearer " + CloudflareConfig.getWriteToken())
             // Headers pour TimeAuthority
-            conn.setRequestProperty("Date", Instant.now().toString());
-            
-            // Corps de la requête
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(jsonData.getBytes(StandardCharsets.UTF_8));
-            }
-            
-            int responseCode = conn.getResponseCode();
-            
-            if (responseCode == 200 || responseCode == 201) {
-                LOGGER.info("📤 POST réussi - timers synchronisés");
-                writeFailures.set(0);
-                return new PostResult(true, null);
-            }
-            
-            if (responseCode == 412) {
-                LOGGER.warn("⚠️ POST 412 - conflit de version, retry nécessaire");
-                writeFailures.incrementAndGet();
-                return new PostResult(false, "Conflit de version (412)");
-            }
-            
-            if (responseCode == 409) {
-                LOGGER.warn("⚠️ POST 409 - conflit, retry nécessaire");
-                writeFailures.incrementAndGet();
-                return new PostResult(false, "Conflit (409)");
+            .header("Date", Instant.now().toString());
+        
+        if (compressed) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        
+        // If-Match pour concurrence optimiste
+        if (ifMatch != null && !ifMatch.isEmpty()) {
+            builder.header("If-Match", ifMatch);
+        }
+        
+        bytesSent.addAndGet(payload.length);
+        rawBytesSent.addAndGet(raw.length);
+        
+        boolean sentCompressed = compressed;
+        markExchange();
+        return HTTP_CLIENT.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+            .thenCompose(response -> {
+                if (sentCompressed && response.statusCode() == 415) {
+                    compressionSupported = false;
+                    LOGGER.warn("⚠️ Corps gzip refusé par le Worker (415) - compression des envois désactivée");
+                    return sendWrite(url, method, contentType, raw, ifMatch, false);
+                }
+                return CompletableFuture.completedFuture(response);
+            });
+    }
+    
+    private PostResult handlePostResponse(HttpResponse<String> response, CircuitBreaker breaker) {
+        int responseCode = response.statusCode();
+        
+        if (responseCode == 200 || responseCode == 201) {
+            LOGGER.info("📤 POST réussi - timers synchronisés");
+            breaker.onSuccess();
+            return new PostResult(true, responseCode, null, response.headers().firstValue("ETag").orElse(null));
+        }
+        
+        // Conflits attendus (concurrence optimiste) : le Worker répond, pas d'échec pour le circuit breaker
+        if (responseCode == 412) {
+            LOGGER.warn("⚠️ POST 412 - conflit de version, retry nécessaire");
+            breaker.onIgnored();
+            return new PostResult(false, responseCode, "Conflit de version (412)", null);
+        }
+        
+        if (responseCode == 409) {
+            LOGGER.warn("⚠️ POST 409 - conflit, retry nécessaire");
+            breaker.onIgnored();
+            return new PostResult(false, responseCode, "Conflit (409)", null);
+        }
+        
+        // Gestion des erreurs
+        handleHttpError("POST", responseCode, response.body());
+        breaker.onFailure();
+        
+        return new PostResult(false, responseCode, "Erreur HTTP " + responseCode, null);
+    }
+    
+    /**
+     * PATCH d'un delta par dimension (JSON merge-patch) - asynchrone
+     * 
+     * Pas d'If-Match : le Worker applique le patch atomiquement sur la dernière version,
+     * seules les dimensions du delta sont concernées. Si le Worker ne supporte pas
+     * encore PATCH (404/405/415/501), le delta est désactivé et l'appelant doit
+     * retomber sur le POST du document complet.
+     */
+    public CompletableFuture<PostResult> patchTimersAsync(TimerDelta delta, String opId) {
+        if (!documentWrites.tryAcquire()) {
+            LOGGER.debug("🔴 Circuit breaker écriture ouvert - skip PATCH [{}]", opId);
+            return CompletableFuture.completedFuture(new PostResult(false, "Circuit breaker ouvert"));
+        }
+        
+        String patchJson = delta.toJson();
+        LOGGER.debug("📤 PATCH delta {} dimension(s), {} octets [{}]", delta.getTimers().size(), patchJson.length(), opId);
+        
+        long startNanos = System.nanoTime();
+        return sendWrite(CloudflareConfig.WORKER_TIMERS_URL, "PATCH", TimerDelta.CONTENT_TYPE,
+                patchJson.getBytes(StandardCharsets.UTF_8), null, compressionSupported)
+            .handle((response, error) -> {
+                recordLatency(writeLatency, startNanos, error == null);
+                if (error != null) {
+                    LOGGER.error("❌ Erreur PATCH timers [{}]", opId, error);
+                    documentWrites.onFailure();
+                    return new PostResult(false, "Erreur inconnue");
+                }
+                int responseCode = response.statusCode();
+                if (responseCode == 404 || responseCode == 405 || responseCode == 415 || responseCode == 501) {
+                    deltaWriteSupported = false;
+                    LOGGER.warn("⚠️ PATCH non supporté par le Worker ({}) - retour au POST complet [{}]", responseCode, opId);
+                    documentWrites.onIgnored();
+                    return new PostResult(false, responseCode, DELTA_UNSUPPORTED + " (" + responseCode + ")", null);
+                }
+                return handlePostResponse(response, documentWrites);
+            });
+    }
+    
+    /**
+     * GET conditionnel du manifeste des shards (quelques centaines d'octets).
+     * 404/405/501 : le Worker ne découpe pas le document, le sharding est désactivé.
+     */
+    public CompletableFuture<ManifestResult> getManifestAsync(String etag, String opId) {
+        if (!manifestReads.tryAcquire()) {
+            LOGGER.debug("🔴 Circuit breaker manifeste ouvert - skip GET [{}]", opId);
+            return CompletableFuture.completedFuture(new ManifestResult(null, null, false, false));
+        }
+        
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(CloudflareConfig.WORKER_MANIFEST_URL))
+            .GET()
+            .timeout(manifestLatency.timeout())
+            .header("User-Agent", USER_AGENT)
+            .header("Accept-Encoding", HttpCompression.ACCEPT_ENCODING);
+        if (etag != null && !etag.isEmpty()) {
+            builder.header("If-None-Match", etag);
+        }
+        
+        long startNanos = System.nanoTime();
+        return sendHedged(builder.build(), manifestLatency, opId)
+            .handle((response, error) -> {
+                recordLatency(manifestLatency, startNanos, error == null);
+                if (error != null) {
+                    LOGGER.error("❌ Erreur GET manifeste [{}]", opId, error);
+                    manifestReads.onFailure();
+                    return new ManifestResult(null, null, false, false);
+                }
+                return handleManifestResponse(response, etag, opId);
+            });
+    }
+    
+    private ManifestResult handleManifestResponse(HttpResponse<InputStream> response, String etag, String opId) {
+        AtomicLong received = new AtomicLong();
+        ManifestResult result = readManifestResponse(response, received, etag, opId);
+        bytesReceived.addAndGet(received.get());
+        result.wireBytes = received.get();
+        return result;
+    }
+    
+    private ManifestResult readManifestResponse(HttpResponse<InputStream> response, AtomicLong received,
+                                                String etag, String opId) {
+        int responseCode = response.statusCode();
+        String contentEncoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        
+        try (InputStream raw = HttpCompression.counting(response.body(), received)) {
+            if (responseCode == 304) {
+                manifestReads.onSuccess();
+                return new ManifestResult(null, etag, true, false);
             }
             
-            // Gestion des erreurs
-            handleHttpError("POST", responseCode, conn);
-            writeFailures.incrementAndGet();
-            
-            if (writeFailures.get() >= MAX_FAILURES) {
-                openCircuitBreaker(writeCircuitBreakerUntil);
-                LOGGER.warn("🔴 Circuit breaker écriture ouvert après {} échecs", MAX_FAILURES);
+            if (responseCode == 404 || responseCode == 405 || responseCode == 501) {
+                shardingSupported = false;
+                LOGGER.info("📋 Manifeste non supporté par le Worker ({}) - document unique [{}]", responseCode, opId);
+                manifestReads.onIgnored();
+                return new ManifestResult(null, null, false, true);
             }
             
-        } catch (Exception e) {
-            LOGGER.error("❌ Erreur POST timers", e);
-            writeFailures.incrementAndGet();
-            
-            if (writeFailures.get() >= MAX_FAILURES) {
-                openCircuitBreaker(writeCircuitBreakerUntil);
-                LOGGER.warn("🔴 Circuit breaker écriture ouvert après {} échecs", MAX_FAILURES);
+            if (responseCode == 200) {
+                response.headers().firstValue("Date").ifPresent(TimeAuthority::updateFromHttpDate);
+                try (InputStream body = HttpCompression.decodeNonEmpty(raw, contentEncoding)) {
+                    ShardManifest manifest = body == null ? null : ShardManifest.fromJson(
+                        new InputStreamReader(HttpCompression.counting(body, rawBytesReceived), StandardCharsets.UTF_8));
+                    if (manifest != null && manifest.isValid()) {
+                        manifestReads.onSuccess();
+                        return new ManifestResult(manifest, response.headers().firstValue("ETag").orElse(null), true, false);
+                    }
+                }
+                LOGGER.warn("⚠️ Manifeste illisible [{}]", opId);
+            } else {
+                handleHttpError("GET manifeste", responseCode, readErrorBody(raw, contentEncoding));
             }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("❌ Erreur lecture manifeste [{}]", opId, e);
         }
         
-        return new PostResult(false, "Erreur inconnue");
+        manifestReads.onFailure();
+        return new ManifestResult(null, null, false, false);
     }
     
     /**
-     * Lire la réponse HTTP
+     * GET conditionnel d'un shard (mêmes règles que le document complet)
      */
-    private static String readResponse(HttpURLConnection conn) throws IOException {
-        try (InputStream is = conn.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            return response.toString();
+    public CompletableFuture<GetResult> getShardAsync(int shard, String etag, String opId) {
+        return sendGet(CloudflareConfig.getShardUrl(shard), shardReads, shardLatency, etag, opId);
+    }
+    
+    /**
+     * POST d'un shard avec If-Match sur l'ETag du shard : seuls les écrivains
+     * du même shard peuvent entrer en conflit
+     */
+    public CompletableFuture<PostResult> postShardAsync(int shard, WorkerTimerSyncData shardData, String ifMatch, String opId) {
+        if (!shardWrites.tryAcquire()) {
+            LOGGER.debug("🔴 Circuit breaker écriture shards ouvert - skip POST shard {} [{}]", shard, opId);
+            return CompletableFuture.completedFuture(new PostResult(false, "Circuit breaker ouvert"));
+        }
+        
+        long startNanos = System.nanoTime();
+        return sendDocument(CloudflareConfig.getShardUrl(shard), shardData, ifMatch)
+            .handle((response, error) -> {
+                recordLatency(writeLatency, startNanos, error == null);
+                if (error != null) {
+                    LOGGER.error("❌ Erreur POST shard {} [{}]", shard, opId, error);
+                    shardWrites.onFailure();
+                    return new PostResult(false, "Erreur inconnue");
+                }
+                return handlePostResponse(response, shardWrites);
+            });
+    }
+    
+    /**
+     * Indique si le Worker expose le document découpé en shards
+     */
+    public boolean isShardingSupported() {
+        return shardingSupported;
+    }
+    
+    /**
+     * Ouvre le flux SSE des changements de timers (bloquant jusqu'aux headers,
+     * HttpTimeoutException après 10s). Le corps reste ouvert tant que le Worker
+     * pousse des événements ; son inactivité est surveillée par TimerEventStream.
+     */
+    public HttpResponse<InputStream> openTimerEvents(long lastEventId) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(CloudflareConfig.WORKER_EVENTS_URL))
+            .GET()
+            .timeout(EVENTS_HEADERS_TIMEOUT)
+            .header("Accept", "text/event-stream")
+            .header("Cache-Control", "no-cache")
+            .header("User-Agent", USER_AGENT);
+        
+        // Reprise après coupure : le Worker rejoue les changements manqués
+        if (lastEventId > 0) {
+            builder.header("Last-Event-ID", Long.toString(lastEventId));
         }
+        
+        return HTTP_CLIENT.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
     }
     
     /**
-     * Gérer les erreurs HTTP
+     * HEAD sur le document timers : ouvre la connexion partagée (DNS, TCP, TLS,
+     * HTTP/2) avant le premier GET. Le code HTTP est sans importance, aucun corps
+     * n'est lu ; hors circuit breakers et mesures de latence.
+     */
+    static CompletableFuture<Integer> warmUpAsync() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(CloudflareConfig.WORKER_TIMERS_URL))
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .timeout(WARMUP_TIMEOUT)
+            .header("User-Agent", USER_AGENT)
+            .build();
+        markExchange();
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenApply(HttpResponse::statusCode);
+    }
+    
+    /**
+     * Indique si le Worker accepte les écritures delta (PATCH)
+     */
+    public boolean isDeltaWriteSupported() {
+        return deltaWriteSupported;
+    }
+    
+    /**
+     * Indique si les documents partent en format binaire (Worker compatible détecté)
      */
-    private static void handleHttpError(String method, int responseCode, HttpURLConnection conn) {
-        String errorBody = "";
+    public boolean isBinarySupported() {
+        return binarySupported;
+    }
+    
+    private static long parseSeq(String value) {
+        if (value == null) return -1;
         try {
-            if (conn.getErrorStream() != null) {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                    StringBuilder error = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        error.append(line);
-                    }
-                    errorBody = error.toString();
-                }
-            }
-        } catch (Exception e) {
-            // Ignore
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * GET idempotent avec couverture : si aucune réponse n'est arrivée après le p95
+     * de l'opération, une seconde requête identique part et la première réponse
+     * gagne. Le corps de la perdante est fermé dès son arrivée. Les couvertures
+     * sont plafonnées à 10% des GET pour ne pas doubler la charge d'un Worker lent.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendHedged(HttpRequest request, LatencyTracker latency, String opId) {
+        markExchange();
+        CompletableFuture<HttpResponse<InputStream>> primary =
+            HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        long hedgeDelay = latency.hedgeDelayMillis();
+        if (!HEDGING_ENABLED || hedgeDelay < 0) {
+            return primary;
         }
+        hedgeableGets.incrementAndGet();
         
-        LOGGER.error("❌ {} échoué - Code: {}, Body: {}", method, responseCode, errorBody);
+        CompletableFuture<HttpResponse<InputStream>> winner = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        primary.whenComplete((response, error) -> settleHedge(winner, response, error, false, outstanding));
+        
+        ModScheduler.schedule(() -> {
+            if (winner.isDone() || hedgesSent.get() >= MAX_HEDGE_RATE * hedgeableGets.get()) return;
+            outstanding.incrementAndGet();
+            hedgesSent.incrementAndGet();
+            LOGGER.debug("🪁 GET de couverture après {}ms sans réponse [{}]", hedgeDelay, opId);
+            markExchange();
+            HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .whenComplete((response, error) -> settleHedge(winner, response, error, true, outstanding));
+        }, hedgeDelay, TimeUnit.MILLISECONDS);
+        return winner;
+    }
+    
+    private void settleHedge(CompletableFuture<HttpResponse<InputStream>> winner, HttpResponse<InputStream> response,
+                             Throwable error, boolean hedge, AtomicInteger outstanding) {
+        int remaining = outstanding.decrementAndGet();
+        if (error != null) {
+            // L'autre requête peut encore répondre
+            if (remaining == 0) {
+                winner.completeExceptionally(error);
+            }
+            return;
+        }
+        if (winner.complete(response)) {
+            if (hedge) {
+                hedgeWins.incrementAndGet();
+            }
+        } else {
+            try {
+                response.body().close();
+            } catch (IOException ignored) {
+                // Réponse perdante : rien à récupérer
+            }
+        }
+    }
+    
+    private void recordLatency(LatencyTracker latency, long startNanos, boolean responded) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        requestCount.incrementAndGet();
+        lastLatencyMs.set(latencyMs);
+        if (responded) {
+            latency.record(latencyMs);
+        }
+    }
+    
+    /**
+     * Part des GET couverts par une seconde requête (0..1)
+     */
+    public double getHedgeRate() {
+        long gets = hedgeableGets.get();
+        return gets == 0 ? 0 : (double) hedgesSent.get() / gets;
     }
     
     /**
-     * Vérifier si le circuit breaker est ouvert
+     * Part des couvertures arrivées avant la requête initiale (0..1)
      */
-    private static boolean isCircuitBreakerOpen(long until) {
-        return until > System.currentTimeMillis();
+    public double getHedgeWinRate() {
+        long hedges = hedgesSent.get();
+        return hedges == 0 ? 0 : (double) hedgeWins.get() / hedges;
     }
     
     /**
-     * Ouvrir le circuit breaker
+     * Gérer les erreurs HTTP
      */
-    private static void openCircuitBreaker(AtomicLong breaker) {
-        breaker.set(System.currentTimeMillis() + CIRCUIT_BREAKER_DURATION.toMillis());
+    private static void handleHttpError(String method, int responseCode, String errorBody) {
+        LOGGER.error("❌ {} échoué - Code: {}, Body: {}", method, responseCode, errorBody != null ? errorBody : "");
     }
     
     /**
-     * Fermer le circuit breaker (pour tests)
+     * Maintien de la connexion partagée quand les polls sont espacés : le HttpClient
+     * ferme une connexion inactive après jdk.httpclient.keepalive.timeout (30s par
+     * défaut) et le poll suivant (jusqu'à 5 min) repayait TCP + TLS. Plutôt que de
+     * changer cette propriété globale de la JVM (partagée avec le jeu et les autres
+     * mods), un HEAD sans corps part avant la fermeture si le prochain poll ne
+     * tombe pas lui-même avant : au plus un HEAD par délai d'inactivité, aucun
+     * quand les polls sont rapprochés. Hors circuit breakers et mesures de latence.
+     *
+     * @param untilNextPollMillis délai avant le prochain poll programmé
+     * @return true si un HEAD de maintien est parti
      */
-    public static void resetCircuitBreakers() {
-        readCircuitBreakerUntil.set(0);
-        writeCircuitBreakerUntil.set(0);
-        readFailures.set(0);
-        writeFailures.set(0);
+    public boolean keepWarmIfIdle(long untilNextPollMillis) {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastExchangeNanos);
+        if (idleMillis < KEEP_WARM_AFTER_MS) {
+            return false;
+        }
+        if (idleMillis + untilNextPollMillis + KEEP_WARM_MARGIN_MS <= IDLE_TIMEOUT_MS) {
+            return false; // Le poll arrive avant la fermeture
+        }
+        keepWarmSent.incrementAndGet();
+        warmUpAsync().whenComplete((status, error) -> {
+            if (error != null) {
+                LOGGER.debug("♨️ HEAD de maintien échoué: {}", error.getMessage());
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Période conseillée pour appeler keepWarmIfIdle (un tiers du délai d'inactivité)
+     */
+    public static Duration keepWarmCheckInterval() {
+        return Duration.ofMillis(IDLE_TIMEOUT_MS / 3);
+    }
+    
+    private static void markExchange() {
+        lastExchangeNanos = System.nanoTime();
+    }
+    
+    /**
+     * HttpClient partagé, délai d'inactivité du JDK laissé tel quel (voir keepWarmIfIdle)
+     */
+    private static HttpClient buildHttpClient() {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(IoExecutor.executor())
+            .build();
+    }
+    
+    /**
+     * Journalise les transitions des circuit breakers
+     */
+    private static void logTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+        switch (to) {
+            case OPEN:
+                LOGGER.warn("🔴 Circuit breaker {} ouvert ({} → OPEN, échecs {}%) - sondes dans {}s",
+                    breaker.getName(), from, Math.round(breaker.getFailureRate() * 100),
+                    TimeUnit.MILLISECONDS.toSeconds(breaker.getRemainingOpenMillis()));
+                break;
+            case HALF_OPEN:
+                LOGGER.info("🟡 Circuit breaker {} semi-ouvert - sondes autorisées", breaker.getName());
+                break;
+            case CLOSED:
+            default:
+                LOGGER.info("🟢 Circuit breaker {} refermé", breaker.getName());
+                break;
+        }
+    }
+    
+    private CircuitBreaker[] breakers() {
+        return new CircuitBreaker[] { documentReads, shardReads, manifestReads, documentWrites, shardWrites };
+    }
+    
+    /**
+     * Fermer les circuit breakers et réactiver les formats optimistes (pour tests)
+     */
+    public void resetCircuitBreakers() {
+        for (CircuitBreaker breaker : breakers()) {
+            breaker.reset();
+        }
+        deltaWriteSupported = true;
+        compressionSupported = true;
+        shardingSupported = true;
+        binarySupported = false;
         LOGGER.info("🔄 Circuit breakers réinitialisés");
     }
     
@@ -311,14 +908,37 @@ public class CloudflareClient {
      * Obtient les métriques de debug
      */
     public String getDebugMetrics() {
-        return String.format("CB[r=%d,w=%d]", 
-            readFailures.get(), writeFailures.get());
+        StringBuilder circuits = new StringBuilder();
+        for (CircuitBreaker breaker : breakers()) {
+            if (circuits.length() > 0) circuits.append(',');
+            circuits.append(breaker.getDebugMetrics());
+        }
+        return String.format("CB[%s], http[req=%d,last=%dms,keepWarm=%d], lat[%s,%s,%s,%s], hedge[sent=%d,rate=%.1f%%,win=%.0f%%], io[out=%dB/%dB,in=%dB/%dB]", 
+            circuits, requestCount.get(), lastLatencyMs.get(), keepWarmSent.get(),
+            documentLatency.getDebugMetrics(), shardLatency.getDebugMetrics(),
+            manifestLatency.getDebugMetrics(), writeLatency.getDebugMetrics(),
+            hedgesSent.get(), getHedgeRate() * 100, getHedgeWinRate() * 100,
+            bytesSent.get(), rawBytesSent.get(), bytesReceived.get(), rawBytesReceived.get());
+    }
+    
+    /**
+     * Total des octets transférés sur le réseau (envoyés + reçus, après compression)
+     */
+    public long getWireBytes() {
+        return bytesSent.get() + bytesReceived.get();
+    }
+    
+    /**
+     * Octets des corps envoyés par les écritures (POST, PATCH, shards), après compression
+     */
+    public long getWriteBytes() {
+        return bytesSent.get();
     }
     
     /**
      * Ferme le client (pour compatibilité)
      */
     public void close() {
-        // Rien à fermer pour HttpURLConnection
+        // Rien à fermer : le HttpClient est partagé et garde ses connexions pour la prochaine instance
     }
 }
@@ -8,14 +8,27 @@ package com.aureltimer.sync;
  */
 public class CloudflareConfig {
     
-    // Worker URLs
-    public static final String WORKER_BASE_URL = "https://aureltimer-sync.aure-perreyprillo.workers.dev";
+    // Worker URLs (surchargeable avec -Daureltimer.sync.url=http://localhost:8787 pour le serveur de référence)
+    public static final String WORKER_BASE_URL = System.getProperty(
+        "aureltimer.sync.url", "https://aureltimer-sync.aure-perreyprillo.workers.dev");
     public static final String TIMERS_PATH = "/timer_sync.json";
     public static final String WHITELIST_PATH = "/whitelist.json";
+    public static final String EVENTS_PATH = "/timer_sync/events";
+    public static final String MANIFEST_PATH = "/timer_sync/manifest.json";
+    public static final String SHARDS_PATH = "/timer_sync/shards/";
     
     public static final String WORKER_TIMERS_URL = WORKER_BASE_URL + TIMERS_PATH;
+    public static final String WORKER_EVENTS_URL = WORKER_BASE_URL + EVENTS_PATH;
+    public static final String WORKER_MANIFEST_URL = WORKER_BASE_URL + MANIFEST_PATH;
     public static final String WORKER_WHITELIST_URL = WORKER_BASE_URL + WHITELIST_PATH;
     
+    /**
+     * URL d'un shard du document timers
+     */
+    public static String getShardUrl(int shard) {
+        return WORKER_BASE_URL + SHARDS_PATH + shard + ".json";
+    }
+    
     // Write token (obfusqué)
     private static final int[] ENCODED_WRITE_TOKEN = {
         42, 7, 38, 10, 7, 104, 6, 43, 84, 20,
@@ -0,0 +1,92 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.utils.IoExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ PRÉCHAUFFAGE DE LA CONNEXION AU WORKER
+ *
+ * Lancé au tout début de onInitializeClient, pendant le chargement du jeu :
+ * 1. Résolution DNS de l'hôte du Worker
+ * 2. Requête HEAD sur le HttpClient partagé : TCP + TLS + HTTP/2 établis, la
+ *    connexion reste ensuite ouverte entre les polls (HEAD de maintien, voir
+ *    CloudflareClient.keepWarmIfIdle)
+ *
+ * Mesure aussi le temps jusqu'à la première synchronisation réussie, depuis
+ * l'initialisation du mod - la métrique de démarrage à suivre.
+ */
+public final class ConnectionWarmup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionWarmup.class);
+
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+    private static final AtomicBoolean firstSyncRecorded = new AtomicBoolean(false);
+    private static volatile long startNanos = 0;
+    private static volatile long dnsMs = -1;
+    private static volatile long connectMs = -1;
+    private static volatile long firstSyncMs = -1;
+
+    private ConnectionWarmup() {}
+
+    /**
+     * Démarre le préchauffage en arrière-plan (une seule fois par lancement)
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) return;
+        startNanos = System.nanoTime();
+
+        IoExecutor.startThread("AurelTimer-Warmup", ConnectionWarmup::warmUp);
+    }
+
+    private static void warmUp() {
+        String host = URI.create(CloudflareConfig.WORKER_BASE_URL).getHost();
+        try {
+            long dnsStart = System.nanoTime();
+            InetAddress.getAllByName(host);
+            dnsMs = elapsedMs(dnsStart);
+        } catch (Exception e) {
+            // Pas de réseau au lancement : le premier GET refera la résolution
+            LOGGER.warn("⚠️ Résolution DNS de {} impossible: {}", host, e.getMessage());
+            return;
+        }
+
+        long connectStart = System.nanoTime();
+        CloudflareClient.warmUpAsync().whenComplete((status, error) -> {
+            if (error != null) {
+                LOGGER.warn("⚠️ Préchauffage de la connexion échoué: {}", error.getMessage());
+                return;
+            }
+            connectMs = elapsedMs(connectStart);
+            LOGGER.info("🔥 Connexion au Worker préchauffée - DNS {}ms, connexion {}ms (HTTP {})", dnsMs, connectMs, status);
+        });
+    }
+
+    /**
+     * Première lecture réussie du document (seule la première compte)
+     */
+    public static void markFirstSync() {
+        if (startNanos == 0 || !firstSyncRecorded.compareAndSet(false, true)) return;
+        firstSyncMs = elapsedMs(startNanos);
+        LOGGER.info("⏱️ Première synchronisation {}ms après l'initialisation du mod", firstSyncMs);
+    }
+
+    /**
+     * Temps entre l'initialisation du mod et la première synchro (-1 si pas encore)
+     */
+    public static long getTimeToFirstSyncMs() {
+        return firstSyncMs;
+    }
+
+    public static String getDebugMetrics() {
+        return String.format("startup[dns=%dms,connect=%dms,ttfs=%dms]", dnsMs, connectMs, firstSyncMs);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
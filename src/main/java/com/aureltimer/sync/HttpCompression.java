@@ -0,0 +1,95 @@
+package com.aureltimer.sync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ✅ COMPRESSION HTTP (gzip / deflate)
+ *
+ * Négociation côté client pour le Worker :
+ * - Accept-Encoding sur les GET, décompression transparente selon Content-Encoding
+ * - Compression gzip des corps POST/PATCH au-delà d'un seuil
+ * - Comptage des octets réellement transférés pour les métriques
+ */
+public final class HttpCompression {
+
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    // En dessous, l'en-tête gzip (~20 octets) mange le gain
+    public static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private HttpCompression() {}
+
+    /**
+     * Compresse un corps de requête en gzip
+     */
+    public static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Décompresse un flux de réponse selon son Content-Encoding (identité sinon)
+     */
+    public static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+        switch (contentEncoding.trim().toLowerCase()) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return new InflaterInputStream(body);
+            default:
+                return body;
+        }
+    }
+
+    /**
+     * Décompresse seulement un corps non vide : GZIPInputStream lit l'en-tête dès sa
+     * construction et lève EOFException sur un corps vide (304, erreur sans corps)
+     *
+     * @return null si le corps est vide
+     */
+    public static InputStream decodeNonEmpty(InputStream body, String contentEncoding) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(body, 1);
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        in.unread(first);
+        return decode(in, contentEncoding);
+    }
+
+    /**
+     * Flux qui compte les octets lus (avant décompression = octets sur le réseau)
+     */
+    public static InputStream counting(InputStream in, AtomicLong counter) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) counter.incrementAndGet();
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int n = super.read(buffer, off, len);
+                if (n > 0) counter.addAndGet(n);
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.aureltimer.sync;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * ✅ PERCENTILES DE LATENCE PAR OPÉRATION
+ *
+ * Garde les 128 dernières latences d'une opération (GET document, manifeste,
+ * shard, écriture) et en dérive :
+ * - Le timeout de la requête : 4 × p99, borné entre 2s et 10s. Un nœud lent
+ *   échoue vite et laisse la place au poll suivant au lieu de bloquer 10s.
+ * - Le délai de couverture (hedge) : p95, au moins 50ms
+ *
+ * Seules les réponses reçues sont échantillonnées (un timeout n'a pas de latence
+ * connue). Tant que l'échantillon est trop petit, les valeurs fixes s'appliquent.
+ */
+public class LatencyTracker {
+
+    private static final int SAMPLES = 128;
+    private static final int MIN_SAMPLES = 10;
+    private static final Duration MIN_TIMEOUT = Duration.ofSeconds(2);
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(10);
+    private static final int TIMEOUT_P99_MULTIPLIER = 4;
+    private static final long MIN_HEDGE_DELAY_MS = 50;
+
+    private final String name;
+    private final long[] samples = new long[SAMPLES];
+    private int count = 0;
+    private int index = 0;
+
+    public LatencyTracker(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[index] = latencyMs;
+        index = (index + 1) % SAMPLES;
+        if (count < SAMPLES) {
+            count++;
+        }
+    }
+
+    /**
+     * Percentile (0..1) en ms, -1 si l'échantillon est trop petit
+     */
+    public synchronized long percentile(double p) {
+        if (count < MIN_SAMPLES) return -1;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+    /**
+     * Timeout de requête dérivé du p99
+     */
+    public Duration timeout() {
+        long p99 = percentile(0.99);
+        if (p99 < 0) return MAX_TIMEOUT;
+        long millis = p99 * TIMEOUT_P99_MULTIPLIER;
+        return Duration.ofMillis(Math.max(MIN_TIMEOUT.toMillis(), Math.min(MAX_TIMEOUT.toMillis(), millis)));
+    }
+
+    /**
+     * Délai avant la requête de couverture, -1 si pas encore assez de mesures
+     */
+    public long hedgeDelayMillis() {
+        long p95 = percentile(0.95);
+        return p95 < 0 ? -1 : Math.max(MIN_HEDGE_DELAY_MS, p95);
+    }
+
+    public String getDebugMetrics() {
+        long p50 = percentile(0.5);
+        if (p50 < 0) {
+            return name + "[n<" + MIN_SAMPLES + "]";
+        }
+        return String.format("%s[p50=%d,p95=%d,p99=%d,to=%dms]",
+            name, p50, percentile(0.95), percentile(0.99), timeout().toMillis());
+    }
+}
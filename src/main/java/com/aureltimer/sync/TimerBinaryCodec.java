@@ -0,0 +1,420 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.utils.TimeUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ FORMAT BINAIRE COMPACT DU DOCUMENT TIMERS
+ *
+ * Alternative négociée au JSON (Accept / Content-Type), sans perte :
+ *   en-tête   'A' 'T' 'B' version
+ *   méta      version, lastUpdated, ttlMinutes, seq, settings, stats
+ *   table     chaînes internées (createdBy, phases hors enum, affichages non dérivés)
+ *   timers    dimension, expiresAt, createdBy#, createdAt, durée, phase, affichage#
+ *   deleted   (optionnel, en fin de corps) tombstones versionnées, même schéma
+ *             que les timers ; absent si aucune tombstone - un décodeur plus
+ *             ancien ignore ces octets
+ *
+ * - Entiers en varint (LEB128), signés en zigzag
+ * - Instants en secondes epoch varint + nanos (0 octet si seconde ronde) ;
+ *   une date dont Instant.toString() ne redonne pas le texte exact reste en texte
+ * - Phase = ordinal de TimeUtils.DayPhase : l'ordre de l'enum fait partie du
+ *   format, les nouvelles phases s'ajoutent en fin d'enum
+ * - Affichage (v2) : omis quand il vaut TimeUtils.getPhaseDisplay(phase) et
+ *   reconstruit au décodage ; la chaîne ne voyage que pour les autres cas. Les
+ *   corps v1 (affichage toujours en table) restent lisibles, et le serveur
+ *   n'envoie du v2 qu'aux clients qui l'annoncent dans Accept (ACCEPT_TYPE)
+ *
+ * Même schéma côté serveur de référence (BinaryTimerFormat, sur JsonObject).
+ */
+public final class TimerBinaryCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.aureltimer.timers+binary";
+
+    private static final byte[] MAGIC = { 'A', 'T', 'B' };
+    private static final int FORMAT_VERSION = 2;
+    private static final int FORMAT_VERSION_V1 = 1;
+
+    // Media range annoncée dans Accept : version du format comprise par ce client
+    public static final String ACCEPT_TYPE = CONTENT_TYPE + "; v=" + FORMAT_VERSION;
+
+    // Instants : 0 = null, 1 = texte brut, 2 = secondes, 3 = secondes + nanos
+    private static final int INSTANT_NULL = 0;
+    private static final int INSTANT_TEXT = 1;
+    private static final int INSTANT_SECONDS = 2;
+    private static final int INSTANT_NANOS = 3;
+
+    // Phases : 0 = null, 1 = chaîne de la table, 2 + ordinal = DayPhase
+    private static final int PHASE_NULL = 0;
+    private static final int PHASE_STRING = 1;
+    private static final int PHASE_ORDINAL_BASE = 2;
+
+    // Affichage (v2) : 0 = null, 1 = dérivé de la phase, 2 + index = chaîne de la table
+    private static final int DISPLAY_NULL = 0;
+    private static final int DISPLAY_DERIVED = 1;
+    private static final int DISPLAY_TABLE_BASE = 2;
+
+    // Garde-fous de décodage (corps corrompu ou hostile)
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+    private static final int MAX_ENTRIES = 100_000;
+
+    private static final TimeUtils.DayPhase[] PHASES = TimeUtils.DayPhase.values();
+
+    private TimerBinaryCodec() {}
+
+    /**
+     * Indique si un Content-Type désigne ce format
+     */
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase().startsWith(CONTENT_TYPE);
+    }
+
+    /**
+     * Encode le document (l'ETag n'est pas sérialisé : il voyage dans les headers)
+     */
+    public static byte[] encode(WorkerTimerSyncData data) {
+        // Table des chaînes répétées d'un timer à l'autre
+        Map<String, Integer> table = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Map<String, WorkerTimerSyncData.SyncTimer> deleted = data.deleted != null ? data.deleted : Map.of();
+        for (WorkerTimerSyncData.SyncTimer timer : data.timers.values()) {
+            internTimer(table, strings, timer);
+        }
+        for (WorkerTimerSyncData.SyncTimer timer : deleted.values()) {
+            internTimer(table, strings, timer);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + data.timers.size() * 48);
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(FORMAT_VERSION);
+
+        writeString(out, data.version);
+        writeInstant(out, data.lastUpdated);
+        writeVarLong(out, zigzag(data.ttlMinutes));
+        writeVarLong(out, zigzag(data.seq));
+
+        WorkerTimerSyncData.Settings settings = data.settings != null ? data.settings : new WorkerTimerSyncData.Settings();
+        out.write((settings.autoCleanupExpired ? 1 : 0) | (settings.syncEnabled ? 2 : 0));
+        writeVarLong(out, zigzag(settings.maxTimersPerDimension));
+
+        WorkerTimerSyncData.Stats stats = data.stats != null ? data.stats : new WorkerTimerSyncData.Stats();
+        writeVarLong(out, zigzag(stats.totalTimersCreated));
+        writeVarLong(out, zigzag(stats.activeUsers24h));
+
+        writeVarLong(out, strings.size());
+        for (String value : strings) {
+            writeString(out, value);
+        }
+
+        writeVarLong(out, data.timers.size());
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : data.timers.entrySet()) {
+            writeTimer(out, table, entry.getKey(), entry.getValue());
+        }
+
+        if (!deleted.isEmpty()) {
+            writeVarLong(out, deleted.size());
+            for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : deleted.entrySet()) {
+                writeTimer(out, table, entry.getKey(), entry.getValue());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Décode un document depuis un flux (null si le corps est invalide, comme fromJson)
+     */
+    public static WorkerTimerSyncData decode(InputStream source) {
+        // Lecture octet par octet des varints : tampon obligatoire sur un flux réseau/gzip
+        BufferedInputStream in = new BufferedInputStream(source);
+        try {
+            for (byte expected : MAGIC) {
+                if (readByte(in) != expected) return null;
+            }
+            int formatVersion = readByte(in);
+            if (formatVersion != FORMAT_VERSION && formatVersion != FORMAT_VERSION_V1) return null;
+
+            WorkerTimerSyncData data = new WorkerTimerSyncData();
+            data.version = readString(in);
+            data.lastUpdated = readInstant(in);
+            data.ttlMinutes = (int) unzigzag(readVarLong(in));
+            data.seq = unzigzag(readVarLong(in));
+
+            int flags = readByte(in);
+            data.settings.autoCleanupExpired = (flags & 1) != 0;
+            data.settings.syncEnabled = (flags & 2) != 0;
+            data.settings.maxTimersPerDimension = (int) unzigzag(readVarLong(in));
+            data.stats.totalTimersCreated = (int) unzigzag(readVarLong(in));
+            data.stats.activeUsers24h = (int) unzigzag(readVarLong(in));
+
+            int tableSize = readCount(in);
+            String[] strings = new String[tableSize];
+            for (int i = 0; i < tableSize; i++) {
+                strings[i] = readString(in);
+            }
+
+            int timerCount = readCount(in);
+            data.timers = new HashMap<>(timerCount * 2);
+            readTimers(in, strings, timerCount, data.timers, formatVersion);
+
+            // Section des tombstones : présente seulement si le corps continue
+            in.mark(1);
+            if (in.read() >= 0) {
+                in.reset();
+                readTimers(in, strings, readCount(in), data.deleted, formatVersion);
+            }
+            return data;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void readTimers(InputStream in, String[] strings, int count,
+                                   Map<String, WorkerTimerSyncData.SyncTimer> target, int formatVersion) throws IOException {
+        for (int i = 0; i < count; i++) {
+            String dimension = readString(in);
+            WorkerTimerSyncData.SyncTimer timer = new WorkerTimerSyncData.SyncTimer();
+            timer.expiresAt = readInstant(in);
+            timer.createdBy = readReference(in, strings);
+            timer.createdAt = readInstant(in);
+            timer.initialDurationSeconds = (int) unzigzag(readVarLong(in));
+
+            long phase = readVarLong(in);
+            TimeUtils.DayPhase dayPhase = null;
+            if (phase == PHASE_STRING) {
+                timer.predictedPhase = strings[checkIndex(readVarLong(in), strings)];
+            } else if (phase >= PHASE_ORDINAL_BASE) {
+                long ordinal = phase - PHASE_ORDINAL_BASE;
+                // Phase ajoutée par une version plus récente du mod : même repli que SyncTimer
+                dayPhase = ordinal < PHASES.length ? PHASES[(int) ordinal] : null;
+                timer.predictedPhase = dayPhase != null ? dayPhase.name().toLowerCase() : "unknown";
+            }
+            timer.predictedPhaseDisplay = formatVersion == FORMAT_VERSION_V1
+                ? readReference(in, strings) : readDisplay(in, strings, dayPhase);
+
+            if (dimension != null) {
+                target.put(dimension, timer);
+            }
+        }
+    }
+
+    private static String readDisplay(InputStream in, String[] strings, TimeUtils.DayPhase phase) throws IOException {
+        long display = readVarLong(in);
+        if (display == DISPLAY_NULL) return null;
+        if (display == DISPLAY_DERIVED) {
+            // Phase inconnue de ce mod : l'affichage n'est plus reconstructible
+            return phase != null ? TimeUtils.getPhaseDisplay(phase) : null;
+        }
+        return strings[checkIndex(display - DISPLAY_TABLE_BASE, strings)];
+    }
+
+    /**
+     * Affichage reconstructible depuis l'ordinal de phase (donc omis du corps)
+     */
+    private static boolean isDerivedDisplay(WorkerTimerSyncData.SyncTimer timer, int ordinal) {
+        return ordinal >= 0 && timer.predictedPhaseDisplay != null
+            && timer.predictedPhaseDisplay.equals(TimeUtils.getPhaseDisplay(PHASES[ordinal]));
+    }
+
+    private static int phaseOrdinal(String phase) {
+        if (phase == null) return -1;
+        for (TimeUtils.DayPhase candidate : PHASES) {
+            // Seule la forme écrite par SyncTimer (nom en minuscules) est compactée
+            if (candidate.name().toLowerCase().equals(phase)) {
+                return candidate.ordinal();
+            }
+        }
+        return -1;
+    }
+
+    private static void intern(Map<String, Integer> table, List<String> strings, String value) {
+        if (value != null && !table.containsKey(value)) {
+            table.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static void internTimer(Map<String, Integer> table, List<String> strings, WorkerTimerSyncData.SyncTimer timer) {
+        intern(table, strings, timer.createdBy);
+        int ordinal = phaseOrdinal(timer.predictedPhase);
+        if (ordinal < 0) {
+            intern(table, strings, timer.predictedPhase);
+        }
+        if (!isDerivedDisplay(timer, ordinal)) {
+            intern(table, strings, timer.predictedPhaseDisplay);
+        }
+    }
+
+    // ===== ÉCRITURE =====
+
+    private static void writeTimer(ByteArrayOutputStream out, Map<String, Integer> table, String dimension,
+                                   WorkerTimerSyncData.SyncTimer timer) {
+        writeString(out, dimension);
+        writeInstant(out, timer.expiresAt);
+        writeReference(out, table, timer.createdBy);
+        writeInstant(out, timer.createdAt);
+        writeVarLong(out, zigzag(timer.initialDurationSeconds));
+
+        int ordinal = phaseOrdinal(timer.predictedPhase);
+        if (timer.predictedPhase == null) {
+            writeVarLong(out, PHASE_NULL);
+        } else if (ordinal >= 0) {
+            writeVarLong(out, PHASE_ORDINAL_BASE + ordinal);
+        } else {
+            writeVarLong(out, PHASE_STRING);
+            writeVarLong(out, table.get(timer.predictedPhase));
+        }
+
+        if (timer.predictedPhaseDisplay == null) {
+            writeVarLong(out, DISPLAY_NULL);
+        } else if (isDerivedDisplay(timer, ordinal)) {
+            writeVarLong(out, DISPLAY_DERIVED);
+        } else {
+            writeVarLong(out, DISPLAY_TABLE_BASE + table.get(timer.predictedPhaseDisplay));
+        }
+    }
+
+    private static void writeReference(ByteArrayOutputStream out, Map<String, Integer> table, String value) {
+        writeVarLong(out, value == null ? 0 : table.get(value) + 1);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInstant(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, INSTANT_NULL);
+            return;
+        }
+        Instant instant = parseExact(value);
+        if (instant == null) {
+            writeVarLong(out, INSTANT_TEXT);
+            writeString(out, value);
+        } else if (instant.getNano() == 0) {
+            writeVarLong(out, INSTANT_SECONDS);
+            writeVarLong(out, zigzag(instant.getEpochSecond()));
+        } else {
+            writeVarLong(out, INSTANT_NANOS);
+            writeVarLong(out, zigzag(instant.getEpochSecond()));
+            writeVarLong(out, instant.getNano());
+        }
+    }
+
+    /**
+     * Instant seulement si sa forme canonique redonne exactement le texte (sans perte)
+     */
+    private static Instant parseExact(String value) {
+        try {
+            Instant instant = Instant.parse(value);
+            return instant.toString().equals(value) ? instant : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // ===== LECTURE =====
+
+    private static String readReference(InputStream in, String[] strings) throws IOException {
+        long reference = readVarLong(in);
+        return reference == 0 ? null : strings[checkIndex(reference - 1, strings)];
+    }
+
+    private static int checkIndex(long index, String[] strings) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Référence hors table: " + index);
+        }
+        return (int) index;
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) return null;
+        if (length - 1 > MAX_STRING_BYTES) {
+            throw new IOException("Chaîne trop longue: " + (length - 1));
+        }
+        byte[] bytes = in.readNBytes((int) (length - 1));
+        if (bytes.length != length - 1) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readInstant(InputStream in) throws IOException {
+        long kind = readVarLong(in);
+        switch ((int) kind) {
+            case INSTANT_NULL:
+                return null;
+            case INSTANT_TEXT:
+                return readString(in);
+            case INSTANT_SECONDS:
+                return Instant.ofEpochSecond(unzigzag(readVarLong(in))).toString();
+            case INSTANT_NANOS:
+                long seconds = unzigzag(readVarLong(in));
+                return Instant.ofEpochSecond(seconds, readVarLong(in)).toString();
+            default:
+                throw new IOException("Type d'instant inconnu: " + kind);
+        }
+    }
+
+    private static int readCount(InputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count > MAX_ENTRIES) {
+            throw new IOException("Nombre d'entrées invalide: " + count);
+        }
+        return (int) count;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Varint trop long");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
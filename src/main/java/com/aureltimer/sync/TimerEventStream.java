@@ -0,0 +1,229 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.TimerDelta;
+import com.aureltimer.utils.IoExecutor;
+import com.aureltimer.utils.ModScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * ✅ FLUX PUSH DES TIMERS (Server-Sent Events)
+ *
+ * Connexion longue vers le Worker qui pousse un événement "change" par écriture :
+ *   event: change
+ *   id: <seq du document>
+ *   data: <TimerDelta JSON merge-patch>
+ *
+ * - Reconnexion automatique avec backoff exponentiel (5s → 2min)
+ * - Last-Event-ID pour rejouer les changements manqués pendant la coupure
+ * - Worker sans SSE (404/405/501) : nouvel essai seulement après 10 minutes,
+ *   le polling conditionnel reste actif entre-temps
+ * - Ouverture bornée (connexion 5s, headers 10s) et chien de garde : sans aucune
+ *   ligne (événement ou commentaire keep-alive, envoyé toutes les 15s par le
+ *   serveur) pendant 45s, le flux est considéré mort - une connexion à moitié
+ *   ouverte ne laisse plus le client sans push ni polling normal
+ */
+public class TimerEventStream implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerEventStream.class);
+
+    // Configuration
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(2);
+    private static final Duration UNSUPPORTED_RETRY_DELAY = Duration.ofMinutes(10);
+    // Trois keep-alive du serveur manqués (un toutes les 15s)
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(45);
+    private static final Duration WATCHDOG_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * Callbacks appelés depuis le thread du flux - à ré-injecter dans l'Actor
+     */
+    public interface Listener {
+        void onConnected();
+        void onChange(TimerDelta delta);
+        void onDisconnected();
+    }
+
+    private final CloudflareClient client;
+    private final Listener listener;
+    private final LongSupplier lastSeqSupplier;
+
+    private volatile boolean connected = false;
+    private volatile boolean closed = false;
+    private volatile InputStream currentBody;
+    private volatile long lastActivityNanos = System.nanoTime();
+    private volatile boolean idleTimedOut = false;
+    private Thread thread;
+
+    public TimerEventStream(CloudflareClient client, LongSupplier lastSeqSupplier, Listener listener) {
+        this.client = client;
+        this.lastSeqSupplier = lastSeqSupplier;
+        this.listener = listener;
+    }
+
+    /**
+     * Démarre la boucle de connexion en arrière-plan
+     */
+    public void start() {
+        thread = IoExecutor.startThread("AurelTimer-EventStream", this::runLoop);
+    }
+
+    /**
+     * Vérifie si le flux est actuellement connecté
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void runLoop() {
+        Duration delay = MIN_RECONNECT_DELAY;
+
+        while (!closed) {
+            try {
+                HttpResponse<InputStream> response = client.openTimerEvents(lastSeqSupplier.getAsLong());
+                int code = response.statusCode();
+
+                if (code == 200) {
+                    delay = MIN_RECONNECT_DELAY;
+                    connected = true;
+                    LOGGER.info("📡 Flux SSE connecté - push des timers actif");
+                    listener.onConnected();
+                    ScheduledFuture<?> watchdog = startWatchdog();
+                    try {
+                        readEvents(response.body());
+                    } finally {
+                        if (watchdog != null) {
+                            watchdog.cancel(false);
+                        }
+                    }
+                } else {
+                    response.body().close();
+                    if (code == 404 || code == 405 || code == 501) {
+                        LOGGER.info("📡 Flux SSE non supporté par le Worker ({}) - polling seul", code);
+                        delay = UNSUPPORTED_RETRY_DELAY;
+                    } else {
+                        LOGGER.warn("⚠️ Flux SSE refusé - Code: {}", code);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                if (!closed && !idleTimedOut) {
+                    LOGGER.debug("📡 Flux SSE interrompu: {}", e.getMessage());
+                }
+            }
+
+            if (connected) {
+                connected = false;
+                LOGGER.info("📡 Flux SSE déconnecté{} - retour au polling", idleTimedOut ? " (inactif)" : "");
+                listener.onDisconnected();
+            }
+            idleTimedOut = false;
+            if (closed) break;
+
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (delay.compareTo(UNSUPPORTED_RETRY_DELAY) < 0) {
+                delay = delay.multipliedBy(2).compareTo(MAX_RECONNECT_DELAY) > 0 ? MAX_RECONNECT_DELAY : delay.multipliedBy(2);
+            }
+        }
+    }
+
+    /**
+     * Lecture du flux text/event-stream jusqu'à sa fermeture
+     */
+    private void readEvents(InputStream body) throws Exception {
+        currentBody = body;
+        if (closed || idleTimedOut) {
+            body.close(); // Fermé entre l'ouverture et l'enregistrement du corps
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String eventType = "message";
+            StringBuilder data = new StringBuilder();
+            String line;
+
+            while (!closed && (line = reader.readLine()) != null) {
+                lastActivityNanos = System.nanoTime();
+                if (line.isEmpty()) {
+                    // Ligne vide = fin de l'événement
+                    if (data.length() > 0) {
+                        dispatch(eventType, data.toString());
+                    }
+                    eventType = "message";
+                    data.setLength(0);
+                } else if (line.startsWith(":")) {
+                    // Commentaire keep-alive
+                } else if (line.startsWith("event:")) {
+                    eventType = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) data.append('\n');
+                    data.append(line.substring(5).trim());
+                }
+                // "id:" et "retry:" : le curseur est porté par le "seq" du delta
+            }
+        } finally {
+            currentBody = null;
+        }
+    }
+
+    /**
+     * Chien de garde du flux connecté : ferme le corps après IDLE_TIMEOUT sans
+     * aucune ligne, ce qui débloque readLine et repasse au polling
+     */
+    private ScheduledFuture<?> startWatchdog() {
+        lastActivityNanos = System.nanoTime();
+        return ModScheduler.scheduleAtFixedRate(() -> {
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastActivityNanos);
+            if (!connected || idleTimedOut || idleMillis < IDLE_TIMEOUT.toMillis()) return;
+            idleTimedOut = true;
+            LOGGER.warn("⚠️ Flux SSE silencieux depuis {}s - fermeture et retour au polling", idleMillis / 1000);
+            closeBody();
+        }, WATCHDOG_INTERVAL.toMillis(), WATCHDOG_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void closeBody() {
+        InputStream body = currentBody;
+        if (body != null) {
+            try {
+                body.close();
+            } catch (Exception e) {
+                // Ignore
+            }
+        }
+    }
+
+    private void dispatch(String eventType, String data) {
+        if (!"change".equals(eventType)) {
+            return;
+        }
+        TimerDelta delta = TimerDelta.fromJson(data);
+        if (delta == null) {
+            LOGGER.warn("⚠️ Événement SSE illisible ignoré");
+            return;
+        }
+        listener.onChange(delta);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeBody();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.TimerDelta;
+import com.aureltimer.models.WorkerTimerSyncData;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ✅ MERGE DÉTERMINISTE PAR TIMER
+ *
+ * Réconcilie les SyncTimer dimension par dimension au lieu d'écraser le document local :
+ * - Le createdAt le plus récent gagne (un remote périmé ne fait plus reculer un timer)
+ * - Égalité : départage sur createdBy puis expiresAt (ordre total → tous les clients convergent)
+ * - Les entrées expirées ou illisibles sont supprimées
+ * - Suppression = tombstone versionnée (la version supprimée) : elle retire une entrée
+ *   locale plus ancienne ou égale, jamais une entrée au createdAt plus récent
+ * - L'absence d'une dimension dans un document complet ou un shard ne vaut pas
+ *   suppression (même règle qu'un delta qui ne la mentionne pas)
+ *
+ * Par dimension, l'état est (version max, tombstone max) et le timer n'existe que si
+ * la version dépasse la tombstone : le merge est commutatif, associatif et idempotent,
+ * quels que soient l'ordre et la forme (complet, shard, delta) des lectures.
+ *
+ * Le document fusionné est construit en copy-on-write : il partage les maps du
+ * document local et ne les copie qu'à la première écriture. Un delta (GET ?since,
+ * push SSE) ou un shard ne lit que les dimensions reçues ; un merge qui change
+ * quelque chose paie en plus une copie plate de la map modifiée (l'autre reste
+ * partagée) et un merge sans effet ne copie rien. Le balayage des entrées
+ * expirées, O(n), n'a lieu que sur un document complet et via sweepExpired
+ * (nettoyage périodique).
+ */
+public final class TimerMergeEngine {
+
+    private TimerMergeEngine() {}
+
+    /**
+     * Résultat d'un merge : document fusionné + changements appliqués au local
+     */
+    public static final class MergeResult {
+        public final WorkerTimerSyncData merged;
+        public final TimerDelta changes;
+
+        MergeResult(WorkerTimerSyncData merged, TimerDelta changes) {
+            this.merged = merged;
+            this.changes = changes;
+        }
+
+        public boolean hasChanges() {
+            return !changes.isEmpty();
+        }
+    }
+
+    /**
+     * Merge d'un document distant complet (lecture normale ou revalidation pré-POST),
+     * suivi du balayage des entrées expirées - O(n)
+     */
+    public static MergeResult mergeFull(WorkerTimerSyncData local, WorkerTimerSyncData remote, Instant now) {
+        MergeTarget target = new MergeTarget(local);
+        TimerDelta changes = new TimerDelta();
+        mergeInto(target, changes, remote.timers, remote.deleted, now);
+        WorkerTimerSyncData merged = target.document;
+
+        // Métadonnées : le document distant fait foi, le curseur ne recule jamais
+        merged.version = remote.version;
+        merged.lastUpdated = remote.lastUpdated;
+        merged.ttlMinutes = remote.ttlMinutes;
+        if (remote.settings != null) merged.settings = remote.settings;
+        if (remote.stats != null) merged.stats = remote.stats;
+        merged.seq = Math.max(local.seq, remote.seq);
+
+        sweep(target, changes, now);
+        return new MergeResult(merged, changes);
+    }
+
+    /**
+     * Merge des seuls timers d'un document partiel (shard) - métadonnées locales
+     * conservées, seules les dimensions du shard sont lues (pas de balayage)
+     */
+    public static MergeResult mergeTimers(WorkerTimerSyncData local, Map<String, WorkerTimerSyncData.SyncTimer> remoteTimers,
+                                          Map<String, WorkerTimerSyncData.SyncTimer> remoteDeleted, Instant now) {
+        MergeTarget target = new MergeTarget(local);
+        TimerDelta changes = new TimerDelta();
+        mergeInto(target, changes, remoteTimers, remoteDeleted, now);
+        return new MergeResult(target.document, changes);
+    }
+
+    /**
+     * Merge d'un delta distant (GET incrémental ou événement push) - seules les
+     * dimensions du delta sont lues, les maps ne sont copiées que si elles changent
+     */
+    public static MergeResult mergeDelta(WorkerTimerSyncData local, TimerDelta remoteChanges, Instant now) {
+        MergeTarget target = new MergeTarget(local);
+        TimerDelta changes = new TimerDelta();
+
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : remoteChanges.getDeleted().entrySet()) {
+            applyTombstone(target, changes, entry.getKey(), entry.getValue(), now);
+        }
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : remoteChanges.getTimers().entrySet()) {
+            String dimension = entry.getKey();
+            if (entry.getValue() == null) {
+                // Suppression sans version (Worker sans tombstones) : vaut pour la version locale
+                WorkerTimerSyncData.SyncTimer current = target.timer(dimension);
+                if (current != null && !remoteChanges.getDeleted().containsKey(dimension)) {
+                    applyTombstone(target, changes, dimension, current, now);
+                }
+            } else {
+                mergeEntry(target, changes, dimension, entry.getValue(), now);
+            }
+        }
+
+        WorkerTimerSyncData merged = target.document;
+        if (remoteChanges.getSeq() > merged.seq) {
+            merged.seq = remoteChanges.getSeq();
+        }
+        return new MergeResult(merged, changes);
+    }
+
+    /**
+     * Retire les timers expirés et les tombstones périmées du document local - O(n),
+     * appelé sur les lectures complètes et par le nettoyage périodique
+     */
+    public static MergeResult sweepExpired(WorkerTimerSyncData local, Instant now) {
+        MergeTarget target = new MergeTarget(local);
+        TimerDelta changes = new TimerDelta();
+        sweep(target, changes, now);
+        return new MergeResult(target.document, changes);
+    }
+
+    private static void mergeInto(MergeTarget target, TimerDelta changes,
+                                  Map<String, WorkerTimerSyncData.SyncTimer> remoteTimers,
+                                  Map<String, WorkerTimerSyncData.SyncTimer> remoteDeleted, Instant now) {
+        if (remoteDeleted != null) {
+            for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : remoteDeleted.entrySet()) {
+                applyTombstone(target, changes, entry.getKey(), entry.getValue(), now);
+            }
+        }
+        if (remoteTimers != null) {
+            for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : remoteTimers.entrySet()) {
+                mergeEntry(target, changes, entry.getKey(), entry.getValue(), now);
+            }
+        }
+    }
+
+    private static void sweep(MergeTarget target, TimerDelta changes, Instant now) {
+        WorkerTimerSyncData document = target.document;
+        // Itération sur les maps d'origine : la première suppression copie la map du document
+        Map<String, WorkerTimerSyncData.SyncTimer> timers = document.timers;
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : timers.entrySet()) {
+            if (!isValid(entry.getValue(), now)) {
+                target.removeTimer(entry.getKey());
+                changes.remove(entry.getKey());
+            }
+        }
+        // Tombstones dont la version a expiré depuis plus de ttlMinutes : plus rien à bloquer
+        Map<String, WorkerTimerSyncData.SyncTimer> deleted = document.deleted;
+        for (Map.Entry<String, WorkerTimerSyncData.SyncTimer> entry : deleted.entrySet()) {
+            if (isExpiredTombstone(entry.getValue(), document, now)) {
+                target.removeTombstone(entry.getKey());
+            }
+        }
+    }
+
+    private static void mergeEntry(MergeTarget target, TimerDelta changes, String dimension,
+                                   WorkerTimerSyncData.SyncTimer remote, Instant now) {
+        WorkerTimerSyncData.SyncTimer local = target.timer(dimension);
+
+        if (!isValid(remote, now)) {
+            return; // Le balayage / l'expiration locale s'occupe de l'entrée existante
+        }
+        WorkerTimerSyncData.SyncTimer tombstone = target.tombstone(dimension);
+        if (tombstone != null && !isExpiredTombstone(tombstone, target.document, now) && compare(remote, tombstone) <= 0) {
+            return; // Version déjà supprimée ailleurs
+        }
+        if (local == null || compare(remote, local) > 0) {
+            target.putTimer(dimension, remote);
+            changes.put(dimension, remote);
+        }
+    }
+
+    /**
+     * Tombstone : on garde la plus récente, elle retire l'entrée locale seulement si
+     * celle-ci n'est pas plus récente qu'elle
+     */
+    private static void applyTombstone(MergeTarget target, TimerDelta changes, String dimension,
+                                       WorkerTimerSyncData.SyncTimer tombstone, Instant now) {
+        if (tombstone == null || tombstone.createdAt == null || isExpiredTombstone(tombstone, target.document, now)) {
+            return;
+        }
+        WorkerTimerSyncData.SyncTimer known = target.tombstone(dimension);
+        if (known == null || compare(tombstone, known) > 0) {
+            target.putTombstone(dimension, tombstone);
+            changes.tombstone(dimension, tombstone);
+        } else {
+            tombstone = known;
+        }
+
+        WorkerTimerSyncData.SyncTimer local = target.timer(dimension);
+        if (local != null && compare(local, tombstone) <= 0) {
+            target.removeTimer(dimension);
+            changes.remove(dimension, tombstone);
+        }
+    }
+
+    /**
+     * Document fusionné en copy-on-write : métadonnées copiées, maps partagées avec
+     * le document local jusqu'à la première écriture (un merge sans effet ne copie rien)
+     */
+    private static final class MergeTarget {
+        final WorkerTimerSyncData document;
+        private boolean timersOwned;
+        private boolean deletedOwned;
+
+        MergeTarget(WorkerTimerSyncData local) {
+            this.document = local.copyMetadata();
+        }
+
+        WorkerTimerSyncData.SyncTimer timer(String dimension) {
+            return document.timers.get(dimension);
+        }
+
+        WorkerTimerSyncData.SyncTimer tombstone(String dimension) {
+            return document.deleted.get(dimension);
+        }
+
+        void putTimer(String dimension, WorkerTimerSyncData.SyncTimer timer) {
+            ownTimers().put(dimension, timer);
+        }
+
+        void removeTimer(String dimension) {
+            ownTimers().remove(dimension);
+        }
+
+        void putTombstone(String dimension, WorkerTimerSyncData.SyncTimer tombstone) {
+            ownDeleted().put(dimension, tombstone);
+        }
+
+        void removeTombstone(String dimension) {
+            ownDeleted().remove(dimension);
+        }
+
+        private Map<String, WorkerTimerSyncData.SyncTimer> ownTimers() {
+            if (!timersOwned) {
+                document.timers = new HashMap<>(document.timers);
+                timersOwned = true;
+            }
+            return document.timers;
+        }
+
+        private Map<String, WorkerTimerSyncData.SyncTimer> ownDeleted() {
+            if (!deletedOwned) {
+                document.deleted = new HashMap<>(document.deleted);
+                deletedOwned = true;
+            }
+            return document.deleted;
+        }
+    }
+
+    /**
+     * Tombstone dont la version a expiré depuis plus de ttlMinutes
+     */
+    private static boolean isExpiredTombstone(WorkerTimerSyncData.SyncTimer tombstone, WorkerTimerSyncData document,
+                                              Instant now) {
+        return !isValid(tombstone, now.minus(Duration.ofMinutes(Math.max(document.ttlMinutes, 0))));
+    }
+
+    /**
+     * Ordre total entre deux versions d'un même timer (>0 si a gagne)
+     */
+    public static int compare(WorkerTimerSyncData.SyncTimer a, WorkerTimerSyncData.SyncTimer b) {
+        int byCreatedAt = compareInstants(a.createdAt, b.createdAt);
+        if (byCreatedAt != 0) return byCreatedAt;
+
+        int byCreator = compareNullable(a.createdBy, b.createdBy);
+        if (byCreator != 0) return byCreator;
+
+        return compareInstants(a.expiresAt, b.expiresAt);
+    }
+
+    /**
+     * Timer lisible et non expiré
+     */
+    public static boolean isValid(WorkerTimerSyncData.SyncTimer timer, Instant now) {
+        if (timer == null || timer.expiresAt == null || timer.createdAt == null) {
+            return false;
+        }
+        try {
+            Instant.parse(timer.createdAt);
+            return Instant.parse(timer.expiresAt).isAfter(now);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int compareInstants(String a, String b) {
+        if (Objects.equals(a, b)) return 0;
+        try {
+            return Instant.parse(a).compareTo(Instant.parse(b));
+        } catch (Exception e) {
+            return compareNullable(a, b);
+        }
+    }
+
+    private static int compareNullable(String a, String b) {
+        if (Objects.equals(a, b)) return 0;
+        if (a == null) return -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,30 @@
+package com.aureltimer.sync;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ✅ RÉPARTITION DES DIMENSIONS EN SHARDS
+ *
+ * Hash FNV-1a 32 bits du nom de dimension (UTF-8) modulo le nombre de shards
+ * annoncé par le manifeste. Doit rester identique côté Worker / serveur de référence :
+ * simple à réimplémenter en JS, stable entre JVM et versions.
+ */
+public final class TimerShards {
+
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private TimerShards() {}
+
+    /**
+     * Shard d'une dimension (0 ≤ shard < shardCount)
+     */
+    public static int shardOf(String dimensionName, int shardCount) {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : dimensionName.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return Integer.remainderUnsigned(hash, shardCount);
+    }
+}
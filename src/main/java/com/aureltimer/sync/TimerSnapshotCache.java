@@ -0,0 +1,142 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.WorkerTimerSyncData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ✅ CACHE DISQUE DU DERNIER DOCUMENT FUSIONNÉ (démarrage à chaud)
+ *
+ * Au lancement, le dernier document connu et ses ETags sont relus de façon
+ * synchrone : l'overlay affiche les timers tout de suite et le premier appel
+ * réseau est un GET conditionnel (304 dans le cas courant) au lieu d'un
+ * téléchargement complet.
+ *
+ * Fichier : 'A' 'T' 'S' version, ETag du document, ETag du manifeste, ETags des
+ * shards, puis le document au format TimerBinaryCodec. Écriture atomique
+ * (fichier temporaire puis rename) : un crash laisse le snapshot précédent.
+ */
+public class TimerSnapshotCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerSnapshotCache.class);
+
+    public static final String FILE_NAME = "aurel-timer-snapshot.bin";
+
+    private static final byte[] MAGIC = { 'A', 'T', 'S' };
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path file;
+    private final Path tempFile;
+
+    /**
+     * Contenu d'un snapshot
+     */
+    public static class Snapshot {
+        public final WorkerTimerSyncData data;
+        public final String etag;
+        public final String manifestEtag;
+        public final int shardCount;
+        public final Map<Integer, String> shardEtags;
+
+        public Snapshot(WorkerTimerSyncData data, String etag, String manifestEtag, int shardCount,
+                        Map<Integer, String> shardEtags) {
+            this.data = data;
+            this.etag = etag;
+            this.manifestEtag = manifestEtag;
+            this.shardCount = shardCount;
+            this.shardEtags = shardEtags;
+        }
+    }
+
+    public TimerSnapshotCache(Path file) {
+        this.file = file.toAbsolutePath();
+        this.tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Relit le dernier snapshot (null si absent ou illisible)
+     */
+    public Snapshot load() {
+        if (!Files.exists(file)) return null;
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            for (byte expected : MAGIC) {
+                if (in.readByte() != expected) return null;
+            }
+            if (in.readUnsignedByte() != FORMAT_VERSION) return null;
+
+            String etag = nullIfEmpty(in.readUTF());
+            String manifestEtag = nullIfEmpty(in.readUTF());
+            int shardCount = in.readInt();
+            Map<Integer, String> shardEtags = new HashMap<>();
+            for (int shard = 0; shard < shardCount; shard++) {
+                String shardEtag = nullIfEmpty(in.readUTF());
+                if (shardEtag != null) {
+                    shardEtags.put(shard, shardEtag);
+                }
+            }
+
+            WorkerTimerSyncData data = TimerBinaryCodec.decode(in);
+            if (data == null) {
+                LOGGER.warn("⚠️ Snapshot illisible - ignoré");
+                return null;
+            }
+            return new Snapshot(data, etag, manifestEtag, shardCount, shardEtags);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("⚠️ Lecture du snapshot impossible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Écrit le snapshot (rename atomique)
+     */
+    public void save(Snapshot snapshot) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.write(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeUTF(emptyIfNull(snapshot.etag));
+                out.writeUTF(emptyIfNull(snapshot.manifestEtag));
+                out.writeInt(snapshot.shardCount);
+                for (int shard = 0; shard < snapshot.shardCount; shard++) {
+                    out.writeUTF(emptyIfNull(snapshot.shardEtags.get(shard)));
+                }
+                out.write(TimerBinaryCodec.encode(snapshot.data));
+            }
+
+            Path parent = file.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(tempFile, bytes.toByteArray());
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Système de fichiers sans rename atomique
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ Sauvegarde du snapshot impossible: {}", e.getMessage());
+        }
+    }
+
+    private static String emptyIfNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
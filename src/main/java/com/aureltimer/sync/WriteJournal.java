@@ -0,0 +1,311 @@
+package com.aureltimer.sync;
+
+import com.aureltimer.models.TimerData;
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.utils.IoExecutor;
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ JOURNAL DES ÉCRITURES SORTANTES
+ *
+ * Les uploads attendent 12s dans l'Actor avant de partir : un arrêt (fin du délai
+ * de grâce, fermeture du jeu) les perdait. Chaque timer à écrire est d'abord
+ * ajouté au journal (une ligne JSON, fsync), puis :
+ * - Acquitté dès que le Worker a confirmé l'écriture → journal compacté
+ *   (réécriture atomique des seules entrées restantes, fichier supprimé si vide)
+ * - Rejoué au démarrage ou à la reconnexion, en un seul lot d'écriture
+ *
+ * La map en mémoire est mise à jour tout de suite ; les accès disque (append,
+ * fsync, compaction) partent sur l'IoExecutor, un seul écrivain à la fois : les
+ * timers enregistrés pendant un fsync sont ajoutés ensemble, avec un seul fsync.
+ * Le thread appelant (thread du jeu) n'attend jamais le disque. close() attend
+ * que les écritures acceptées soient sur disque (2s maximum).
+ *
+ * Une ligne tronquée par un crash est ignorée à la relecture. Sans fichier
+ * (simulation, clients headless) le journal reste en mémoire : rejeu à la
+ * reconnexion seulement.
+ */
+public class WriteJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteJournal.class);
+
+    public static final String FILE_NAME = "aurel-timer-write-journal.jsonl";
+
+    private static final Gson GSON = new Gson();
+    private static final long CLOSE_FLUSH_TIMEOUT_MS = 2000;
+
+    private final Path file;
+    private final Path tempFile;
+
+    // Dernière écriture non acquittée par dimension (guardé par this)
+    private final Map<String, TimerData> pending = new LinkedHashMap<>();
+    private boolean closed = false;
+
+    // Travail disque en attente de l'écrivain (guardé par this)
+    private final List<Entry> queuedAppends = new ArrayList<>();
+    private boolean compactRequested = false;
+    private boolean writerActive = false;
+    private long appendBatches = 0;
+    private long appendedLines = 0;
+
+    /**
+     * Ligne du journal
+     */
+    private static final class Entry {
+        String dimension;
+        WorkerTimerSyncData.SyncTimer timer;
+    }
+
+    private WriteJournal(Path file) {
+        this.file = file;
+        this.tempFile = file != null ? file.resolveSibling(file.getFileName() + ".tmp") : null;
+    }
+
+    /**
+     * Ouvre le journal et relit les écritures restées en attente
+     */
+    public static WriteJournal open(Path file) {
+        WriteJournal journal = new WriteJournal(file.toAbsolutePath());
+        journal.load();
+        return journal;
+    }
+
+    /**
+     * Journal en mémoire seulement (clients headless)
+     */
+    public static WriteJournal inMemory() {
+        return new WriteJournal(null);
+    }
+
+    /**
+     * Enregistre une écriture avant de la programmer : mise à jour mémoire
+     * immédiate, append et fsync sur l'écrivain du journal
+     */
+    public synchronized void record(String dimension, TimerData timerData) {
+        if (closed) return;
+        pending.put(dimension, timerData);
+        if (file == null) return;
+
+        if (!compactRequested) {
+            // Une compaction déjà demandée réécrira pending, cette entrée comprise
+            queuedAppends.add(entry(dimension, timerData));
+        }
+        startWriter();
+    }
+
+    /**
+     * Acquitte un lot confirmé par le Worker. Une dimension réécrite entre-temps
+     * avec une autre valeur reste en attente.
+     */
+    public synchronized void acknowledge(Map<String, TimerData> batch) {
+        if (closed) return;
+        boolean changed = false;
+        for (Map.Entry<String, TimerData> entry : batch.entrySet()) {
+            if (entry.getValue().equals(pending.get(entry.getKey()))) {
+                pending.remove(entry.getKey());
+                changed = true;
+            }
+        }
+        if (changed) {
+            requestCompact();
+        }
+    }
+
+    /**
+     * Écritures à rejouer (les timers déjà expirés sont abandonnés)
+     */
+    public synchronized Map<String, TimerData> pendingWrites() {
+        if (pending.values().removeIf(TimerData::isExpired)) {
+            requestCompact();
+        }
+        return new LinkedHashMap<>(pending);
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Plus aucune modification du fichier (le manager suivant reprend le journal).
+     * Les écritures déjà acceptées sont terminées avant le retour : le journal
+     * relu par le manager suivant les contient.
+     */
+    public synchronized void close() {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_FLUSH_TIMEOUT_MS);
+        try {
+            while (writerActive) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    LOGGER.warn("⚠️ Journal encore en cours d'écriture à la fermeture");
+                    return;
+                }
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized String getDebugMetrics() {
+        return String.format("journal[pending=%d, batches=%d, lines=%d, queued=%d]",
+            pending.size(), appendBatches, appendedLines, queuedAppends.size());
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    Entry entry = GSON.fromJson(line, Entry.class);
+                    pending.put(entry.dimension, entry.timer.toTimerData(entry.dimension));
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ Lecture du journal impossible: {}", e.getMessage());
+            return;
+        }
+
+        LOGGER.info("📒 Journal d'écriture : {} timer(s) en attente{}", pending.size(),
+            skipped > 0 ? " (" + skipped + " ligne(s) illisible(s) ignorée(s))" : "");
+        if (skipped > 0) {
+            requestCompact();
+        }
+    }
+
+    /**
+     * Compaction sur l'écrivain : les appends encore en file sont couverts par
+     * la réécriture de pending
+     */
+    private void requestCompact() {
+        if (file == null) return;
+        compactRequested = true;
+        queuedAppends.clear();
+        startWriter();
+    }
+
+    private void startWriter() {
+        if (writerActive) return;
+        writerActive = true;
+        IoExecutor.executor().execute(this::drain);
+    }
+
+    /**
+     * Écrivain unique : vide la file par lots jusqu'à ce qu'elle soit vide
+     */
+    private void drain() {
+        while (true) {
+            List<Entry> appends;
+            Map<String, TimerData> snapshot = null;
+            synchronized (this) {
+                if (compactRequested) {
+                    snapshot = new LinkedHashMap<>(pending);
+                    compactRequested = false;
+                    appends = List.of();
+                } else if (!queuedAppends.isEmpty()) {
+                    appends = new ArrayList<>(queuedAppends);
+                    queuedAppends.clear();
+                } else {
+                    writerActive = false;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            try {
+                if (snapshot != null) {
+                    compact(snapshot);
+                } else {
+                    append(appends);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("⚠️ Écriture du journal interrompue: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ajoute un lot de lignes avec un seul fsync
+     */
+    private void append(List<Entry> entries) {
+        StringBuilder lines = new StringBuilder();
+        for (Entry entry : entries) {
+            lines.append(GSON.toJson(entry)).append('\n');
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            synchronized (this) {
+                appendBatches++;
+                appendedLines += entries.size();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ Écriture du journal impossible ({}) - {} timer(s) non protégé(s) contre un arrêt",
+                e.getMessage(), entries.size());
+        }
+    }
+
+    private static Entry entry(String dimension, TimerData timerData) {
+        Entry entry = new Entry();
+        entry.dimension = dimension;
+        entry.timer = new WorkerTimerSyncData.SyncTimer(timerData);
+        return entry;
+    }
+
+    /**
+     * Réécrit le journal avec les seules entrées en attente (rename atomique)
+     */
+    private void compact(Map<String, TimerData> snapshot) {
+        try {
+            if (snapshot.isEmpty()) {
+                Files.deleteIfExists(file);
+                return;
+            }
+
+            StringBuilder content = new StringBuilder();
+            snapshot.forEach((dimension, timerData) ->
+                content.append(GSON.toJson(entry(dimension, timerData))).append('\n'));
+
+            try (FileChannel channel = FileChannel.open(tempFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Système de fichiers sans rename atomique
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("⚠️ Compaction du journal impossible: {}", e.getMessage());
+        }
+    }
+}
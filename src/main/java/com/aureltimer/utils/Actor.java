@@ -3,43 +3,132 @@ package com.aureltimer.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ✅ SINGLE ACTOR PATTERN
- * 
- * Thread unique pour toutes les mutations d'état, évite les race conditions.
- * Toutes les opérations sont sérialisées dans un seul thread.
+ *
+ * File série pour toutes les mutations d'état, évite les race conditions.
+ * Toutes les opérations sont sérialisées : une seule tâche de l'actor s'exécute
+ * à la fois, sur un thread de travail de ModScheduler (pas de thread propre).
+ *
+ * Boîte aux lettres bornée à trois files de priorité :
+ * - HIGH : écritures déclenchées par le joueur et leurs résultats
+ * - NORMAL : résultats de lecture, push, rejeu (défaut)
+ * - LOW : travail périodique (poll, nettoyage, snapshot, sanity check)
+ * La file la plus prioritaire non vide passe toujours en premier.
+ *
+ * Une tâche soumise avec une clé est fusionnée avec la tâche de même clé encore
+ * en attente (un seul poll en file, jamais deux). Ces tâches à clé sont bornées
+ * par le nombre de clés et souvent se reprogramment elles-mêmes (poll, snapshot) :
+ * elles ne comptent pas dans la capacité et ne sont jamais sacrifiées ni refusées,
+ * sinon la chaîne s'arrêterait. Boîte pleine : la plus ancienne tâche LOW sans
+ * clé est sacrifiée au profit d'une tâche plus prioritaire, sinon la soumission
+ * est refusée.
+ *
+ * Les délais sont gérés par la minuterie partagée de ModScheduler qui dépose la
+ * tâche dans la boîte à l'échéance : elle passe ensuite par la même file que les
+ * autres. Les échéances encore programmées sont annulées à l'arrêt.
  */
 public class Actor {
     private static final Logger LOGGER = LoggerFactory.getLogger(Actor.class);
-    
+
+    private static final int MAILBOX_CAPACITY = 512;
+    private static final long SLOW_TASK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    // Tâches exécutées avant de rendre le thread de travail aux autres lanes
+    private static final int DRAIN_BATCH = 64;
+
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    /**
+     * Tâche en attente dans la boîte aux lettres
+     */
+    private static final class Envelope {
+        final Runnable task;
+        final Priority priority;
+        final String key;
+        final long enqueuedNanos;
+
+        Envelope(Runnable task, Priority priority, String key) {
+            this.task = task;
+            this.priority = priority;
+            this.key = key;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
     private final String name;
-    private final ScheduledExecutorService executor;
+    private final Set<ScheduledFuture<?>> timers = ConcurrentHashMap.newKeySet();
     private volatile boolean shutdown = false;
-    
-    public Actor(String name) {
+    private volatile Thread drainingThread;
+
+    // Boîte aux lettres (guardée par lock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private boolean draining = false;
+    private final Map<Priority, ArrayDeque<Envelope>> lanes = new EnumMap<>(Priority.class);
+    private final Map<String, Envelope> queuedByKey = new HashMap<>();
+    private int size = 0;
+    // Enveloppes à clé en file, hors capacité (guardé par lock)
+    private int keyedSize = 0;
+
+    // Métriques (guardées par lock)
+    private int maxDepth = 0;
+    private long coalesced = 0;
+    private long dropped = 0;
+    private long rejected = 0;
+    private final long[] waitCount = new long[Priority.values().length];
+    private final long[] waitTotalNanos = new long[Priority.values().length];
+    private final long[] waitMaxNanos = new long[Priority.values().length];
+    private long runCount = 0;
+    private long runTotalNanos = 0;
+    private long runMaxNanos = 0;
+
+    private Actor(String name) {
         this.name = name;
-        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread thread = new Thread(r, "Actor-" + name);
-            thread.setDaemon(true); // Permet à la JVM de se fermer même si l'actor tourne
-            return thread;
-        });
-        
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Crée un Actor et l'inscrit auprès de ModScheduler (métriques par lane), une
+     * fois construit : le constructeur ne publie pas this
+     */
+    public static Actor create(String name) {
+        Actor actor = new Actor(name);
+        ModScheduler.register(actor);
+
         LOGGER.debug("🎬 Actor '{}' créé", name);
+        return actor;
     }
-    
+
     /**
-     * Soumet une tâche à exécuter dans l'actor thread
+     * Soumet une tâche à exécuter dans l'actor
      */
     public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(Priority.NORMAL, task);
+    }
+
+    /**
+     * Soumet une tâche avec une priorité
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Callable<T> task) {
         if (shutdown) {
             return CompletableFuture.failedFuture(new IllegalStateException("Actor " + name + " is shutdown"));
         }
-        
+
         CompletableFuture<T> future = new CompletableFuture<>();
-        
-        executor.submit(() -> {
+
+        Runnable wrapped = () -> {
             try {
                 T result = task.call();
                 future.complete(result);
@@ -47,114 +136,367 @@ public class Actor {
                 LOGGER.error("❌ Erreur dans Actor '{}': {}", name, t.getMessage(), t);
                 future.completeExceptionally(t);
             }
-        });
-        
+        };
+        if (!enqueue(new Envelope(wrapped, priority, null))) {
+            future.completeExceptionally(new RejectedExecutionException("Actor " + name + " indisponible"));
+        }
+
         return future;
     }
-    
+
     /**
-     * Soumet une tâche sans retour à exécuter dans l'actor thread
+     * Soumet une tâche sans retour à exécuter dans l'actor
      */
     public CompletableFuture<Void> submit(Runnable task) {
-        return submit(() -> {
+        return submit(Priority.NORMAL, task);
+    }
+
+    /**
+     * Soumet une tâche sans retour avec une priorité
+     */
+    public CompletableFuture<Void> submit(Priority priority, Runnable task) {
+        return submit(priority, () -> {
             task.run();
             return null;
         });
     }
-    
+
+    /**
+     * Soumet une tâche fusionnable : ignorée si une tâche de même clé attend déjà
+     */
+    public void submitCoalescing(String key, Priority priority, Runnable task) {
+        if (shutdown) return;
+        enqueue(new Envelope(guarded(task, "tâche"), priority, key));
+    }
+
     /**
      * Programme une tâche à exécuter après un délai
      */
     public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
-        if (shutdown) {
-            throw new IllegalStateException("Actor " + name + " is shutdown");
-        }
-        
-        return executor.schedule(() -> {
-            try {
-                task.run();
-            } catch (Throwable t) {
-                LOGGER.error("❌ Erreur tâche programmée dans Actor '{}': {}", name, t.getMessage(), t);
-            }
-        }, delay, unit);
+        return schedule(Priority.NORMAL, null, task, delay, unit);
     }
-    
+
     /**
      * Programme une tâche à exécuter après un délai (Duration)
      */
     public ScheduledFuture<?> schedule(Runnable task, java.time.Duration delay) {
-        LOGGER.debug("🕒 Actor '{}' programme tâche dans {}ms", name, delay.toMillis());
-        ScheduledFuture<?> future = schedule(task, delay.toMillis(), TimeUnit.MILLISECONDS);
-        LOGGER.debug("✅ Tâche programmée dans Actor '{}' - ScheduledFuture: {}", name, future);
-        return future;
+        return schedule(Priority.NORMAL, task, delay);
+    }
+
+    /**
+     * Programme une tâche avec une priorité
+     */
+    public ScheduledFuture<?> schedule(Priority priority, Runnable task, java.time.Duration delay) {
+        LOGGER.debug("🕒 Actor '{}' programme tâche {} dans {}ms", name, priority, delay.toMillis());
+        return schedule(priority, null, task, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Programme une tâche fusionnable (même clé déjà en file à l'échéance → ignorée)
+     */
+    public ScheduledFuture<?> scheduleCoalescing(String key, Priority priority, Runnable task, java.time.Duration delay) {
+        return schedule(priority, key, task, delay.toMillis(), TimeUnit.MILLISECONDS);
     }
-    
+
+    private ScheduledFuture<?> schedule(Priority priority, String key, Runnable task, long delay, TimeUnit unit) {
+        if (shutdown) {
+            throw new IllegalStateException("Actor " + name + " is shutdown");
+        }
+
+        Runnable guardedTask = guarded(task, "tâche programmée");
+        return track(ModScheduler.scheduleTimer(() -> enqueue(new Envelope(guardedTask, priority, key)), delay, unit));
+    }
+
     /**
      * ✅ SCHEDULE SAFE : Programme une tâche périodique avec protection contre les crashes
-     * 
-     * Si une exécution crash, les suivantes continuent normalement.
+     *
+     * Si une exécution crash, les suivantes continuent normalement. Priorité LOW ;
+     * une échéance dont l'exécution précédente attend encore est fusionnée.
      */
     public ScheduledFuture<?> scheduleAtFixedRateSafe(Runnable task, long initialDelay, long period, TimeUnit unit) {
         if (shutdown) {
             throw new IllegalStateException("Actor " + name + " is shutdown");
         }
-        
-        return executor.scheduleAtFixedRate(() -> {
-            try {
-                task.run();
-            } catch (Throwable t) {
-                // ✅ PROTECTION TOTALE : même les Error sont catchées
-                LOGGER.error("❌ Erreur tâche périodique dans Actor '{}' (continue quand même): {}", 
-                           name, t.getMessage(), t);
-                // Le scheduler continue même après cette erreur
-            }
-        }, initialDelay, period, unit);
+
+        // ✅ PROTECTION TOTALE : même les Error sont catchées, le scheduler continue
+        Runnable guardedTask = guarded(task, "tâche périodique");
+        String key = "periodic-" + System.identityHashCode(guardedTask);
+        return track(ModScheduler.scheduleTimerAtFixedRate(() -> enqueue(new Envelope(guardedTask, Priority.LOW, key)),
+            initialDelay, period, unit));
     }
-    
+
     /**
      * ✅ SCHEDULE AT FIXED RATE (Duration)
      */
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, java.time.Duration initialDelay, java.time.Duration period) {
         return scheduleAtFixedRateSafe(task, initialDelay.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
     }
-    
+
     /**
-     * Retourne l'executor pour les cas avancés
+     * Executor qui dépose les tâches dans la boîte (priorité NORMAL), pour
+     * les variantes *Async des CompletableFuture
      */
-    public ScheduledExecutorService executor() {
-        return executor;
+    public Executor executor() {
+        return task -> {
+            if (!enqueue(new Envelope(guarded(task, "tâche"), Priority.NORMAL, null))) {
+                throw new RejectedExecutionException("Actor " + name + " indisponible");
+            }
+        };
     }
-    
+
     /**
-     * Arrêt propre de l'actor
+     * Arrêt propre de l'actor : les tâches programmées sont annulées, celles
+     * déjà en file sont exécutées (5s maximum)
      */
     public void shutdown() {
         if (shutdown) return;
-        
+
         shutdown = true;
         LOGGER.info("🛑 Arrêt Actor '{}'", name);
-        
-        executor.shutdown();
-        
+
+        for (ScheduledFuture<?> future : timers) {
+            future.cancel(false);
+        }
+        timers.clear();
+        ModScheduler.unregister(this);
+
+        if (Thread.currentThread() == drainingThread) return;
+        lock.lock();
         try {
-            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
-                LOGGER.warn("⚠️ Actor '{}' ne s'est pas arrêté proprement, force shutdown", name);
-                executor.shutdownNow();
+            long remainingNanos = TimeUnit.SECONDS.toNanos(5);
+            while ((draining || size > 0) && remainingNanos > 0) {
+                remainingNanos = idle.awaitNanos(remainingNanos);
+            }
+            if (draining || size > 0) {
+                LOGGER.warn("⚠️ Actor '{}' ne s'est pas arrêté proprement - {} tâche(s) abandonnée(s)", name, size);
+                for (ArrayDeque<Envelope> lane : lanes.values()) {
+                    lane.clear();
+                }
+                queuedByKey.clear();
+                size = 0;
+                keyedSize = 0;
             }
         } catch (InterruptedException e) {
             LOGGER.warn("⚠️ Interruption pendant arrêt Actor '{}'", name);
-            executor.shutdownNow();
             Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
         }
     }
-    
+
     /**
      * Vérifie si l'actor est arrêté
      */
     public boolean isShutdown() {
-        return shutdown || executor.isShutdown();
+        return shutdown;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Profondeur actuelle de la boîte aux lettres
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Métriques : profondeur par file, attente (dépôt → début) par priorité,
+     * durée d'exécution, fusions et rejets
+     */
+    public String getDebugMetrics() {
+        lock.lock();
+        try {
+            StringBuilder waits = new StringBuilder();
+            for (Priority priority : Priority.values()) {
+                int i = priority.ordinal();
+                if (waits.length() > 0) waits.append(',');
+                waits.append(String.format("%s=%.1f/%.0fms", priority.name().toLowerCase(),
+                    waitCount[i] > 0 ? waitTotalNanos[i] / 1e6 / waitCount[i] : 0.0, waitMaxNanos[i] / 1e6));
+            }
+            return String.format("actor[q=%d/%d/%d,max=%d, wait(avg/max)[%s], run[n=%d,avg=%.2fms,max=%.0fms], coalesced=%d, dropped=%d, rejected=%d]",
+                lanes.get(Priority.HIGH).size(), lanes.get(Priority.NORMAL).size(), lanes.get(Priority.LOW).size(),
+                maxDepth, waits, runCount, runCount > 0 ? runTotalNanos / 1e6 / runCount : 0.0, runMaxNanos / 1e6,
+                coalesced, dropped, rejected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Dépose une enveloppe (false = refusée : arrêt ou boîte pleine)
+     */
+    private boolean enqueue(Envelope envelope) {
+        lock.lock();
+        try {
+            if (shutdown && Thread.currentThread() != drainingThread) {
+                return false;
+            }
+            if (envelope.key != null) {
+                if (queuedByKey.containsKey(envelope.key)) {
+                    coalesced++;
+                    return true;
+                }
+            }
+            if (envelope.key == null && size - keyedSize >= MAILBOX_CAPACITY) {
+                Envelope evicted = envelope.priority == Priority.LOW ? null : evictOldestLow();
+                if (evicted == null) {
+                    rejected++;
+                    LOGGER.warn("⚠️ Boîte aux lettres de l'Actor '{}' pleine ({}) - tâche {} refusée", name, size, envelope.priority);
+                    return false;
+                }
+                size--;
+                dropped++;
+            }
+
+            lanes.get(envelope.priority).addLast(envelope);
+            if (envelope.key != null) {
+                queuedByKey.put(envelope.key, envelope);
+                keyedSize++;
+            }
+            size++;
+            maxDepth = Math.max(maxDepth, size);
+            if (!draining) {
+                try {
+                    ModScheduler.workers().execute(this::drain);
+                    draining = true;
+                } catch (RejectedExecutionException e) {
+                    // Scheduler du mod arrêté : plus rien ne s'exécute
+                    lanes.get(envelope.priority).removeLast();
+                    if (envelope.key != null) {
+                        queuedByKey.remove(envelope.key);
+                        keyedSize--;
+                    }
+                    size--;
+                    rejected++;
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Vide la boîte sur un thread de travail, par lots pour ne pas monopoliser
+     * le pool (un seul drain actif à la fois : exécution série garantie)
+     */
+    private void drain() {
+        drainingThread = Thread.currentThread();
+        try {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Envelope next;
+                lock.lock();
+                try {
+                    next = poll();
+                    if (next == null) {
+                        draining = false;
+                        idle.signalAll();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                run(next);
+            }
+        } finally {
+            drainingThread = null;
+        }
+        // Lot épuisé : on repasse derrière les autres lanes
+        try {
+            ModScheduler.workers().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            lock.lock();
+            try {
+                draining = false;
+                idle.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void run(Envelope next) {
+        long start = System.nanoTime();
+        next.task.run();
+        long runNanos = System.nanoTime() - start;
+
+        lock.lock();
+        try {
+            runCount++;
+            runTotalNanos += runNanos;
+            runMaxNanos = Math.max(runMaxNanos, runNanos);
+        } finally {
+            lock.unlock();
+        }
+        if (runNanos > SLOW_TASK_NANOS) {
+            LOGGER.debug("🐢 Tâche {} lente dans Actor '{}': {}ms", next.priority, name,
+                TimeUnit.NANOSECONDS.toMillis(runNanos));
+        }
+    }
+
+    private ScheduledFuture<?> track(ScheduledFuture<?> future) {
+        timers.removeIf(Future::isDone);
+        timers.add(future);
+        return future;
+    }
+
+    /**
+     * Prochaine enveloppe, file la plus prioritaire d'abord (appelé sous lock)
+     */
+    private Envelope poll() {
+        for (Priority priority : Priority.values()) {
+            Envelope envelope = lanes.get(priority).pollFirst();
+            if (envelope != null) {
+                if (envelope.key != null) {
+                    queuedByKey.remove(envelope.key);
+                    keyedSize--;
+                }
+                size--;
+                int i = priority.ordinal();
+                long waitNanos = System.nanoTime() - envelope.enqueuedNanos;
+                waitCount[i]++;
+                waitTotalNanos[i] += waitNanos;
+                waitMaxNanos[i] = Math.max(waitMaxNanos[i], waitNanos);
+                return envelope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retire la plus ancienne tâche LOW sans clé (appelé sous lock), null si aucune
+     */
+    private Envelope evictOldestLow() {
+        Iterator<Envelope> it = lanes.get(Priority.LOW).iterator();
+        while (it.hasNext()) {
+            Envelope candidate = it.next();
+            if (candidate.key == null) {
+                it.remove();
+                return candidate;
+            }
+        }
+        return null;
     }
-    
+
+    private Runnable guarded(Runnable task, String kind) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.error("❌ Erreur {} dans Actor '{}': {}", kind, name, t.getMessage(), t);
+            }
+        };
+    }
+
     @Override
     public String toString() {
         return "Actor{name='" + name + "', shutdown=" + shutdown + "}";
@@ -0,0 +1,125 @@
+package com.aureltimer.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ✅ LIVRAISON DES ALERTES SUR LE THREAD DU JEU
+ *
+ * Les alertes échues (tick de la roue, thread de travail du ModScheduler) sont
+ * déposées dans une file sans verrou - ConcurrentLinkedQueue, plusieurs
+ * producteurs, un seul consommateur. Le handler END_CLIENT_TICK la vide :
+ * playSound et sendMessage ne sont plus appelés hors du thread du jeu.
+ *
+ * - Les alertes d'un même tick sont fusionnées : un seul son, une seule ligne
+ * - Coût borné : au plus MAX_ALERTS_PER_TICK par tick, le reste au tick suivant
+ * - Tick sans alerte : une lecture de la file, aucune allocation
+ */
+public final class AlertDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlertDispatcher.class);
+
+    private static final int MAX_ALERTS_PER_TICK = 16;
+
+    private static final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger backlog = new AtomicInteger(0);
+
+    // Métriques : écrites par le seul consommateur (thread du jeu)
+    private static volatile long delivered = 0;
+    private static volatile long batches = 0;
+    private static volatile long coalesced = 0;
+    private static volatile long totalDelayNanos = 0;
+    private static volatile long maxDelayNanos = 0;
+    private static volatile int maxBacklog = 0;
+
+    private static final class Pending {
+        private final String dimensionName;
+        private final long thresholdSeconds;
+        private final long enqueuedNanos;
+
+        private Pending(String dimensionName, long thresholdSeconds) {
+            this.dimensionName = dimensionName;
+            this.thresholdSeconds = thresholdSeconds;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    private AlertDispatcher() {}
+
+    /**
+     * Dépose une alerte (n'importe quel thread), livrée au prochain tick client
+     */
+    public static void enqueue(String dimensionName, long thresholdSeconds) {
+        queue.offer(new Pending(dimensionName, thresholdSeconds));
+        backlog.incrementAndGet();
+    }
+
+    /**
+     * Vide la file sur le thread du jeu (END_CLIENT_TICK) : les alertes du tick
+     * sont regroupées par seuil puis affichées en une fois
+     */
+    public static void drainOnClientTick() {
+        if (queue.isEmpty()) return;
+
+        int depth = backlog.get();
+        if (depth > maxBacklog) {
+            maxBacklog = depth;
+        }
+
+        // Seuil → dimensions, seuils croissants (le plus urgent d'abord)
+        Map<Long, List<String>> byThreshold = new TreeMap<>();
+        long now = System.nanoTime();
+        int count = 0;
+        Pending pending;
+        while (count < MAX_ALERTS_PER_TICK && (pending = queue.poll()) != null) {
+            backlog.decrementAndGet();
+            count++;
+            long delay = now - pending.enqueuedNanos;
+            totalDelayNanos += delay;
+            if (delay > maxDelayNanos) {
+                maxDelayNanos = delay;
+            }
+            List<String> dimensions = byThreshold.computeIfAbsent(pending.thresholdSeconds, t -> new ArrayList<>());
+            if (!dimensions.contains(pending.dimensionName)) {
+                dimensions.add(pending.dimensionName);
+            }
+        }
+
+        delivered += count;
+        batches++;
+        coalesced += count - 1;
+        if (count > 1) {
+            LOGGER.debug("🔔 {} alertes fusionnées en une livraison", count);
+        }
+
+        try {
+            AlertUtils.showSpawnAlerts(byThreshold);
+        } catch (Exception e) {
+            LOGGER.error("Erreur lors de la livraison des alertes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Oublie les alertes non livrées (fermeture du client)
+     */
+    public static void clear() {
+        while (queue.poll() != null) {
+            backlog.decrementAndGet();
+        }
+    }
+
+    public static String getDebugMetrics() {
+        long n = delivered;
+        return String.format("alertDispatch[delivered=%d, batches=%d, coalesced=%d, delay(avg/max)=%.1f/%dms, backlog=%d/%d]",
+            n, batches, coalesced,
+            n == 0 ? 0.0 : totalDelayNanos / 1_000_000.0 / n, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos),
+            backlog.get(), maxBacklog);
+    }
+}
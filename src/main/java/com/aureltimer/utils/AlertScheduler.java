@@ -3,80 +3,228 @@ package com.aureltimer.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.Set;
 
 /**
- * Gestionnaire global des alertes pour éviter les doublons
+ * ✅ MOTEUR D'ALERTES SUR ROUE TEMPORELLE
+ *
+ * Un handle par (dimension, seuil) : un timer mis à jour reprogramme ses alertes
+ * au lieu d'en empiler de nouvelles, un timer supprimé les annule. Les seuils
+ * (secondes avant le spawn) se règlent avec -Daureltimer.alerts.thresholds,
+ * ex. 300,60,10 (défaut : 60, l'alerte "dans 1 minute").
+ *
+ * Toutes les alertes vivent dans une TimingWheel avancée par un seul tick
+ * périodique du ModScheduler, armé uniquement tant qu'une alerte est en attente :
+ * aucune tâche programmée par alerte, quel que soit le nombre de timers.
  */
 public class AlertScheduler {
     private static final Logger LOGGER = LoggerFactory.getLogger(AlertScheduler.class);
-    private static final Set<String> scheduledAlerts = ConcurrentHashMap.newKeySet();
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private static long lastCleanup = System.currentTimeMillis();
-    
+
+    private static final long TICK_MILLIS = 500;
+    private static final long[] THRESHOLDS_SECONDS = parseThresholds(
+        System.getProperty("aureltimer.alerts.thresholds", "60"));
+
+    private static final Object lock = new Object();
+    private static final long originNanos = System.nanoTime();
+    private static final TimingWheel<Alert> wheel = new TimingWheel<>(TICK_MILLIS, 0);
+    private static final Map<String, TimingWheel.Handle<Alert>> handles = new HashMap<>();
+    private static ScheduledFuture<?> tickTask;
+
+    private static long scheduledCount = 0;
+    private static long rescheduledCount = 0;
+    private static long cancelledCount = 0;
+    private static long firedCount = 0;
+    private static long maxLateMillis = 0;
+
+    /**
+     * Alerte d'un seuil pour une dimension
+     */
+    public static final class Alert {
+        private final String dimensionName;
+        private final long thresholdSeconds;
+        private final String key;
+
+        private Alert(String dimensionName, long thresholdSeconds, String key) {
+            this.dimensionName = dimensionName;
+            this.thresholdSeconds = thresholdSeconds;
+            this.key = key;
+        }
+
+        public String getDimensionName() {
+            return dimensionName;
+        }
+
+        public long getThresholdSeconds() {
+            return thresholdSeconds;
+        }
+    }
+
+    private AlertScheduler() {}
+
     /**
-     * Programme une alerte unique pour un timer
+     * Programme (ou reprogramme) les alertes d'un timer d'après son expiration.
+     * Les seuils déjà dépassés sont annulés ; une échéance inchangée (à un tick
+     * près) est laissée en place.
+     *
      * @param dimensionName nom de la dimension
-     * @param delaySeconds délai en secondes avant l'alerte
-     * @return true si alerte programmée, false si déjà existante
+     * @param expiresAtUtc expiration du timer (heure serveur)
+     * @return nombre d'alertes programmées ou déplacées
      */
-    public static boolean scheduleUniqueAlert(String dimensionName, int delaySeconds) {
-        try {
-            // Nettoyage périodique (toutes les 5 minutes)
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - lastCleanup > 300000) { // 5 minutes
-                scheduledAlerts.clear();
-                lastCleanup = currentTime;
-                LOGGER.debug("Nettoyage périodique des alertes programmées");
+    public static int scheduleAlerts(String dimensionName, Instant expiresAtUtc) {
+        long remainingMillis = Duration.between(TimeAuthority.getInstance().now(), expiresAtUtc).toMillis();
+        long nowMillis = wheelNow();
+        int changed = 0;
+
+        synchronized (lock) {
+            for (long threshold : THRESHOLDS_SECONDS) {
+                String key = key(dimensionName, threshold);
+                long fireInMillis = remainingMillis - threshold * 1000L;
+                TimingWheel.Handle<Alert> handle = handles.get(key);
+
+                if (fireInMillis <= 0) {
+                    // Seuil déjà dépassé : une alerte encore en attente n'a plus de sens
+                    if (handle != null && wheel.cancel(handle)) {
+                        handles.remove(key);
+                        cancelledCount++;
+                    }
+                    continue;
+                }
+
+                long deadline = nowMillis + fireInMillis;
+                if (handle == null) {
+                    handle = wheel.newHandle(new Alert(dimensionName, threshold, key));
+                    handles.put(key, handle);
+                    scheduledCount++;
+                } else if (Math.abs(handle.getDeadlineMillis() - deadline) <= TICK_MILLIS) {
+                    continue;
+                } else {
+                    rescheduledCount++;
+                }
+                wheel.schedule(handle, deadline);
+                changed++;
+                LOGGER.debug("🔔 Alerte {} programmée dans {}s (seuil {}s)", dimensionName, fireInMillis / 1000, threshold);
             }
-            
-            // Créer une clé unique basée sur la dimension ET le moment approximatif
-            // Arrondir à la minute près pour éviter les doublons
-            long alertTime = (currentTime + delaySeconds * 1000L) / 60000L; // Minutes depuis epoch
-            String alertKey = dimensionName + "_" + alertTime;
-            
-            // Vérifier si une alerte est déjà programmée
-            if (scheduledAlerts.contains(alertKey)) {
-                LOGGER.debug("Alerte déjà programmée pour {} à t+{}s, ignorée", dimensionName, delaySeconds);
-                return false;
+            ensureTicking();
+        }
+        return changed;
+    }
+
+    /**
+     * Annule toutes les alertes d'une dimension (timer supprimé)
+     */
+    public static void cancelAlerts(String dimensionName) {
+        synchronized (lock) {
+            for (long threshold : THRESHOLDS_SECONDS) {
+                TimingWheel.Handle<Alert> handle = handles.remove(key(dimensionName, threshold));
+                if (handle != null && wheel.cancel(handle)) {
+                    cancelledCount++;
+                }
             }
-            
-            // Marquer cette alerte comme programmée
-            scheduledAlerts.add(alertKey);
-            
-            // Programmer l'alerte
-            scheduler.schedule(() -> {
-                try {
-                    AlertUtils.showSpawnAlert(dimensionName);
-                    LOGGER.info("Alerte unique exécutée pour: {}", dimensionName);
-                    
-                    // Nettoyer après exécution
-                    scheduledAlerts.remove(alertKey);
-                } catch (Exception e) {
-                    LOGGER.error("Erreur lors de l'exécution de l'alerte: {}", e.getMessage());
-                    scheduledAlerts.remove(alertKey);
+            stopTickingIfIdle();
+        }
+    }
+
+    /**
+     * Annule toutes les alertes en attente
+     */
+    public static void cancelAll() {
+        synchronized (lock) {
+            for (TimingWheel.Handle<Alert> handle : handles.values()) {
+                if (wheel.cancel(handle)) {
+                    cancelledCount++;
                 }
-            }, delaySeconds, TimeUnit.SECONDS);
-            
-            LOGGER.debug("Alerte unique programmée pour {} dans {}s", dimensionName, delaySeconds);
-            return true;
-            
-        } catch (Exception e) {
-            LOGGER.error("Erreur lors de la programmation d'alerte: {}", e.getMessage());
-            return false;
+            }
+            handles.clear();
+            stopTickingIfIdle();
         }
     }
-    
+
     /**
-     * Arrête le scheduler
+     * Arrêt à la fermeture du client : plus aucune alerte ni tick
      */
     public static void shutdown() {
-        scheduler.shutdown();
-        scheduledAlerts.clear();
+        cancelAll();
+        AlertDispatcher.clear();
+    }
+
+    public static String getDebugMetrics() {
+        synchronized (lock) {
+            return String.format("alerts[armed=%d, scheduled=%d, moved=%d, cancelled=%d, fired=%d, lateMax=%dms, thresholds=%s]",
+                wheel.size(), scheduledCount, rescheduledCount, cancelledCount, firedCount, maxLateMillis,
+                Arrays.toString(THRESHOLDS_SECONDS));
+        }
+    }
+
+    /**
+     * Tick de la roue (thread de travail du ModScheduler) : les alertes échues
+     * sont remises, hors du verrou, à l'AlertDispatcher qui les livre sur le
+     * thread du jeu
+     */
+    private static void tick() {
+        List<Alert> due = new ArrayList<>();
+        long nowMillis = wheelNow();
+        synchronized (lock) {
+            wheel.advance(nowMillis, handle -> {
+                Alert alert = handle.getPayload();
+                handles.remove(alert.key);
+                firedCount++;
+                maxLateMillis = Math.max(maxLateMillis, nowMillis - handle.getDeadlineMillis());
+                due.add(alert);
+            });
+            stopTickingIfIdle();
+        }
+
+        for (Alert alert : due) {
+            AlertDispatcher.enqueue(alert.dimensionName, alert.thresholdSeconds);
+            LOGGER.info("Alerte échue pour: {} (seuil {}s)", alert.dimensionName, alert.thresholdSeconds);
+        }
     }
-}
 
+    private static void ensureTicking() {
+        if (tickTask == null && wheel.size() > 0) {
+            tickTask = ModScheduler.scheduleAtFixedRate(AlertScheduler::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void stopTickingIfIdle() {
+        if (tickTask != null && wheel.size() == 0) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+    }
+
+    private static long wheelNow() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originNanos);
+    }
+
+    private static String key(String dimensionName, long thresholdSeconds) {
+        return dimensionName + "@" + thresholdSeconds;
+    }
+
+    private static long[] parseThresholds(String value) {
+        try {
+            long[] thresholds = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToLong(Long::parseLong)
+                .filter(s -> s > 0)
+                .distinct()
+                .sorted()
+                .toArray();
+            if (thresholds.length > 0) {
+                return thresholds;
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("⚠️ Seuils d'alerte invalides '{}', seuil par défaut (60s)", value);
+        }
+        return new long[] {60};
+    }
+}
@@ -6,6 +6,10 @@ import net.minecraft.text.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
 /**
  * Utilitaires pour les alertes de spawn
  */
@@ -13,33 +17,57 @@ public class AlertUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(AlertUtils.class);
     
     /**
-     * Affiche une alerte de spawn avec son et message selon la configuration
+     * Affiche l'alerte "dans 1 minute" avec son et message selon la configuration
      */
     public static void showSpawnAlert(String dimensionName) {
+        showSpawnAlert(dimensionName, 60);
+    }
+
+    /**
+     * Affiche une alerte de spawn pour un seuil donné (secondes avant le spawn)
+     */
+    public static void showSpawnAlert(String dimensionName, long thresholdSeconds) {
+        showSpawnAlerts(Map.of(thresholdSeconds, List.of(dimensionName)));
+    }
+
+    /**
+     * Affiche les alertes d'un même tick client : un seul son et une seule ligne
+     * de chat, dimensions regroupées par seuil. Thread du jeu uniquement (voir
+     * AlertDispatcher).
+     */
+    public static void showSpawnAlerts(Map<Long, List<String>> dimensionsByThreshold) {
+        if (dimensionsByThreshold.isEmpty()) return;
         try {
             ModConfig config = ModConfig.getInstance();
+            MinecraftClient client = MinecraftClient.getInstance();
+            if (client == null || client.player == null) return;
             
             // Jouer le son si activé avec volume configuré
             if (config.shouldPlaySound()) {
-                MinecraftClient client = MinecraftClient.getInstance();
-                if (client != null && client.player != null) {
-                    float volume = config.getNormalizedSoundVolume();
-                    client.player.playSound(net.minecraft.sound.SoundEvents.BLOCK_ANVIL_LAND, volume, 1.0f);
-                }
+                float volume = config.getNormalizedSoundVolume();
+                client.player.playSound(net.minecraft.sound.SoundEvents.BLOCK_ANVIL_LAND, volume, 1.0f);
             }
             
             // Afficher le message si activé
             if (config.shouldShowAlert() && config.shouldShowInChat()) {
-                MinecraftClient client = MinecraftClient.getInstance();
-                if (client != null && client.player != null) {
-                    String alertMessage = "§6§l⚠ SPAWN DE LÉGENDAIRE DANS 1 MINUTE EN " + dimensionName + " ⚠";
-                    client.player.sendMessage(Text.literal(alertMessage));
-                }
+                StringJoiner parts = new StringJoiner(" | ");
+                dimensionsByThreshold.forEach((threshold, dimensions) ->
+                    parts.add("DANS " + formatThreshold(threshold) + " EN " + String.join(", ", dimensions)));
+                String alertMessage = "§6§l⚠ SPAWN DE LÉGENDAIRE " + parts + " ⚠";
+                client.player.sendMessage(Text.literal(alertMessage));
             }
             
         } catch (Exception e) {
             LOGGER.error("Erreur lors de l'affichage de l'alerte: {}", e.getMessage());
         }
     }
+
+    private static String formatThreshold(long thresholdSeconds) {
+        if (thresholdSeconds % 60 == 0) {
+            long minutes = thresholdSeconds / 60;
+            return minutes + (minutes > 1 ? " MINUTES" : " MINUTE");
+        }
+        return thresholdSeconds + (thresholdSeconds > 1 ? " SECONDES" : " SECONDE");
+    }
 }
 
@@ -0,0 +1,309 @@
+package com.aureltimer.utils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ✅ CIRCUIT BREAKER À FENÊTRE GLISSANTE
+ *
+ * Un disjoncteur par endpoint distant, trois états :
+ * - CLOSED : les appels passent, chaque résultat entre dans une fenêtre glissante
+ *   (les N derniers appels, et seulement ceux des dernières minutes). Le circuit
+ *   s'ouvre quand le taux d'échec dépasse le seuil sur un minimum d'appels.
+ * - OPEN : les appels sont refusés sans toucher le réseau. La durée d'ouverture
+ *   double à chaque ré-ouverture consécutive (plafonnée).
+ * - HALF_OPEN : à l'échéance, quelques appels de sonde passent. Toutes les sondes
+ *   réussies → CLOSED avec une fenêtre vierge ; un seul échec → OPEN.
+ *
+ * Les réponses attendues (conflits 409/412 de la concurrence optimiste, endpoint
+ * non supporté) sont signalées par onIgnored() : le serveur a répondu, elles ne
+ * comptent pas dans le taux d'échec mais valident une sonde.
+ *
+ * Contrat : chaque tryAcquire() qui renvoie true est suivi d'exactement un appel
+ * à onSuccess(), onFailure() ou onIgnored(). Thread-safe ; les listeners sont
+ * notifiés hors verrou, sur le thread qui a provoqué la transition.
+ */
+public class CircuitBreaker {
+
+    // Configuration par défaut
+    private static final int DEFAULT_WINDOW_SIZE = 20;
+    private static final Duration DEFAULT_WINDOW_DURATION = Duration.ofMinutes(5);
+    private static final int DEFAULT_MINIMUM_CALLS = 5;
+    private static final double DEFAULT_FAILURE_RATE = 0.5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(15);
+    private static final Duration DEFAULT_MAX_OPEN_DURATION = Duration.ofMinutes(2);
+    private static final int DEFAULT_HALF_OPEN_PROBES = 2;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Notification des changements d'état
+     */
+    public interface Listener {
+        void onStateChange(CircuitBreaker breaker, State from, State to);
+    }
+
+    private final String name;
+    private final long windowMillis;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final long maxOpenMillis;
+    private final int halfOpenProbes;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Fenêtre glissante circulaire (guardée par this)
+    private final long[] callTimes;
+    private final boolean[] callFailed;
+    private int windowStart = 0;
+    private int windowCount = 0;
+    private int windowFailures = 0;
+
+    // État (guardé par this)
+    private State state = State.CLOSED;
+    private long openUntil = 0;
+    private int consecutiveOpens = 0;
+    private int probesInFlight = 0;
+    private int probeSuccesses = 0;
+    private long lastProbeAt = 0;
+
+    // Métriques
+    private long rejectedCalls = 0;
+    private long openCount = 0;
+
+    /**
+     * Disjoncteur avec la configuration par défaut : 50% d'échecs sur au moins
+     * 5 des 20 derniers appels (5 min max), ouverture 15s → 2 min, 2 sondes
+     */
+    public static CircuitBreaker withDefaults(String name) {
+        return new CircuitBreaker(name, DEFAULT_WINDOW_SIZE, DEFAULT_WINDOW_DURATION, DEFAULT_MINIMUM_CALLS,
+            DEFAULT_FAILURE_RATE, DEFAULT_OPEN_DURATION, DEFAULT_MAX_OPEN_DURATION, DEFAULT_HALF_OPEN_PROBES);
+    }
+
+    public CircuitBreaker(String name, int windowSize, Duration windowDuration, int minimumCalls,
+                          double failureRateThreshold, Duration openDuration, Duration maxOpenDuration,
+                          int halfOpenProbes) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Configuration de circuit breaker invalide: " + name);
+        }
+        this.name = name;
+        this.callTimes = new long[windowSize];
+        this.callFailed = new boolean[windowSize];
+        this.windowMillis = windowDuration.toMillis();
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.maxOpenMillis = Math.max(openMillis, maxOpenDuration.toMillis());
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Demande l'autorisation d'appeler l'endpoint (false = refusé sans appel réseau)
+     */
+    public boolean tryAcquire() {
+        State from;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            from = state;
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now < openUntil) {
+                        rejectedCalls++;
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probesInFlight = 0;
+                    probeSuccesses = 0;
+                    break;
+                case HALF_OPEN:
+                default:
+                    // Une sonde sans réponse (résultat perdu) ne bloque pas le circuit indéfiniment
+                    if (probesInFlight >= halfOpenProbes && now - lastProbeAt > maxOpenMillis) {
+                        probesInFlight = 0;
+                    }
+                    if (probesInFlight >= halfOpenProbes) {
+                        rejectedCalls++;
+                        return false;
+                    }
+                    break;
+            }
+            probesInFlight++;
+            lastProbeAt = now;
+        }
+        if (from != State.HALF_OPEN) {
+            notifyListeners(from, State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * Appel réussi
+     */
+    public void onSuccess() {
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            if (state == State.CLOSED) {
+                record(false);
+                return;
+            }
+            if (state != State.HALF_OPEN) return; // Résultat tardif d'un appel antérieur à l'ouverture
+            to = probeSucceeded();
+        }
+        if (to != from) {
+            notifyListeners(from, to);
+        }
+    }
+
+    /**
+     * Appel échoué (erreur réseau, timeout, 5xx, réponse illisible)
+     */
+    public void onFailure() {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.OPEN) return;
+            if (state == State.CLOSED) {
+                record(true);
+                if (windowCount < minimumCalls || (double) windowFailures / windowCount < failureRateThreshold) {
+                    return;
+                }
+            }
+            open();
+        }
+        notifyListeners(from, State.OPEN);
+    }
+
+    /**
+     * Réponse attendue (conflit, fonctionnalité absente) : hors taux d'échec,
+     * mais le serveur a répondu - une sonde est validée
+     */
+    public void onIgnored() {
+        State from;
+        State to;
+        synchronized (this) {
+            if (state != State.HALF_OPEN) return;
+            from = state;
+            to = probeSucceeded();
+        }
+        if (to != from) {
+            notifyListeners(from, to);
+        }
+    }
+
+    /**
+     * Referme le circuit et vide la fenêtre
+     */
+    public void reset() {
+        State from;
+        synchronized (this) {
+            from = state;
+            close();
+            consecutiveOpens = 0;
+        }
+        if (from != State.CLOSED) {
+            notifyListeners(from, State.CLOSED);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Temps restant avant les premières sondes (0 si le circuit n'est pas ouvert)
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, openUntil - System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * Taux d'échec actuel de la fenêtre glissante (0..1)
+     */
+    public synchronized double getFailureRate() {
+        evictExpired(System.currentTimeMillis());
+        return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+    }
+
+    public synchronized String getDebugMetrics() {
+        evictExpired(System.currentTimeMillis());
+        return String.format("%s=%s(%d/%d,open=%d,rej=%d)",
+            name, state, windowFailures, windowCount, openCount, rejectedCalls);
+    }
+
+    private State probeSucceeded() {
+        probesInFlight = Math.max(0, probesInFlight - 1);
+        if (++probeSuccesses >= halfOpenProbes) {
+            close();
+            consecutiveOpens = 0;
+        }
+        return state;
+    }
+
+    private void open() {
+        long duration = openMillis << Math.min(consecutiveOpens, 16);
+        consecutiveOpens++;
+        openCount++;
+        state = State.OPEN;
+        openUntil = System.currentTimeMillis() + Math.min(duration, maxOpenMillis);
+        probesInFlight = 0;
+        probeSuccesses = 0;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        openUntil = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        windowStart = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void record(boolean failed) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+        if (windowCount == callTimes.length) {
+            evictOldest();
+        }
+        int index = (windowStart + windowCount) % callTimes.length;
+        callTimes[index] = now;
+        callFailed[index] = failed;
+        windowCount++;
+        if (failed) {
+            windowFailures++;
+        }
+    }
+
+    private void evictExpired(long now) {
+        while (windowCount > 0 && now - callTimes[windowStart] > windowMillis) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        if (callFailed[windowStart]) {
+            windowFailures--;
+        }
+        windowStart = (windowStart + 1) % callTimes.length;
+        windowCount--;
+    }
+
+    private void notifyListeners(State from, State to) {
+        for (Listener listener : listeners) {
+            listener.onStateChange(this, from, to);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.aureltimer.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ EXÉCUTION DES I/O RÉSEAU
+ *
+ * Les échanges HTTP (callbacks et décodage du HttpClient, téléchargement de la
+ * whitelist, flux SSE, préchauffage) tournent ici, jamais sur un Actor : l'Actor
+ * garde les mutations d'état et reprend la main avec le résultat.
+ *
+ * Mode virtuel (défaut, Java 21) : un thread virtuel par échange, une attente
+ * réseau ne bloque aucun thread plateforme. Désactivable avec
+ * -Daureltimer.io.virtualThreads=false (pool de threads plateforme daemon).
+ */
+public final class IoExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IoExecutor.class);
+
+    public static final boolean VIRTUAL_THREADS = Boolean.parseBoolean(
+        System.getProperty("aureltimer.io.virtualThreads", "true"));
+
+    private static final AtomicInteger platformThreadIds = new AtomicInteger(0);
+    private static final AtomicInteger active = new AtomicInteger(0);
+    private static final AtomicLong completed = new AtomicLong(0);
+
+    private static final ExecutorService EXECUTOR = VIRTUAL_THREADS
+        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("AurelTimer-IO-", 0).factory())
+        : Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "AurelTimer-IO-" + platformThreadIds.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+    private static final Executor INSTRUMENTED = task -> EXECUTOR.execute(() -> {
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+        }
+    });
+
+    static {
+        LOGGER.debug("🧵 I/O réseau sur threads {}", VIRTUAL_THREADS ? "virtuels" : "plateforme");
+    }
+
+    private IoExecutor() {}
+
+    /**
+     * Executor des échanges réseau (un thread virtuel par tâche en mode virtuel)
+     */
+    public static Executor executor() {
+        return INSTRUMENTED;
+    }
+
+    /**
+     * Démarre une boucle d'I/O longue durée (flux SSE, préchauffage)
+     */
+    public static Thread startThread(String name, Runnable task) {
+        if (VIRTUAL_THREADS) {
+            return Thread.ofVirtual().name(name).start(task);
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public static String getDebugMetrics() {
+        return String.format("io[%s,active=%d,done=%d]",
+            VIRTUAL_THREADS ? "virtual" : "platform", active.get(), completed.get());
+    }
+}
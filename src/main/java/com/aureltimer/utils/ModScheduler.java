@@ -0,0 +1,169 @@
+package com.aureltimer.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ SERVICE D'ORDONNANCEMENT UNIQUE DU MOD
+ *
+ * Remplace les executors dispersés (alertes, Actor de sync recréé à chaque
+ * reconnexion, whitelist, délai de grâce) par un nombre fixe de threads daemon :
+ * - 1 thread minuterie partagé : ne fait que déclencher les échéances
+ * - 2 threads de travail : exécutent les tâches et vident les files des lanes
+ *
+ * Une lane est un Actor (file série nommée, priorités) sans thread propre : créer
+ * un Actor à chaque reconnexion ne crée aucun thread, et ses tâches programmées
+ * sont annulées à son arrêt - le nombre de réveils de la minuterie reste stable.
+ *
+ * Les I/O réseau bloquantes n'ont rien à faire ici : voir IoExecutor.
+ * Arrêt piloté par le cycle de vie du client (AurelTimerMod.shutdown).
+ */
+public final class ModScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModScheduler.class);
+
+    private static final int WORKER_THREADS = 2;
+
+    private static final AtomicInteger workerIds = new AtomicInteger(0);
+    private static final AtomicLong timerWakeups = new AtomicLong(0);
+    private static final AtomicLong tasksRun = new AtomicLong(0);
+    private static final Set<Actor> lanes = ConcurrentHashMap.newKeySet();
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "AurelTimer-Timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ThreadPoolExecutor WORKERS = new ThreadPoolExecutor(
+        WORKER_THREADS, WORKER_THREADS, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "AurelTimer-Worker-" + workerIds.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+        TIMER.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        TIMER.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+    }
+
+    private ModScheduler() {}
+
+    /**
+     * Exécute une tâche courte sur un thread de travail (ignorée après l'arrêt)
+     */
+    public static void execute(Runnable task) {
+        if (WORKERS.isShutdown()) {
+            LOGGER.debug("⏹️ Tâche ignorée - scheduler arrêté");
+            return;
+        }
+        WORKERS.execute(() -> {
+            tasksRun.incrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                LOGGER.error("❌ Erreur tâche du scheduler: {}", t.getMessage(), t);
+            }
+        });
+    }
+
+    /**
+     * Programme une tâche courte (exécutée sur un thread de travail à l'échéance).
+     * Retourne null après l'arrêt : un DISCONNECT émis pendant la fermeture du
+     * client ne doit pas faire échouer l'événement.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        if (TIMER.isShutdown()) {
+            LOGGER.debug("⏹️ Échéance ignorée - scheduler arrêté");
+            return null;
+        }
+        return scheduleTimer(() -> execute(task), delay, unit);
+    }
+
+    /**
+     * Programme une tâche périodique courte (thread de travail), null après l'arrêt
+     */
+    public static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (TIMER.isShutdown()) {
+            LOGGER.debug("⏹️ Tâche périodique ignorée - scheduler arrêté");
+            return null;
+        }
+        return scheduleTimerAtFixedRate(() -> execute(task), initialDelay, period, unit);
+    }
+
+    /**
+     * Échéance exécutée sur le thread minuterie lui-même : réservé aux dépôts
+     * instantanés (mise en file d'un Actor)
+     */
+    static ScheduledFuture<?> scheduleTimer(Runnable trigger, long delay, TimeUnit unit) {
+        return TIMER.schedule(() -> {
+            timerWakeups.incrementAndGet();
+            trigger.run();
+        }, delay, unit);
+    }
+
+    static ScheduledFuture<?> scheduleTimerAtFixedRate(Runnable trigger, long initialDelay, long period, TimeUnit unit) {
+        return TIMER.scheduleAtFixedRate(() -> {
+            timerWakeups.incrementAndGet();
+            trigger.run();
+        }, initialDelay, period, unit);
+    }
+
+    static Executor workers() {
+        return WORKERS;
+    }
+
+    static void register(Actor lane) {
+        lanes.add(lane);
+    }
+
+    static void unregister(Actor lane) {
+        lanes.remove(lane);
+    }
+
+    /**
+     * État du scheduler : threads, échéances en attente, réveils, lanes actives
+     */
+    public static String getDebugMetrics() {
+        StringBuilder laneDump = new StringBuilder();
+        for (Actor lane : lanes) {
+            if (laneDump.length() > 0) laneDump.append(',');
+            laneDump.append(lane.getName()).append("=q").append(lane.getQueueDepth());
+        }
+        return String.format("scheduler[threads=%d+%d, timers=%d, wakeups=%d, tasks=%d, lanes[%s]]",
+            TIMER.getPoolSize(), WORKERS.getPoolSize(), TIMER.getQueue().size(),
+            timerWakeups.get(), tasksRun.get(), laneDump);
+    }
+
+    /**
+     * Arrêt à la fermeture du client : échéances abandonnées, tâches en cours
+     * terminées (1s maximum)
+     */
+    public static void shutdown() {
+        LOGGER.info("🛑 Arrêt du scheduler du mod ({} lane(s) active(s))", lanes.size());
+        for (Actor lane : lanes) {
+            lane.shutdown();
+        }
+        TIMER.shutdownNow();
+        WORKERS.shutdown();
+        try {
+            if (!WORKERS.awaitTermination(1, TimeUnit.SECONDS)) {
+                WORKERS.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            WORKERS.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
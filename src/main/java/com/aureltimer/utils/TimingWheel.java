@@ -0,0 +1,197 @@
+package com.aureltimer.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * ✅ ROUE TEMPORELLE HIÉRARCHIQUE
+ *
+ * 4 niveaux de 64 cases : le niveau 0 avance d'une case par tick, chaque niveau
+ * supérieur couvre 64 fois la portée du précédent (tick de 500ms → ~97 jours).
+ * Une échéance lointaine attend dans un niveau haut et redescend (cascade)
+ * quand son niveau se rapproche ; elle expire depuis le niveau 0.
+ *
+ * - schedule / reschedule / cancel en O(1) : chaque case est une liste
+ *   doublement chaînée circulaire, un handle se décroche sans parcours
+ * - advance() ne visite que les cases atteintes, quel que soit le nombre
+ *   d'échéances en attente
+ *
+ * Non synchronisée : l'appelant sérialise les accès.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * Échéance de la roue, réutilisable : un même handle peut être reprogrammé
+     * après expiration ou annulation
+     */
+    public static final class Handle<T> {
+        private final T payload;
+        private long deadlineMillis;
+        private long expiryTick;
+        private Handle<T> prev;
+        private Handle<T> next;
+
+        private Handle(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        public boolean isScheduled() {
+            return next != null;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final Handle<T>[][] slots;
+    private long currentTick = 0;
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long originMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis doit être positif");
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        // Pas de tableau générique en Java : seules des sentinelles Handle<T> y sont rangées
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Handle<T>[][] buckets = new Handle[LEVELS][SLOTS];
+        this.slots = buckets;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Handle<T> sentinel = new Handle<>(null);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                slots[level][slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Nouveau handle (non programmé)
+     */
+    public Handle<T> newHandle(T payload) {
+        return new Handle<>(payload);
+    }
+
+    /**
+     * Programme (ou reprogramme) le handle. Une échéance déjà passée expire au
+     * prochain tick.
+     */
+    public void schedule(Handle<T> handle, long deadlineMillis) {
+        if (handle.isScheduled()) {
+            handle.unlink();
+            size--;
+        }
+        handle.deadlineMillis = deadlineMillis;
+        long tick = Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+        handle.expiryTick = Math.max(tick, currentTick + 1);
+        insert(handle);
+        size++;
+    }
+
+    /**
+     * Annule le handle (false s'il n'était pas programmé)
+     */
+    public boolean cancel(Handle<T> handle) {
+        if (!handle.isScheduled()) return false;
+        handle.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Avance la roue jusqu'à nowMillis ; chaque handle échu est décroché puis
+     * passé à expired, dans l'ordre des ticks
+     *
+     * @return nombre de handles échus
+     */
+    public int advance(long nowMillis, Consumer<Handle<T>> expired) {
+        long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int fired = 0;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Roue vide : rien à cascader, on saute directement
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            Handle<T> sentinel = slots[0][(int) (currentTick & SLOT_MASK)];
+            while (sentinel.next != sentinel) {
+                Handle<T> handle = sentinel.next;
+                handle.unlink();
+                size--;
+                fired++;
+                expired.accept(handle);
+            }
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Redescend les cases des niveaux supérieurs atteintes à ce tick (du plus
+     * haut au plus bas, pour qu'une échéance puisse traverser plusieurs niveaux)
+     */
+    private void cascade() {
+        int wrapped = 0;
+        while (wrapped < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (wrapped + 1))) - 1)) == 0) {
+            wrapped++;
+        }
+        for (int level = wrapped; level >= 1; level--) {
+            Handle<T> sentinel = slots[level][(int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK)];
+            Handle<T> handle = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (handle != sentinel) {
+                Handle<T> next = handle.next;
+                insert(handle);
+                handle = next;
+            }
+        }
+    }
+
+    private void insert(Handle<T> handle) {
+        long delta = handle.expiryTick - currentTick;
+        long placementTick = delta > MAX_SPAN_TICKS ? currentTick + MAX_SPAN_TICKS : handle.expiryTick;
+        long span = Math.min(delta, MAX_SPAN_TICKS);
+
+        int level = 0;
+        while (level < LEVELS - 1 && span >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Handle<T> sentinel = slots[level][(int) ((placementTick >> (SLOT_BITS * level)) & SLOT_MASK)];
+        handle.prev = sentinel.prev;
+        handle.next = sentinel;
+        sentinel.prev.next = handle;
+        sentinel.prev = handle;
+    }
+}
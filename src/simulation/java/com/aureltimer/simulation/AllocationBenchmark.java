@@ -0,0 +1,121 @@
+package com.aureltimer.simulation;
+
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.sync.TimerBinaryCodec;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * ✅ ALLOCATION PAR POLL (décodage avant/après lecture en streaming)
+ *
+ * Mesure les octets alloués par le thread courant (ThreadMXBean) pour décoder
+ * une réponse GET de 200 selon trois chemins :
+ * - Avant : corps lu ligne à ligne dans une String, fromJson(String), puis
+ *   GetResult re-sérialisé en JSON indenté (toJson) et reparsé par
+ *   TimerSyncManager
+ * - Après : un seul JsonReader sur le flux de la réponse, modèle transmis tel quel
+ * - Binaire : TimerBinaryCodec sur le flux (format négocié par Accept)
+ *
+ * Moyenne sur --iterations décodages après échauffement du JIT ; les octets de
+ * la réponse elle-même (tampon réseau) sont communs aux trois chemins et exclus.
+ *
+ * Usage : ./gradlew runAllocationBenchmark --args="--iterations 20000 --seed 42"
+ */
+public class AllocationBenchmark {
+
+    private static final int[] DOCUMENT_SIZES = { 1, 6, 20, 100 };
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile int blackhole;
+
+    /**
+     * Un chemin de décodage d'une réponse
+     */
+    private interface Decoder {
+        WorkerTimerSyncData decode(InputStream body) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 20_000;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+            }
+        }
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.out.println("❌ Mesure d'allocation par thread non supportée par cette JVM");
+            System.exit(1);
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        Random random = new Random(seed);
+
+        System.out.printf("%8s | %8s | %12s %12s %8s | %12s%n",
+            "timers", "json", "avant", "après", "gain", "binaire");
+        for (int size : DOCUMENT_SIZES) {
+            WorkerTimerSyncData document = WireFormatBenchmark.randomDocument(random, size, false);
+            byte[] json = document.toCompactJson().getBytes(StandardCharsets.UTF_8);
+            byte[] binary = TimerBinaryCodec.encode(document);
+
+            long before = bytesPerPoll(iterations, json, AllocationBenchmark::decodeBefore);
+            long after = bytesPerPoll(iterations, json, AllocationBenchmark::decodeStreaming);
+            long binaryBytes = bytesPerPoll(iterations, binary, TimerBinaryCodec::decode);
+
+            System.out.printf("%8d | %7dB | %11dB %11dB %7.0f%% | %11dB%n",
+                size, json.length, before, after, 100.0 * (before - after) / before, binaryBytes);
+        }
+    }
+
+    /**
+     * Ancien chemin GET : String intermédiaire, GetResult indenté, second parse
+     */
+    private static WorkerTimerSyncData decodeBefore(InputStream body) throws IOException {
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                response.append(line);
+            }
+        }
+        WorkerTimerSyncData parsed = WorkerTimerSyncData.fromJson(response.toString());
+        String jsonBody = parsed.toJson();
+        return WorkerTimerSyncData.fromJson(jsonBody);
+    }
+
+    /**
+     * Chemin actuel : un seul JsonReader sur le flux
+     */
+    private static WorkerTimerSyncData decodeStreaming(InputStream body) {
+        return WorkerTimerSyncData.fromJson(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Octets alloués par décodage, mesurés après autant d'itérations d'échauffement
+     */
+    private static long bytesPerPoll(int iterations, byte[] response, Decoder decoder) throws IOException {
+        run(iterations, response, decoder);
+        long start = THREADS.getCurrentThreadAllocatedBytes();
+        run(iterations, response, decoder);
+        return (THREADS.getCurrentThreadAllocatedBytes() - start) / iterations;
+    }
+
+    private static void run(int iterations, byte[] response, Decoder decoder) throws IOException {
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            WorkerTimerSyncData data = decoder.decode(new ByteArrayInputStream(response));
+            sink += data != null ? data.timers.size() : -1;
+        }
+        blackhole += sink;
+    }
+}
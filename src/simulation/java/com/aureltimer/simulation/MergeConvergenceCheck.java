@@ -0,0 +1,213 @@
+package com.aureltimer.simulation;
+
+import com.aureltimer.models.TimerDelta;
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.sync.TimerMergeEngine;
+import com.aureltimer.sync.TimerShards;
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * ✅ VÉRIFICATION DE CONVERGENCE DU MERGE (complet, shard, delta)
+ *
+ * Pour chaque scénario aléatoire :
+ * 1. Quelques "sources" appliquent chacune un sous-ensemble d'opérations (versions
+ *    concurrentes, égalités de createdAt, tombstones, entrées expirées)
+ * 2. Chaque source est exposée sous les trois formes lues par le client : document
+ *    complet (mergeFull), shards (mergeTimers) et delta (mergeDelta)
+ * 3. Plusieurs répliques appliquent ces messages dans des ordres et des formes
+ *    permutés, avec doublons
+ *
+ * Toutes les répliques doivent finir avec les mêmes timers et les mêmes tombstones,
+ * égaux à la référence calculée directement : par dimension, la version max
+ * l'emporte si elle dépasse la tombstone max.
+ *
+ * Sort avec le code 1 au premier écart.
+ *
+ * Usage : ./gradlew runMergeConvergenceCheck --args="--scenarios 2000 --seed 42"
+ */
+public class MergeConvergenceCheck {
+
+    private static final String[] DIMENSIONS = { "Ressource1", "Ressource2", "Ressource3", "Construction1", "Construction2", "Nether" };
+    private static final String[] PLAYERS = { "alice", "bob", "carol" };
+    private static final int SHARD_COUNT = 4;
+    private static final int SOURCES = 4;
+    private static final int REPLICAS = 8;
+
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Une lecture telle que le client la reçoit
+     */
+    private interface Message {
+        TimerMergeEngine.MergeResult applyTo(WorkerTimerSyncData local, Instant now);
+    }
+
+    public static void main(String[] args) {
+        int scenarios = 2000;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--scenarios": scenarios = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+            }
+        }
+        Random random = new Random(seed);
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+        long merges = 0;
+        for (int scenario = 0; scenario < scenarios; scenario++) {
+            List<Message> messages = new ArrayList<>();
+
+            for (int source = 0; source < SOURCES; source++) {
+                WorkerTimerSyncData state = new WorkerTimerSyncData();
+                int operations = 1 + random.nextInt(10);
+                for (int op = 0; op < operations; op++) {
+                    String dimension = DIMENSIONS[random.nextInt(DIMENSIONS.length)];
+                    WorkerTimerSyncData.SyncTimer version = randomVersion(random, now);
+                    TimerDelta delta = random.nextInt(3) == 0
+                        ? new TimerDelta().remove(dimension, version)
+                        : new TimerDelta().put(dimension, version);
+                    state = TimerMergeEngine.mergeDelta(state, delta, now).merged;
+                }
+                WorkerTimerSyncData published = state;
+                messages.add((local, at) -> TimerMergeEngine.mergeFull(local, published, at));
+                messages.addAll(shardMessages(published));
+                messages.add(deltaMessage(published));
+            }
+
+            String expected = null;
+            for (int replica = 0; replica < REPLICAS; replica++) {
+                List<Message> order = new ArrayList<>(messages);
+                // Doublons : une même lecture peut arriver deux fois (poll + push)
+                for (int i = 0; i < 3; i++) {
+                    order.add(messages.get(random.nextInt(messages.size())));
+                }
+                Collections.shuffle(order, random);
+
+                WorkerTimerSyncData local = new WorkerTimerSyncData();
+                for (Message message : order) {
+                    local = message.applyTo(local, now).merged;
+                    merges++;
+                }
+
+                String result = canonical(local);
+                if (expected == null) {
+                    expected = reference(messages, now);
+                }
+                if (!JsonParser.parseString(expected).equals(JsonParser.parseString(result))) {
+                    System.out.println("❌ Divergence (scénario " + scenario + ", réplique " + replica + ")");
+                    System.out.println("   attendu : " + expected);
+                    System.out.println("   obtenu  : " + result);
+                    System.exit(1);
+                }
+            }
+        }
+        System.out.printf("✅ Convergence : %d scénarios × %d répliques, %d merges, résultats identiques%n",
+            scenarios, REPLICAS, merges);
+    }
+
+    /**
+     * Référence sans le moteur d'ordre d'arrivée : chaque message est appliqué seul sur
+     * un document vide pour en extraire versions et tombstones, puis max par dimension
+     */
+    private static String reference(List<Message> messages, Instant now) {
+        Map<String, WorkerTimerSyncData.SyncTimer> versions = new TreeMap<>();
+        Map<String, WorkerTimerSyncData.SyncTimer> tombstones = new TreeMap<>();
+        for (Message message : messages) {
+            WorkerTimerSyncData alone = message.applyTo(new WorkerTimerSyncData(), now).merged;
+            alone.timers.forEach((dimension, version) -> keepMax(versions, dimension, version));
+            alone.deleted.forEach((dimension, tombstone) -> keepMax(tombstones, dimension, tombstone));
+        }
+
+        WorkerTimerSyncData expected = new WorkerTimerSyncData();
+        expected.deleted.putAll(tombstones);
+        versions.forEach((dimension, version) -> {
+            WorkerTimerSyncData.SyncTimer tombstone = tombstones.get(dimension);
+            if (tombstone == null || TimerMergeEngine.compare(version, tombstone) > 0) {
+                expected.timers.put(dimension, version);
+            }
+        });
+        return canonical(expected);
+    }
+
+    private static void keepMax(Map<String, WorkerTimerSyncData.SyncTimer> target, String dimension,
+                                WorkerTimerSyncData.SyncTimer candidate) {
+        WorkerTimerSyncData.SyncTimer known = target.get(dimension);
+        if (known == null || TimerMergeEngine.compare(candidate, known) > 0) {
+            target.put(dimension, candidate);
+        }
+    }
+
+    private static List<Message> shardMessages(WorkerTimerSyncData published) {
+        List<Message> shards = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            WorkerTimerSyncData shardData = new WorkerTimerSyncData();
+            int current = shard;
+            published.timers.forEach((dimension, timer) -> {
+                if (TimerShards.shardOf(dimension, SHARD_COUNT) == current) shardData.timers.put(dimension, timer);
+            });
+            published.deleted.forEach((dimension, tombstone) -> {
+                if (TimerShards.shardOf(dimension, SHARD_COUNT) == current) shardData.deleted.put(dimension, tombstone);
+            });
+            shards.add((local, at) -> TimerMergeEngine.mergeTimers(local, shardData.timers, shardData.deleted, at));
+        }
+        return shards;
+    }
+
+    /**
+     * Delta équivalent au document : puts, suppressions versionnées et tombstones seules
+     */
+    private static Message deltaMessage(WorkerTimerSyncData published) {
+        TimerDelta delta = new TimerDelta();
+        published.timers.forEach(delta::put);
+        published.deleted.forEach((dimension, tombstone) -> {
+            if (published.timers.containsKey(dimension)) {
+                delta.tombstone(dimension, tombstone);
+            } else {
+                delta.remove(dimension, tombstone);
+            }
+        });
+        // Passage par le format réseau : le parseur fait partie du chemin vérifié
+        TimerDelta parsed = TimerDelta.fromJson(delta.toJson());
+        return (local, at) -> TimerMergeEngine.mergeDelta(local, parsed, at);
+    }
+
+    /**
+     * Version aléatoire : peu d'instants et de joueurs distincts pour provoquer des
+     * égalités de createdAt, quelques versions expirées ou tombstones périmées
+     */
+    private static WorkerTimerSyncData.SyncTimer randomVersion(Random random, Instant now) {
+        WorkerTimerSyncData.SyncTimer timer = new WorkerTimerSyncData.SyncTimer();
+        Instant createdAt = now.minusSeconds(60L * random.nextInt(6));
+        if (random.nextInt(10) == 0) {
+            createdAt = now.minusSeconds(3 * 3600); // Expirée depuis plus de ttlMinutes
+        }
+        long duration = random.nextInt(8) == 0 ? 30 : 600 + 60L * random.nextInt(3);
+        timer.createdAt = createdAt.toString();
+        timer.expiresAt = createdAt.plusSeconds(duration).toString();
+        timer.createdBy = PLAYERS[random.nextInt(PLAYERS.length)];
+        timer.initialDurationSeconds = (int) duration;
+        timer.predictedPhase = "night";
+        return timer;
+    }
+
+    /**
+     * Timers et tombstones triés (indépendant de l'ordre d'insertion des HashMap)
+     */
+    private static String canonical(WorkerTimerSyncData data) {
+        Map<String, Object> view = new TreeMap<>();
+        view.put("timers", new TreeMap<>(data.timers));
+        view.put("deleted", new TreeMap<>(data.deleted));
+        return GSON.toJson(view);
+    }
+}
@@ -0,0 +1,324 @@
+package com.aureltimer.simulation;
+
+import com.aureltimer.managers.TimerSyncManager;
+import com.aureltimer.models.TimerData;
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.server.InMemoryTimerStore;
+import com.aureltimer.server.SyncServer;
+import com.aureltimer.sync.TimerMergeEngine;
+import com.aureltimer.utils.TimeAuthority;
+import com.aureltimer.utils.TimeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ SIMULATEUR DE CHARGE DE LA SYNC MULTI-CLIENTS
+ *
+ * Lance N TimerSyncManager headless (même JVM) contre le serveur de référence
+ * et rejoue des rafales réalistes de /legendaryspawn :
+ * - Une rafale = une fraction des joueurs voit le même spawn dans la même dimension
+ *   et crée le timer à quelques secondes d'intervalle
+ * - Comme TimerManager.updateTimer, un joueur qui voit déjà le même timer (±30s) n'écrit pas
+ *
+ * Rapport final :
+ * - Temps de convergence (écriture gagnante → serveur + tous les clients à jour)
+ * - Taux de 412 (conflits de version)
+ * - Mises à jour perdues (le document final ne contient pas le gagnant attendu)
+ * - Octets par client et par heure (réseau, après compression)
+ * - Requêtes/s vues par le serveur
+ *
+ * Usage : ./gradlew runSyncSimulation --args="--clients 200 --duration 600 --burst-interval 30"
+ */
+public class SyncLoadSimulator {
+
+    // Détection "même événement" identique à TimerManager.updateTimer
+    private static final long SAME_EVENT_SECONDS = 30;
+    private static final long MONITOR_INTERVAL_MS = 200;
+
+    /**
+     * Paramètres de la simulation (durées en secondes)
+     */
+    static final class Options {
+        int clients = 200;
+        long durationSeconds = 600;
+        long burstIntervalSeconds = 30;
+        int dimensions = 6;
+        double burstFraction = 0.15;
+        long burstSpreadSeconds = 5;
+        long quiesceSeconds = 90;
+        long seed = 42;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--clients": options.clients = Integer.parseInt(value); break;
+                    case "--duration": options.durationSeconds = Long.parseLong(value); break;
+                    case "--burst-interval": options.burstIntervalSeconds = Long.parseLong(value); break;
+                    case "--dimensions": options.dimensions = Integer.parseInt(value); break;
+                    case "--burst-fraction": options.burstFraction = Double.parseDouble(value); break;
+                    case "--burst-spread": options.burstSpreadSeconds = Long.parseLong(value); break;
+                    case "--quiesce": options.quiesceSeconds = Long.parseLong(value); break;
+                    case "--seed": options.seed = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+                }
+            }
+            return options;
+        }
+    }
+
+    /**
+     * Suivi de convergence d'une dimension : gagnant attendu + date de son écriture
+     */
+    private static final class DimensionState {
+        WorkerTimerSyncData.SyncTimer expected;
+        long expectedSinceNanos;
+        boolean converged = true;
+        int superseded = 0;
+    }
+
+    private final Options options;
+    private final Random random;
+    private final Map<String, DimensionState> dimensions = new HashMap<>();
+    private final List<Long> convergenceMs = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong writesIssued = new AtomicLong(0);
+    private final AtomicLong writesDeduplicated = new AtomicLong(0);
+
+    private SyncServer server;
+    private final List<TimerSyncManager> clients = new ArrayList<>();
+
+    SyncLoadSimulator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        for (int d = 1; d <= options.dimensions; d++) {
+            dimensions.put("Ressource" + d, new DimensionState());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SyncLoadSimulator(Options.parse(args)).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        server = SyncServer.start("127.0.0.1", 0, new InMemoryTimerStore(), null);
+        // Avant tout chargement de CloudflareConfig : les clients visent le serveur local
+        System.setProperty("aureltimer.sync.url", server.getBaseUrl());
+
+        System.out.printf("▶ %d clients, %ds, rafale toutes les %ds sur %d dimensions (%.0f%% des joueurs)%n",
+            options.clients, options.durationSeconds, options.burstIntervalSeconds,
+            options.dimensions, options.burstFraction * 100);
+
+        for (int i = 0; i < options.clients; i++) {
+            TimerSyncManager client = new TimerSyncManager();
+            client.setConnected(true);
+            clients.add(client);
+        }
+        // Laisser passer le chargement initial et les connexions SSE
+        Thread.sleep(3000);
+
+        long startNanos = System.nanoTime();
+        long startRequests = server.getRequestCount();
+        long startBytes = totalWireBytes();
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        scheduler.scheduleAtFixedRate(this::monitor, MONITOR_INTERVAL_MS, MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(() -> scheduleBurst(scheduler),
+            0, options.burstIntervalSeconds, TimeUnit.SECONDS);
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.durationSeconds));
+        scheduler.shutdownNow();
+
+        // Plus d'écriture : on laisse le système se stabiliser
+        ScheduledExecutorService quiesceMonitor = Executors.newSingleThreadScheduledExecutor();
+        quiesceMonitor.scheduleAtFixedRate(this::monitor, 0, MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        long quiesceDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.quiesceSeconds);
+        while (System.nanoTime() < quiesceDeadline && !allConverged()) {
+            Thread.sleep(500);
+        }
+        quiesceMonitor.shutdownNow();
+
+        double elapsedHours = (System.nanoTime() - startNanos) / 3_600_000_000_000.0;
+        report(elapsedHours, server.getRequestCount() - startRequests, totalWireBytes() - startBytes);
+
+        for (TimerSyncManager client : clients) {
+            client.close();
+        }
+        server.close();
+    }
+
+    /**
+     * Une rafale : plusieurs joueurs voient le même spawn et tapent la commande
+     */
+    private void scheduleBurst(ScheduledExecutorService scheduler) {
+        String dimension;
+        int participants;
+        long timerSeconds;
+        List<Integer> players;
+        synchronized (random) {
+            dimension = "Ressource" + (1 + random.nextInt(options.dimensions));
+            participants = Math.max(1, (int) Math.round(options.clients * options.burstFraction));
+            timerSeconds = TimeUnit.MINUTES.toSeconds(30 + random.nextInt(60));
+            players = new ArrayList<>();
+            for (int i = 0; i < options.clients; i++) players.add(i);
+            Collections.shuffle(players, random);
+        }
+
+        for (int p = 0; p < participants; p++) {
+            int player = players.get(p);
+            long delayMs;
+            synchronized (random) {
+                delayMs = (long) (random.nextDouble() * options.burstSpreadSeconds * 1000);
+            }
+            // Le timer affiché en jeu est commun, seul le moment de la commande diffère
+            Instant spawnExpiry = TimeAuthority.getInstance().now().plusSeconds(timerSeconds);
+            scheduler.schedule(() -> createTimer(player, dimension, spawnExpiry), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void createTimer(int player, String dimension, Instant expiresAt) {
+        TimerSyncManager client = clients.get(player);
+
+        TimerData existing = client.getTimer(dimension);
+        if (existing != null && !existing.isExpired()
+                && Math.abs(Duration.between(existing.getExpiresAtUtc(), expiresAt).getSeconds()) < SAME_EVENT_SECONDS) {
+            writesDeduplicated.incrementAndGet();
+            return;
+        }
+
+        Instant now = TimeAuthority.getInstance().now();
+        TimerData timer = new TimerData(dimension, expiresAt, Duration.between(now, expiresAt),
+            TimeUtils.DayPhase.DAY, now, "sim-" + player);
+        WorkerTimerSyncData.SyncTimer written = new WorkerTimerSyncData.SyncTimer(timer);
+
+        synchronized (dimensions) {
+            DimensionState state = dimensions.get(dimension);
+            if (state.expected == null || TimerMergeEngine.compare(written, state.expected) > 0) {
+                if (!state.converged) {
+                    state.superseded++;
+                }
+                state.expected = written;
+                state.expectedSinceNanos = System.nanoTime();
+                state.converged = false;
+            }
+        }
+
+        writesIssued.incrementAndGet();
+        client.createOrUpdateTimer(dimension, timer);
+    }
+
+    /**
+     * Vérifie quelles dimensions ont convergé (serveur + tous les clients)
+     */
+    private void monitor() {
+        try {
+            WorkerTimerSyncData serverData = WorkerTimerSyncData.fromJson(
+                new String(server.getService().current().body, StandardCharsets.UTF_8));
+
+            synchronized (dimensions) {
+                for (Map.Entry<String, DimensionState> entry : dimensions.entrySet()) {
+                    DimensionState state = entry.getValue();
+                    if (state.converged || state.expected == null) continue;
+
+                    if (isConverged(entry.getKey(), state.expected, serverData)) {
+                        state.converged = true;
+                        convergenceMs.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - state.expectedSinceNanos));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Monitor: " + e.getMessage());
+        }
+    }
+
+    private boolean isConverged(String dimension, WorkerTimerSyncData.SyncTimer expected, WorkerTimerSyncData serverData) {
+        if (!sameTimer(serverData.timers.get(dimension), expected)) {
+            return false;
+        }
+        for (TimerSyncManager client : clients) {
+            TimerData local = client.getTimer(dimension);
+            if (local == null || !sameTimer(new WorkerTimerSyncData.SyncTimer(local), expected)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameTimer(WorkerTimerSyncData.SyncTimer actual, WorkerTimerSyncData.SyncTimer expected) {
+        return actual != null && TimerMergeEngine.compare(actual, expected) == 0;
+    }
+
+    private boolean allConverged() {
+        synchronized (dimensions) {
+            return dimensions.values().stream().allMatch(state -> state.converged);
+        }
+    }
+
+    private long totalWireBytes() {
+        long total = 0;
+        for (TimerSyncManager client : clients) {
+            total += client.getWireBytes();
+        }
+        return total;
+    }
+
+    private void report(double elapsedHours, long requests, long wireBytes) {
+        WorkerTimerSyncData serverData = WorkerTimerSyncData.fromJson(
+            new String(server.getService().current().body, StandardCharsets.UTF_8));
+
+        int lostUpdates = 0;
+        int notConverged = 0;
+        int superseded = 0;
+        synchronized (dimensions) {
+            for (Map.Entry<String, DimensionState> entry : dimensions.entrySet()) {
+                DimensionState state = entry.getValue();
+                superseded += state.superseded;
+                if (state.expected == null) continue;
+                if (!sameTimer(serverData.timers.get(entry.getKey()), state.expected)) lostUpdates++;
+                if (!state.converged) notConverged++;
+            }
+        }
+
+        long[] samples;
+        synchronized (convergenceMs) {
+            samples = convergenceMs.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(samples);
+
+        long accepted = server.getWriteCount();
+        long conflicts = server.getPreconditionFailureCount();
+        double elapsedSeconds = elapsedHours * 3600;
+
+        System.out.println("================ RÉSULTATS SIMULATION ================");
+        System.out.printf("Écritures émises        : %d (dédupliquées côté joueur: %d)%n", writesIssued.get(), writesDeduplicated.get());
+        System.out.printf("Convergence (ms)        : p50=%d p95=%d max=%d (n=%d, écrasées avant convergence: %d)%n",
+            percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 1.0), samples.length, superseded);
+        System.out.printf("Conflits 412            : %d / %d écritures serveur (%.1f%%)%n",
+            conflicts, accepted + conflicts, accepted + conflicts > 0 ? conflicts * 100.0 / (accepted + conflicts) : 0.0);
+        System.out.printf("Mises à jour perdues    : %d dimension(s), non convergées: %d%n", lostUpdates, notConverged);
+        System.out.printf("Octets/client/heure     : %.0f%n", wireBytes / (double) options.clients / elapsedHours);
+        System.out.printf("Requêtes serveur        : %d (%.1f req/s)%n", requests, requests / elapsedSeconds);
+        System.out.println("Serveur                 : " + server.getDebugMetrics());
+        System.out.println("=======================================================");
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return -1;
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
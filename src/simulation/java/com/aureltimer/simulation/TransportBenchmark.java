@@ -0,0 +1,332 @@
+package com.aureltimer.simulation;
+
+import com.aureltimer.models.TimerData;
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.server.InMemoryTimerStore;
+import com.aureltimer.server.SyncServer;
+import com.aureltimer.sync.CloudflareClient;
+import com.aureltimer.sync.CloudflareConfig;
+import com.aureltimer.utils.TimeUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * ✅ BANC D'ESSAI DU TRANSPORT (HttpURLConnection par appel vs HttpClient partagé)
+ *
+ * Les deux clients rejouent la même charge contre le serveur de référence local :
+ * des GET conditionnels (polls, 304 la plupart du temps) et un POST toutes les
+ * --write-every requêtes. Un proxy TCP placé devant le serveur compte les
+ * connexions ouvertes et retarde chacune de --handshake-ms, le coût d'un
+ * TCP + TLS vers le Worker que le serveur local n'a pas.
+ *
+ * - Ancien client : une HttpURLConnection par appel, fermée après la réponse.
+ *   Les polls étant espacés de 30s ou plus, son cache keep-alive (5s) a
+ *   toujours expiré : chaque requête rouvre une connexion
+ * - Nouveau client : CloudflareClient (HttpClient partagé, keep-alive ; le HEAD
+ *   de maintien garde la connexion entre des polls espacés)
+ *
+ * Rapport : latence p50/p99 (polls et POST) et poignées de main par heure,
+ * extrapolées à un poll toutes les --poll-seconds (connexions / requête × polls/h).
+ *
+ * Usage : ./gradlew runTransportBenchmark --args="--requests 2000 --handshake-ms 20"
+ */
+public class TransportBenchmark {
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 10000;
+    private static final int WARMUP_REQUESTS = 200;
+    // Pause entre deux requêtes (non mesurée) : la connexion revient au pool
+    // de façon asynchrone après la lecture du corps, comme entre deux vrais polls
+    private static final long REQUEST_GAP_MS = 2;
+
+    private static volatile int blackhole;
+
+    /**
+     * Une requête de la charge : poll ou écriture
+     */
+    private interface Transport {
+        String get(String etag) throws IOException;
+        void post(WorkerTimerSyncData data) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = 2000;
+        long handshakeMs = 20;
+        int writeEvery = 20;
+        long pollSeconds = 30;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--requests": requests = Integer.parseInt(args[i + 1]); break;
+                case "--handshake-ms": handshakeMs = Long.parseLong(args[i + 1]); break;
+                case "--write-every": writeEvery = Integer.parseInt(args[i + 1]); break;
+                case "--poll-seconds": pollSeconds = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+            }
+        }
+
+        SyncServer server = SyncServer.start("127.0.0.1", 0, new InMemoryTimerStore(), null);
+        HandshakeProxy proxy = HandshakeProxy.start(server.getPort(), handshakeMs);
+        // Lu une seule fois par CloudflareConfig : à fixer avant le premier accès
+        System.setProperty("aureltimer.sync.url", "http://127.0.0.1:" + proxy.getPort());
+        // Les GET de couverture fausseraient le nombre de requêtes par mode
+        System.setProperty("aureltimer.sync.hedge", "false");
+
+        Transport legacy = new LegacyTransport();
+        Transport pooled = new PooledTransport(new CloudflareClient());
+
+        System.out.printf("Charge : %d requêtes (1 POST / %d), poignée de main simulée %dms, poll toutes les %ds%n",
+            requests, writeEvery, handshakeMs, pollSeconds);
+        System.out.printf("%-24s | %9s %9s | %9s %9s | %11s | %12s%n",
+            "client", "poll p50", "poll p99", "POST p50", "POST p99", "connexions", "handshakes/h");
+        try {
+            for (Object[] mode : new Object[][] {
+                    { "HttpURLConnection/appel", legacy }, { "HttpClient partagé", pooled } }) {
+                run((String) mode[0], (Transport) mode[1], proxy, requests, writeEvery, pollSeconds);
+            }
+        } finally {
+            proxy.close();
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    private static void run(String name, Transport transport, HandshakeProxy proxy, int requests,
+                            int writeEvery, long pollSeconds) throws IOException {
+        // Échauffement du JIT (non mesuré, connexions non comptées)
+        String etag = play(transport, null, WARMUP_REQUESTS, writeEvery, null);
+        proxy.connections.set(0);
+
+        long[] latencies = new long[requests];
+        play(transport, etag, requests, writeEvery, latencies);
+        long connections = proxy.connections.get();
+
+        // Polls et écritures séparés : les POST n'ont pas le même profil
+        long[] reads = LongStream.range(0, requests).filter(i -> !isWrite((int) i, writeEvery))
+            .map(i -> latencies[(int) i]).sorted().toArray();
+        long[] writes = LongStream.range(0, requests).filter(i -> isWrite((int) i, writeEvery))
+            .map(i -> latencies[(int) i]).sorted().toArray();
+        double handshakesPerHour = (double) connections / requests * (3600.0 / pollSeconds);
+        System.out.printf("%-24s | %7.2fms %7.2fms | %7.2fms %7.2fms | %11d | %12.1f%n",
+            name, millis(percentile(reads, 0.50)), millis(percentile(reads, 0.99)),
+            millis(percentile(writes, 0.50)), millis(percentile(writes, 0.99)),
+            connections, handshakesPerHour);
+    }
+
+    /**
+     * Rejoue la charge ; latences en nanos si un tableau est fourni
+     */
+    private static String play(Transport transport, String etag, int requests, int writeEvery,
+                               long[] latencies) throws IOException {
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            if (isWrite(i, writeEvery)) {
+                transport.post(document(i));
+            } else {
+                String next = transport.get(etag);
+                if (next != null) {
+                    etag = next;
+                }
+            }
+            if (latencies != null) {
+                latencies[i] = System.nanoTime() - start;
+            }
+            pause(REQUEST_GAP_MS);
+        }
+        return etag;
+    }
+
+    private static boolean isWrite(int request, int writeEvery) {
+        return request % writeEvery == writeEvery - 1;
+    }
+
+    private static WorkerTimerSyncData document(int revision) {
+        Instant now = Instant.now();
+        Duration duration = Duration.ofSeconds(600 + revision % 60);
+        WorkerTimerSyncData data = new WorkerTimerSyncData();
+        data.timers.put("Ressource1", new WorkerTimerSyncData.SyncTimer(new TimerData(
+            "Ressource1", now.plus(duration), duration, TimeUtils.DayPhase.NIGHT, now, "bench")));
+        return data;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.round((sorted.length - 1) * p)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Ancien transport : HttpURLConnection ouverte à chaque appel (timeouts 5s/10s).
+     * "Connection: close" reproduit des polls espacés de plus que son cache keep-alive.
+     */
+    private static final class LegacyTransport implements Transport {
+        @Override
+        public String get(String etag) throws IOException {
+            HttpURLConnection conn = open();
+            try {
+                conn.setRequestMethod("GET");
+                conn.setConnectTimeout(CONNECT_TIMEOUT);
+                conn.setReadTimeout(READ_TIMEOUT);
+                conn.setRequestProperty("User-Agent", "AurelTimer/bench");
+                if (etag != null) {
+                    conn.setRequestProperty("If-None-Match", etag);
+                }
+                int code = conn.getResponseCode();
+                if (code == 200) {
+                    blackhole += new String(conn.getInputStream().readAllBytes(), StandardCharsets.UTF_8).length();
+                    return conn.getHeaderField("ETag");
+                }
+                return null;
+            } finally {
+                conn.disconnect();
+            }
+        }
+
+        @Override
+        public void post(WorkerTimerSyncData data) throws IOException {
+            HttpURLConnection conn = open();
+            try {
+                conn.setRequestMethod("POST");
+                conn.setConnectTimeout(CONNECT_TIMEOUT);
+                conn.setReadTimeout(READ_TIMEOUT);
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/json");
+                conn.setRequestProperty("User-Agent", "AurelTimer/bench");
+                conn.setRequestProperty("Authorization", "Bearer bench");
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(data.toJson().getBytes(StandardCharsets.UTF_8));
+                }
+                conn.getResponseCode();
+                InputStream body = conn.getErrorStream() != null ? conn.getErrorStream() : conn.getInputStream();
+                blackhole += body.readAllBytes().length;
+            } finally {
+                conn.disconnect();
+            }
+        }
+
+        private static HttpURLConnection open() throws IOException {
+            HttpURLConnection conn = (HttpURLConnection) URI.create(CloudflareConfig.WORKER_TIMERS_URL).toURL().openConnection();
+            conn.setRequestProperty("Connection", "close");
+            return conn;
+        }
+    }
+
+    /**
+     * Nouveau transport : CloudflareClient et son HttpClient partagé
+     */
+    private static final class PooledTransport implements Transport {
+        private final CloudflareClient client;
+        private int ops = 0;
+
+        private PooledTransport(CloudflareClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public String get(String etag) {
+            CloudflareClient.GetResult result = client.getTimersAsync(etag, "BENCH-" + ops++).join();
+            return result.isNewContent() ? result.getEtag() : null;
+        }
+
+        @Override
+        public void post(WorkerTimerSyncData data) {
+            blackhole += client.postTimersAsync(data, null, "BENCH-" + ops++).join().success ? 1 : 0;
+        }
+    }
+
+    /**
+     * Proxy TCP devant le serveur local : compte les connexions et retarde la
+     * première donnée de chacune (poignée de main TCP + TLS simulée)
+     */
+    private static final class HandshakeProxy implements AutoCloseable {
+        private final ServerSocket listener;
+        private final int backendPort;
+        private final long handshakeMs;
+        private final AtomicLong connections = new AtomicLong(0);
+
+        private HandshakeProxy(ServerSocket listener, int backendPort, long handshakeMs) {
+            this.listener = listener;
+            this.backendPort = backendPort;
+            this.handshakeMs = handshakeMs;
+        }
+
+        static HandshakeProxy start(int backendPort, long handshakeMs) throws IOException {
+            HandshakeProxy proxy = new HandshakeProxy(
+                new ServerSocket(0, 50, InetAddress.getLoopbackAddress()), backendPort, handshakeMs);
+            Thread.ofVirtual().name("bench-proxy").start(proxy::acceptLoop);
+            return proxy;
+        }
+
+        int getPort() {
+            return listener.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!listener.isClosed()) {
+                try {
+                    Socket client = listener.accept();
+                    connections.incrementAndGet();
+                    Thread.ofVirtual().start(() -> forward(client));
+                } catch (IOException e) {
+                    return; // Proxy fermé
+                }
+            }
+        }
+
+        private void forward(Socket client) {
+            try (client; Socket backend = new Socket(InetAddress.getLoopbackAddress(), backendPort)) {
+                client.setTcpNoDelay(true);
+                backend.setTcpNoDelay(true);
+                Thread.sleep(handshakeMs);
+                Thread upstream = Thread.ofVirtual().start(() -> pipe(client, backend));
+                pipe(backend, client);
+                upstream.join();
+            } catch (IOException e) {
+                // Connexion coupée par l'un des deux côtés
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void pipe(Socket from, Socket to) {
+            try {
+                from.getInputStream().transferTo(to.getOutputStream());
+                to.shutdownOutput();
+            } catch (IOException e) {
+                try {
+                    to.close();
+                    from.close();
+                } catch (IOException ignored) {
+                    // Déjà fermé
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            listener.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.aureltimer.simulation;
+
+import com.aureltimer.models.WorkerTimerSyncData;
+import com.aureltimer.sync.HttpCompression;
+import com.aureltimer.sync.TimerBinaryCodec;
+import com.aureltimer.utils.TimeUtils;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * ✅ BANC D'ESSAI DU FORMAT BINAIRE (JSON vs TimerBinaryCodec)
+ *
+ * 1. Aller-retour : documents aléatoires (dont champs null, dates non canoniques,
+ *    phases hors enum, tombstones) → encode → decode → JSON identique à l'original
+ * 2. Taille : JSON, JSON gzip, binaire, binaire gzip selon le nombre de timers
+ * 3. Vitesse : encodage/décodage moyens après échauffement du JIT
+ *
+ * Sort avec le code 1 si un aller-retour n'est pas exact.
+ *
+ * Usage : ./gradlew runWireFormatBenchmark --args="--iterations 20000 --seed 42"
+ */
+public class WireFormatBenchmark {
+
+    private static final int[] DOCUMENT_SIZES = { 1, 6, 20, 100 };
+    private static final int ROUND_TRIP_DOCUMENTS = 2000;
+
+    private static volatile int blackhole;
+
+    public static void main(String[] args) throws IOException {
+        int iterations = 20_000;
+        long seed = 42;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Option inconnue: " + args[i]);
+            }
+        }
+        Random random = new Random(seed);
+
+        // 1. Aller-retour
+        int failures = 0;
+        for (int i = 0; i < ROUND_TRIP_DOCUMENTS; i++) {
+            WorkerTimerSyncData original = randomDocument(random, random.nextInt(30), true);
+            WorkerTimerSyncData decoded = TimerBinaryCodec.decode(new ByteArrayInputStream(TimerBinaryCodec.encode(original)));
+            if (decoded == null || !JsonParser.parseString(original.toCompactJson())
+                    .equals(JsonParser.parseString(decoded.toCompactJson()))) {
+                failures++;
+                if (failures <= 3) {
+                    System.out.println("❌ Aller-retour inexact : " + original.toCompactJson());
+                }
+            }
+        }
+        System.out.printf("Aller-retour : %d/%d documents exacts%n", ROUND_TRIP_DOCUMENTS - failures, ROUND_TRIP_DOCUMENTS);
+
+        // 2 & 3. Taille et vitesse
+        System.out.printf("%8s | %8s %8s | %8s %8s | %6s | %10s %10s | %10s %10s%n",
+            "timers", "json", "json.gz", "bin", "bin.gz", "ratio",
+            "enc.json", "dec.json", "enc.bin", "dec.bin");
+        for (int size : DOCUMENT_SIZES) {
+            WorkerTimerSyncData document = randomDocument(random, size, false);
+            byte[] json = document.toCompactJson().getBytes(StandardCharsets.UTF_8);
+            byte[] binary = TimerBinaryCodec.encode(document);
+
+            double encodeJson = nanosPerOp(iterations, () -> document.toCompactJson().getBytes(StandardCharsets.UTF_8));
+            double decodeJson = nanosPerOp(iterations, () -> WorkerTimerSyncData.fromJson(
+                new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)));
+            double encodeBinary = nanosPerOp(iterations, () -> TimerBinaryCodec.encode(document));
+            double decodeBinary = nanosPerOp(iterations, () -> TimerBinaryCodec.decode(new ByteArrayInputStream(binary)));
+
+            System.out.printf("%8d | %7dB %7dB | %7dB %7dB | %5.0f%% | %8.1fµs %8.1fµs | %8.1fµs %8.1fµs%n",
+                size, json.length, HttpCompression.gzip(json).length, binary.length, HttpCompression.gzip(binary).length,
+                100.0 * binary.length / json.length,
+                encodeJson / 1000, decodeJson / 1000, encodeBinary / 1000, decodeBinary / 1000);
+        }
+
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Document réaliste : une poignée de joueurs, phases de l'enum, durées de spawn
+     */
+    static WorkerTimerSyncData randomDocument(Random random, int timers, boolean edgeCases) {
+        WorkerTimerSyncData data = new WorkerTimerSyncData();
+        data.seq = random.nextInt(100_000);
+        data.stats.totalTimersCreated = random.nextInt(10_000);
+        data.stats.activeUsers24h = random.nextInt(500);
+        Instant now = Instant.now();
+        TimeUtils.DayPhase[] phases = TimeUtils.DayPhase.values();
+
+        for (int i = 0; i < timers; i++) {
+            WorkerTimerSyncData.SyncTimer timer = new WorkerTimerSyncData.SyncTimer();
+            Instant createdAt = now.minus(Duration.ofMillis(random.nextInt(3_600_000)));
+            int duration = 60 + random.nextInt(3600);
+            TimeUtils.DayPhase phase = phases[random.nextInt(phases.length)];
+            timer.createdAt = createdAt.toString();
+            timer.expiresAt = createdAt.plusSeconds(duration).toString();
+            timer.createdBy = "Player" + random.nextInt(8);
+            timer.initialDurationSeconds = duration;
+            timer.predictedPhase = phase.name().toLowerCase();
+            timer.predictedPhaseDisplay = TimeUtils.getPhaseDisplay(phase);
+
+            if (edgeCases) {
+                switch (random.nextInt(8)) {
+                    case 0: timer.createdBy = null; break;
+                    case 1: timer.expiresAt = createdAt.getEpochSecond() * 1000 + ".000Z"; break;
+                    case 2: timer.createdAt = "2025-01-01T00:00:00.000Z"; break;
+                    case 3: timer.predictedPhase = "unknown"; timer.predictedPhaseDisplay = "Unknown"; break;
+                    case 4: timer.predictedPhase = null; timer.predictedPhaseDisplay = null; break;
+                    case 5: timer.initialDurationSeconds = -random.nextInt(100); break;
+                    case 6: timer.createdAt = createdAt.getEpochSecond() + "s"; break;
+                    default: break;
+                }
+            }
+            // Quelques tombstones (section optionnelle du format binaire)
+            if (edgeCases && random.nextInt(4) == 0) {
+                data.deleted.put("dimension_" + i + "_supprimée", timer);
+            } else {
+                data.timers.put("dimension_" + i + (edgeCases ? "_é" : ""), timer);
+            }
+        }
+        return data;
+    }
+
+    private static double nanosPerOp(int iterations, Supplier<Object> operation) {
+        // Échauffement JIT puis mesure ; le puits empêche l'élimination du code mort
+        int sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += System.identityHashCode(operation.get());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += System.identityHashCode(operation.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return (double) elapsed / iterations;
+    }
+}
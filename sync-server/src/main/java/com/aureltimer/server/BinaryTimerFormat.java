@@ -0,0 +1,470 @@
+package com.aureltimer.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ FORMAT BINAIRE DU DOCUMENT (CÔTÉ SERVEUR)
+ *
+ * Même schéma que TimerBinaryCodec côté mod, appliqué au JsonObject stocké :
+ * varints, instants en secondes epoch + nanos, phase en ordinal, table des
+ * chaînes internées. Les champs absents du document prennent les valeurs par
+ * défaut du modèle client (WorkerTimerSyncData). Les tombstones ("deleted")
+ * forment une section optionnelle en fin de corps, écrite seulement si non vide.
+ *
+ * v2 : l'affichage de phase égal à celui du mod pour cette phase (PHASE_DISPLAYS)
+ * n'est plus écrit. Les corps v1 restent acceptés en POST ; le v2 n'est envoyé
+ * qu'aux clients qui annoncent "v=2" dans Accept, les autres reçoivent du JSON.
+ */
+final class BinaryTimerFormat {
+
+    static final String CONTENT_TYPE = "application/vnd.aureltimer.timers+binary";
+
+    private static final byte[] MAGIC = { 'A', 'T', 'B' };
+    private static final int FORMAT_VERSION = 2;
+    private static final int FORMAT_VERSION_V1 = 1;
+
+    private static final int INSTANT_NULL = 0;
+    private static final int INSTANT_TEXT = 1;
+    private static final int INSTANT_SECONDS = 2;
+    private static final int INSTANT_NANOS = 3;
+
+    private static final int PHASE_NULL = 0;
+    private static final int PHASE_STRING = 1;
+    private static final int PHASE_ORDINAL_BASE = 2;
+
+    private static final int DISPLAY_NULL = 0;
+    private static final int DISPLAY_DERIVED = 1;
+    private static final int DISPLAY_TABLE_BASE = 2;
+
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+    private static final int MAX_ENTRIES = 100_000;
+
+    // Ordre de TimeUtils.DayPhase côté mod (fait partie du format)
+    private static final String[] PHASES = {
+        "dawn", "morning", "noon", "afternoon", "dusk", "night", "midnight", "day"
+    };
+
+    // TimeUtils.getPhaseDisplay côté mod, même ordre que PHASES
+    private static final String[] PHASE_DISPLAYS = {
+        "Aube (05:00-05:59)", "Matin (06:00-10:59)", "Midi (11:00-12:59)", "Après-midi (13:00-17:59)",
+        "Crépuscule (18:00-18:59)", "Nuit (19:00-04:59)", "Minuit (23:00-00:59)", "Jour (06:00-17:59)"
+    };
+
+    private BinaryTimerFormat() {}
+
+    static boolean isBinary(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase().startsWith(CONTENT_TYPE);
+    }
+
+    /**
+     * Accept contient ce format avec un paramètre v couvrant la version écrite
+     */
+    static boolean isAccepted(String accept) {
+        if (accept == null) return false;
+        for (String range : accept.toLowerCase().split(",")) {
+            String[] parts = range.split(";");
+            if (!parts[0].trim().equals(CONTENT_TYPE)) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("v=")) {
+                    try {
+                        return Integer.parseInt(param.substring(2).trim()) >= FORMAT_VERSION;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    static byte[] encode(JsonObject document) {
+        List<Map.Entry<String, JsonElement>> entries = timerEntries(object(document, "timers"));
+        List<Map.Entry<String, JsonElement>> deleted = timerEntries(object(document, "deleted"));
+
+        Map<String, Integer> table = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : entries) {
+            internTimer(table, strings, entry.getValue().getAsJsonObject());
+        }
+        for (Map.Entry<String, JsonElement> entry : deleted) {
+            internTimer(table, strings, entry.getValue().getAsJsonObject());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + entries.size() * 48);
+        out.write(MAGIC, 0, MAGIC.length);
+        out.write(FORMAT_VERSION);
+
+        writeString(out, string(document, "version"));
+        writeInstant(out, string(document, "lastUpdated"));
+        writeVarLong(out, zigzag(number(document, "ttlMinutes", 60)));
+        writeVarLong(out, zigzag(number(document, "seq", 0)));
+
+        JsonObject settings = object(document, "settings");
+        out.write((bool(settings, "autoCleanupExpired", true) ? 1 : 0) | (bool(settings, "syncEnabled", true) ? 2 : 0));
+        writeVarLong(out, zigzag(number(settings, "maxTimersPerDimension", 1)));
+
+        JsonObject stats = object(document, "stats");
+        writeVarLong(out, zigzag(number(stats, "totalTimersCreated", 0)));
+        writeVarLong(out, zigzag(number(stats, "activeUsers24h", 0)));
+
+        writeVarLong(out, strings.size());
+        for (String value : strings) {
+            writeString(out, value);
+        }
+
+        writeVarLong(out, entries.size());
+        for (Map.Entry<String, JsonElement> entry : entries) {
+            writeTimer(out, table, entry.getKey(), entry.getValue().getAsJsonObject());
+        }
+
+        if (!deleted.isEmpty()) {
+            writeVarLong(out, deleted.size());
+            for (Map.Entry<String, JsonElement> entry : deleted) {
+                writeTimer(out, table, entry.getKey(), entry.getValue().getAsJsonObject());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Décode un corps binaire en document JSON (400 si invalide)
+     */
+    static JsonObject decode(byte[] body) throws HttpExchanges.HttpError {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        try {
+            for (byte expected : MAGIC) {
+                if (readByte(in) != expected) throw new IOException("Magic invalide");
+            }
+            int formatVersion = readByte(in);
+            if (formatVersion != FORMAT_VERSION && formatVersion != FORMAT_VERSION_V1) {
+                throw new IOException("Version de format inconnue");
+            }
+
+            JsonObject document = new JsonObject();
+            putString(document, "version", readString(in));
+            putString(document, "lastUpdated", readInstant(in));
+            document.addProperty("ttlMinutes", unzigzag(readVarLong(in)));
+            document.addProperty("seq", unzigzag(readVarLong(in)));
+
+            int flags = readByte(in);
+            JsonObject settings = new JsonObject();
+            settings.addProperty("autoCleanupExpired", (flags & 1) != 0);
+            settings.addProperty("maxTimersPerDimension", unzigzag(readVarLong(in)));
+            settings.addProperty("syncEnabled", (flags & 2) != 0);
+
+            JsonObject stats = new JsonObject();
+            stats.addProperty("totalTimersCreated", unzigzag(readVarLong(in)));
+            stats.addProperty("activeUsers24h", unzigzag(readVarLong(in)));
+
+            int tableSize = readCount(in);
+            String[] strings = new String[tableSize];
+            for (int i = 0; i < tableSize; i++) {
+                strings[i] = readString(in);
+            }
+
+            JsonObject timers = readTimers(in, strings, readCount(in), formatVersion);
+            // Section des tombstones : présente seulement si le corps continue
+            JsonObject deleted = in.available() > 0 ? readTimers(in, strings, readCount(in), formatVersion) : null;
+
+            document.add("settings", settings);
+            document.add("timers", timers);
+            document.add("stats", stats);
+            if (deleted != null) {
+                document.add("deleted", deleted);
+            }
+            return document;
+        } catch (IOException | RuntimeException e) {
+            throw new HttpExchanges.HttpError(400, "Corps binaire invalide: " + e.getMessage());
+        }
+    }
+
+    private static JsonObject readTimers(ByteArrayInputStream in, String[] strings, int count,
+                                         int formatVersion) throws IOException {
+        JsonObject timers = new JsonObject();
+        for (int i = 0; i < count; i++) {
+            String dimension = readString(in);
+            JsonObject timer = new JsonObject();
+            putString(timer, "expiresAt", readInstant(in));
+            putString(timer, "createdBy", readReference(in, strings));
+            putString(timer, "createdAt", readInstant(in));
+            timer.addProperty("initialDurationSeconds", unzigzag(readVarLong(in)));
+
+            long phase = readVarLong(in);
+            int ordinal = -1;
+            if (phase == PHASE_STRING) {
+                timer.addProperty("predictedPhase", strings[checkIndex(readVarLong(in), strings)]);
+            } else if (phase >= PHASE_ORDINAL_BASE) {
+                long index = phase - PHASE_ORDINAL_BASE;
+                ordinal = index < PHASES.length ? (int) index : -1;
+                timer.addProperty("predictedPhase", ordinal >= 0 ? PHASES[ordinal] : "unknown");
+            }
+            putString(timer, "predictedPhaseDisplay", formatVersion == FORMAT_VERSION_V1
+                ? readReference(in, strings) : readDisplay(in, strings, ordinal));
+
+            if (dimension != null) {
+                timers.add(dimension, timer);
+            }
+        }
+        return timers;
+    }
+
+    // ===== ACCÈS AU DOCUMENT =====
+
+    private static List<Map.Entry<String, JsonElement>> timerEntries(JsonObject timers) {
+        List<Map.Entry<String, JsonElement>> entries = new ArrayList<>();
+        for (Map.Entry<String, JsonElement> entry : timers.entrySet()) {
+            if (entry.getValue().isJsonObject()) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static JsonObject object(JsonObject parent, String name) {
+        JsonElement value = parent.get(name);
+        return value != null && value.isJsonObject() ? value.getAsJsonObject() : new JsonObject();
+    }
+
+    private static String string(JsonObject parent, String name) {
+        JsonElement value = parent.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private static long number(JsonObject parent, String name, long defaultValue) {
+        JsonElement value = parent.get(name);
+        if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber()) {
+            return value.getAsLong();
+        }
+        return defaultValue;
+    }
+
+    private static boolean bool(JsonObject parent, String name, boolean defaultValue) {
+        JsonElement value = parent.get(name);
+        if (value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isBoolean()) {
+            return value.getAsBoolean();
+        }
+        return defaultValue;
+    }
+
+    private static void putString(JsonObject parent, String name, String value) {
+        if (value != null) {
+            parent.add(name, new JsonPrimitive(value));
+        }
+    }
+
+    private static String readDisplay(ByteArrayInputStream in, String[] strings, int ordinal) throws IOException {
+        long display = readVarLong(in);
+        if (display == DISPLAY_NULL) return null;
+        if (display == DISPLAY_DERIVED) {
+            return ordinal >= 0 ? PHASE_DISPLAYS[ordinal] : null;
+        }
+        return strings[checkIndex(display - DISPLAY_TABLE_BASE, strings)];
+    }
+
+    private static boolean isDerivedDisplay(String display, int ordinal) {
+        return ordinal >= 0 && display != null && display.equals(PHASE_DISPLAYS[ordinal]);
+    }
+
+    private static int phaseOrdinal(String phase) {
+        if (phase == null) return -1;
+        for (int i = 0; i < PHASES.length; i++) {
+            if (PHASES[i].equals(phase)) return i;
+        }
+        return -1;
+    }
+
+    private static void intern(Map<String, Integer> table, List<String> strings, String value) {
+        if (value != null && !table.containsKey(value)) {
+            table.put(value, strings.size());
+            strings.add(value);
+        }
+    }
+
+    private static void internTimer(Map<String, Integer> table, List<String> strings, JsonObject timer) {
+        intern(table, strings, string(timer, "createdBy"));
+        String phase = string(timer, "predictedPhase");
+        int ordinal = phaseOrdinal(phase);
+        if (ordinal < 0) {
+            intern(table, strings, phase);
+        }
+        String display = string(timer, "predictedPhaseDisplay");
+        if (!isDerivedDisplay(display, ordinal)) {
+            intern(table, strings, display);
+        }
+    }
+
+    // ===== ÉCRITURE =====
+
+    private static void writeTimer(ByteArrayOutputStream out, Map<String, Integer> table, String dimension,
+                                   JsonObject timer) {
+        writeString(out, dimension);
+        writeInstant(out, string(timer, "expiresAt"));
+        writeReference(out, table, string(timer, "createdBy"));
+        writeInstant(out, string(timer, "createdAt"));
+        writeVarLong(out, zigzag(number(timer, "initialDurationSeconds", 0)));
+
+        String phase = string(timer, "predictedPhase");
+        int ordinal = phaseOrdinal(phase);
+        if (phase == null) {
+            writeVarLong(out, PHASE_NULL);
+        } else if (ordinal >= 0) {
+            writeVarLong(out, PHASE_ORDINAL_BASE + ordinal);
+        } else {
+            writeVarLong(out, PHASE_STRING);
+            writeVarLong(out, table.get(phase));
+        }
+
+        String display = string(timer, "predictedPhaseDisplay");
+        if (display == null) {
+            writeVarLong(out, DISPLAY_NULL);
+        } else if (isDerivedDisplay(display, ordinal)) {
+            writeVarLong(out, DISPLAY_DERIVED);
+        } else {
+            writeVarLong(out, DISPLAY_TABLE_BASE + table.get(display));
+        }
+    }
+
+    private static void writeReference(ByteArrayOutputStream out, Map<String, Integer> table, String value) {
+        writeVarLong(out, value == null ? 0 : table.get(value) + 1);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInstant(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, INSTANT_NULL);
+            return;
+        }
+        Instant instant = parseExact(value);
+        if (instant == null) {
+            writeVarLong(out, INSTANT_TEXT);
+            writeString(out, value);
+        } else if (instant.getNano() == 0) {
+            writeVarLong(out, INSTANT_SECONDS);
+            writeVarLong(out, zigzag(instant.getEpochSecond()));
+        } else {
+            writeVarLong(out, INSTANT_NANOS);
+            writeVarLong(out, zigzag(instant.getEpochSecond()));
+            writeVarLong(out, instant.getNano());
+        }
+    }
+
+    private static Instant parseExact(String value) {
+        try {
+            Instant instant = Instant.parse(value);
+            return instant.toString().equals(value) ? instant : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // ===== LECTURE =====
+
+    private static String readReference(ByteArrayInputStream in, String[] strings) throws IOException {
+        long reference = readVarLong(in);
+        return reference == 0 ? null : strings[checkIndex(reference - 1, strings)];
+    }
+
+    private static int checkIndex(long index, String[] strings) throws IOException {
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Référence hors table: " + index);
+        }
+        return (int) index;
+    }
+
+    private static String readString(ByteArrayInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) return null;
+        if (length - 1 > MAX_STRING_BYTES) {
+            throw new IOException("Chaîne trop longue: " + (length - 1));
+        }
+        byte[] bytes = in.readNBytes((int) (length - 1));
+        if (bytes.length != length - 1) {
+            throw new EOFException();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readInstant(ByteArrayInputStream in) throws IOException {
+        long kind = readVarLong(in);
+        switch ((int) kind) {
+            case INSTANT_NULL:
+                return null;
+            case INSTANT_TEXT:
+                return readString(in);
+            case INSTANT_SECONDS:
+                return Instant.ofEpochSecond(unzigzag(readVarLong(in))).toString();
+            case INSTANT_NANOS:
+                long seconds = unzigzag(readVarLong(in));
+                return Instant.ofEpochSecond(seconds, readVarLong(in)).toString();
+            default:
+                throw new IOException("Type d'instant inconnu: " + kind);
+        }
+    }
+
+    private static int readCount(ByteArrayInputStream in) throws IOException {
+        long count = readVarLong(in);
+        if (count > MAX_ENTRIES) {
+            throw new IOException("Nombre d'entrées invalide: " + count);
+        }
+        return (int) count;
+    }
+
+    private static int readByte(ByteArrayInputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static long readVarLong(ByteArrayInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Varint trop long");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.aureltimer.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * ✅ STORE DISQUE - backend auto-hébergé
+ *
+ * Écriture atomique : fichier temporaire puis rename, un crash pendant la
+ * sauvegarde laisse toujours le document précédent intact.
+ */
+public class FileTimerStore implements TimerStore {
+
+    private final Path file;
+    private final Path tempFile;
+
+    public FileTimerStore(Path file) {
+        this.file = file.toAbsolutePath();
+        this.tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    }
+
+    @Override
+    public byte[] load() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    public void save(byte[] document) throws IOException {
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(tempFile, document);
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Système de fichiers sans rename atomique
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "fichier " + file;
+    }
+}
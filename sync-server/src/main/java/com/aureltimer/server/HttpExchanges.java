@@ -0,0 +1,216 @@
+package com.aureltimer.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ✅ UTILITAIRES HTTP DU SERVEUR
+ *
+ * Lecture des corps (gzip/deflate, taille bornée, JSON ou binaire) et envoi des
+ * réponses avec compression négociée via Accept-Encoding et format via Accept.
+ */
+final class HttpExchanges {
+
+    // Même seuil que le client : en dessous, gzip ne fait rien gagner
+    static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private HttpExchanges() {}
+
+    /**
+     * Erreur client à renvoyer telle quelle (code + message)
+     */
+    static final class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Lit le corps de la requête en le décompressant selon Content-Encoding
+     */
+    static byte[] readBody(HttpExchange exchange, int maxBytes) throws IOException, HttpError {
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        InputStream body = exchange.getRequestBody();
+        if (encoding != null) {
+            switch (encoding.trim().toLowerCase()) {
+                case "gzip":
+                case "x-gzip":
+                    body = new GZIPInputStream(body);
+                    break;
+                case "deflate":
+                    body = new InflaterInputStream(body);
+                    break;
+                case "identity":
+                    break;
+                default:
+                    throw new HttpError(415, "Content-Encoding non supporté: " + encoding);
+            }
+        }
+
+        try (InputStream in = body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (out.size() + read > maxBytes) {
+                    throw new HttpError(413, "Corps trop volumineux (max " + maxBytes + " octets)");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Vérifie "Authorization: Bearer <token>" (null = tout token non vide accepté)
+     */
+    static void requireWriteToken(HttpExchange exchange, String writeToken) throws HttpError {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        boolean authorized = false;
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            String token = authorization.substring(7).trim();
+            authorized = writeToken == null
+                ? !token.isEmpty()
+                : MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), writeToken.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!authorized) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            throw new HttpError(401, "Token d'écriture invalide");
+        }
+    }
+
+    /**
+     * Lit un corps JSON qui doit être un objet (ou un document au format binaire)
+     */
+    static JsonObject readJsonObject(HttpExchange exchange, int maxBytes) throws IOException, HttpError {
+        byte[] body = readBody(exchange, maxBytes);
+        if (BinaryTimerFormat.isBinary(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+            return BinaryTimerFormat.decode(body);
+        }
+        try {
+            JsonElement element = JsonParser.parseString(new String(body, StandardCharsets.UTF_8));
+            if (element.isJsonObject()) {
+                return element.getAsJsonObject();
+            }
+        } catch (Exception e) {
+            // Traité ci-dessous
+        }
+        throw new HttpError(400, "Corps JSON objet attendu");
+    }
+
+    /**
+     * Réponse conditionnelle : 304 si If-None-Match correspond, sinon le corps avec son ETag
+     */
+    static void sendConditional(HttpExchange exchange, String etag, byte[] body) throws IOException {
+        sendConditional(exchange, etag, body, null);
+    }
+
+    /**
+     * Variante avec représentation binaire, servie si le client la demande (Accept).
+     * Même ETag pour les deux formats : il identifie la version du document,
+     * c'est lui que les écritures renvoient en If-Match.
+     */
+    static void sendConditional(HttpExchange exchange, String etag, byte[] body, byte[] binaryBody) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && TimerDocumentService.normalizeEtag(ifNoneMatch)
+                .equals(TimerDocumentService.normalizeEtag(etag))) {
+            sendEmpty(exchange, 304);
+            return;
+        }
+        sendDocument(exchange, body, binaryBody);
+    }
+
+    /**
+     * Document complet en binaire si Accept le demande, en JSON sinon
+     */
+    static void sendDocument(HttpExchange exchange, byte[] body, byte[] binaryBody) throws IOException {
+        if (binaryBody == null) {
+            send(exchange, 200, "application/json; charset=utf-8", body);
+            return;
+        }
+        exchange.getResponseHeaders().add("Vary", "Accept");
+        if (acceptsBinary(exchange)) {
+            send(exchange, 200, BinaryTimerFormat.CONTENT_TYPE, binaryBody);
+        } else {
+            send(exchange, 200, "application/json; charset=utf-8", body);
+        }
+    }
+
+    static String jsonString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Envoie un corps, compressé en gzip si le client l'accepte et que ça vaut le coup
+     */
+    static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        byte[] payload = body;
+        if (body.length >= COMPRESSION_THRESHOLD_BYTES && acceptsGzip(exchange)) {
+            payload = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Réponse sans corps (304, 204...)
+     */
+    static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, "{\"success\":false,\"error\":" + jsonString(message) + "}");
+    }
+
+    private static boolean acceptsBinary(HttpExchange exchange) {
+        return BinaryTimerFormat.isAccepted(exchange.getRequestHeaders().getFirst("Accept"));
+    }
+
+    private static boolean acceptsGzip(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,24 @@
+package com.aureltimer.server;
+
+/**
+ * ✅ STORE MÉMOIRE - tests de charge et développement (rien ne survit au redémarrage)
+ */
+public class InMemoryTimerStore implements TimerStore {
+
+    private volatile byte[] document;
+
+    @Override
+    public byte[] load() {
+        return document;
+    }
+
+    @Override
+    public void save(byte[] document) {
+        this.document = document;
+    }
+
+    @Override
+    public String describe() {
+        return "mémoire";
+    }
+}
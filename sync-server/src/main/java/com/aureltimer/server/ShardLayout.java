@@ -0,0 +1,26 @@
+package com.aureltimer.server;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ✅ RÉPARTITION DES DIMENSIONS EN SHARDS
+ *
+ * FNV-1a 32 bits du nom de dimension (UTF-8) modulo le nombre de shards.
+ * Doit rester identique à com.aureltimer.sync.TimerShards côté mod.
+ */
+final class ShardLayout {
+
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private ShardLayout() {}
+
+    static int shardOf(String dimensionName, int shardCount) {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : dimensionName.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        return Integer.remainderUnsigned(hash, shardCount);
+    }
+}
@@ -0,0 +1,162 @@
+package com.aureltimer.server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ✅ SERVEUR DE SYNC DE RÉFÉRENCE
+ *
+ * Remplaçant local du Worker Cloudflare, même protocole que CloudflareClient :
+ *   GET/POST/PATCH /timer_sync.json          (ETag, 304, 412, ?since=N, gzip)
+ *   GET            /timer_sync/events        (SSE)
+ *   GET            /timer_sync/manifest.json (ETag de chaque shard)
+ *   GET/POST       /timer_sync/shards/{i}.json
+ *
+ * Un virtual thread par requête : des milliers de clients (polls + flux SSE
+ * ouverts) sans pool à dimensionner. Sert aux tests de charge comme de backend
+ * auto-hébergé.
+ *
+ * Usage : java -jar sync-server.jar [--port 8787] [--host 0.0.0.0] [--data timer_sync.json] [--token xxx] [--shards 8]
+ * Variables d'environnement équivalentes : AURELTIMER_SYNC_PORT, _HOST, _DATA, _TOKEN, _SHARDS.
+ * Côté mod : -Daureltimer.sync.url=http://localhost:8787
+ */
+public class SyncServer implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncServer.class);
+
+    public static final String TIMERS_PATH = "/timer_sync.json";
+    public static final String EVENTS_PATH = "/timer_sync/events";
+    private static final int DEFAULT_PORT = 8787;
+    public static final int DEFAULT_SHARDS = 8;
+    private static final int BACKLOG = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TimerDocumentService service;
+    private final TimerSyncHandler syncHandler;
+    private final TimerEventsHandler eventsHandler;
+    private final TimerShardHandler shardHandler;
+
+    private SyncServer(HttpServer server, ExecutorService executor, TimerDocumentService service,
+                       TimerSyncHandler syncHandler, TimerEventsHandler eventsHandler, TimerShardHandler shardHandler) {
+        this.server = server;
+        this.executor = executor;
+        this.service = service;
+        this.syncHandler = syncHandler;
+        this.eventsHandler = eventsHandler;
+        this.shardHandler = shardHandler;
+    }
+
+    /**
+     * Démarre un serveur (port 0 = port libre choisi par le système)
+     *
+     * @param writeToken token Bearer des écritures, null = tout token non vide accepté
+     */
+    public static SyncServer start(String host, int port, TimerStore store, String writeToken) throws IOException {
+        return start(host, port, store, writeToken, DEFAULT_SHARDS);
+    }
+
+    public static SyncServer start(String host, int port, TimerStore store, String writeToken, int shards) throws IOException {
+        TimerDocumentService service = new TimerDocumentService(store, shards);
+        TimerSyncHandler syncHandler = new TimerSyncHandler(service, writeToken);
+        TimerEventsHandler eventsHandler = new TimerEventsHandler(service);
+        TimerShardHandler shardHandler = new TimerShardHandler(service, writeToken);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(host, port), BACKLOG);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(TIMERS_PATH, syncHandler);
+        server.createContext(EVENTS_PATH, eventsHandler);
+        server.createContext(TimerShardHandler.MANIFEST_PATH, shardHandler);
+        server.createContext(TimerShardHandler.SHARDS_PATH, shardHandler);
+        server.start();
+
+        LOGGER.info("🚀 Serveur de sync démarré sur http://{}:{} - store: {}, écriture: {}",
+            host, server.getAddress().getPort(), store.describe(),
+            writeToken != null ? "token requis" : "tout token Bearer accepté");
+        return new SyncServer(server, executor, service, syncHandler, eventsHandler, shardHandler);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    public TimerDocumentService getService() {
+        return service;
+    }
+
+    /**
+     * Requêtes reçues depuis le démarrage (document + connexions SSE)
+     */
+    public long getRequestCount() {
+        return syncHandler.getRequestCount() + eventsHandler.getConnectionCount() + shardHandler.getRequestCount();
+    }
+
+    public long getWriteCount() {
+        return syncHandler.getWriteCount() + shardHandler.getWriteCount();
+    }
+
+    public long getPreconditionFailureCount() {
+        return syncHandler.getPreconditionFailureCount() + shardHandler.getPreconditionFailureCount();
+    }
+
+    /**
+     * Métriques de debug
+     */
+    public String getDebugMetrics() {
+        return String.format("%s, sse[abonnés=%d], seq=%d",
+            syncHandler.getDebugMetrics(), service.getSubscriberCount(), service.current().seq);
+    }
+
+    @Override
+    public void close() {
+        eventsHandler.close();
+        server.stop(1);
+        executor.shutdownNow();
+        LOGGER.info("🛑 Serveur de sync arrêté - {}", getDebugMetrics());
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = env("AURELTIMER_SYNC_HOST", "0.0.0.0");
+        int port = Integer.parseInt(env("AURELTIMER_SYNC_PORT", Integer.toString(DEFAULT_PORT)));
+        String data = env("AURELTIMER_SYNC_DATA", null);
+        String token = env("AURELTIMER_SYNC_TOKEN", null);
+        int shards = Integer.parseInt(env("AURELTIMER_SYNC_SHARDS", Integer.toString(DEFAULT_SHARDS)));
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--host": host = args[i + 1]; break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--data": data = args[i + 1]; break;
+                case "--token": token = args[i + 1]; break;
+                case "--shards": shards = Integer.parseInt(args[i + 1]); break;
+                default:
+                    System.err.println("Option inconnue: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        if (token == null) {
+            LOGGER.warn("⚠️ Aucun token d'écriture configuré (--token) - ne pas exposer ce serveur publiquement");
+        }
+
+        TimerStore store = data != null ? new FileTimerStore(Path.of(data)) : new InMemoryTimerStore();
+        SyncServer server = start(host, port, store, token, shards);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "AurelTimer-SyncServer-Shutdown"));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}
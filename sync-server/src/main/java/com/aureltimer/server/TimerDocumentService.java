@@ -0,0 +1,721 @@
+package com.aureltimer.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ✅ DOCUMENT TIMER_SYNC CÔTÉ SERVEUR
+ *
+ * Source de vérité unique du serveur de référence :
+ * - Snapshot immuable (corps JSON compact + binaire + ETag) publié après chaque
+ *   écriture, les GET le lisent sans verrou
+ * - Écritures sérialisées (POST complet ou PATCH merge-patch) avec If-Match
+ * - Numéro de séquence incrémenté à chaque écriture + historique borné des
+ *   changements par dimension pour GET ?since=N et le rejeu SSE (Last-Event-ID)
+ * - Projection en shards (dimensions réparties par hash) publiée avec chaque
+ *   snapshot : ETag par shard, manifeste, écriture d'un shard avec If-Match sur son ETag
+ * - Tombstones versionnées ("deleted" : dernière version supprimée par dimension),
+ *   publiées dans le document, les shards, les deltas et les événements : un client
+ *   ne supprime que les versions plus anciennes ou égales, jamais un timer plus récent
+ *
+ * ReentrantLock plutôt que synchronized : pas d'épinglage des virtual threads.
+ */
+public class TimerDocumentService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerDocumentService.class);
+
+    // Configuration
+    private static final int MAX_WRITE_HISTORY = 512;
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 256;
+
+    private static final Gson GSON = new Gson();
+    // serializeNulls : les suppressions d'un delta sont des "dimension": null
+    private static final Gson PATCH_GSON = new GsonBuilder().serializeNulls().create();
+
+    /**
+     * Version publiée du document (immuable)
+     */
+    public static final class Snapshot {
+        public final String etag;
+        public final byte[] body;
+        public final byte[] binaryBody;
+        public final long seq;
+        public final String[] shardEtags;
+        public final byte[][] shardBodies;
+        public final byte[][] shardBinaryBodies;
+        public final String manifestEtag;
+        public final byte[] manifestBody;
+
+        Snapshot(String etag, byte[] body, byte[] binaryBody, long seq, String[] shardEtags, byte[][] shardBodies,
+                 byte[][] shardBinaryBodies, String manifestEtag, byte[] manifestBody) {
+            this.etag = etag;
+            this.body = body;
+            this.binaryBody = binaryBody;
+            this.seq = seq;
+            this.shardEtags = shardEtags;
+            this.shardBodies = shardBodies;
+            this.shardBinaryBodies = shardBinaryBodies;
+            this.manifestEtag = manifestEtag;
+            this.manifestBody = manifestBody;
+        }
+    }
+
+    /**
+     * Résultat d'une écriture
+     */
+    public static final class WriteResult {
+        public final boolean preconditionFailed;
+        public final String etag;
+        public final long seq;
+        public final int changedDimensions;
+
+        WriteResult(boolean preconditionFailed, String etag, long seq, int changedDimensions) {
+            this.preconditionFailed = preconditionFailed;
+            this.etag = etag;
+            this.seq = seq;
+            this.changedDimensions = changedDimensions;
+        }
+    }
+
+    /**
+     * Delta merge-patch et ETag de la version qu'il produit (cohérents entre eux)
+     */
+    public static final class Delta {
+        public final String json;
+        public final String etag;
+
+        Delta(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Abonné au flux SSE : file bornée d'événements déjà formatés
+     */
+    public static final class Subscriber {
+        private final BlockingQueue<String> events = new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private volatile boolean overflowed = false;
+
+        /**
+         * Prochain événement, ou null après le délai (keep-alive à envoyer)
+         */
+        public String poll(long timeoutMs) throws InterruptedException {
+            return events.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Abonné trop lent : le flux doit être fermé, le client se reconnectera
+         * avec Last-Event-ID et rattrapera via l'historique
+         */
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        private void offer(String event) {
+            if (!events.offer(event)) {
+                overflowed = true;
+            }
+        }
+    }
+
+    /**
+     * Changements d'une écriture (null = dimension supprimée) et version supprimée
+     * des dimensions à null
+     */
+    private static final class WriteRecord {
+        final long seq;
+        final Map<String, JsonElement> changes;
+        final Map<String, JsonElement> deleted;
+
+        WriteRecord(long seq, Map<String, JsonElement> changes, Map<String, JsonElement> deleted) {
+            this.seq = seq;
+            this.changes = changes;
+            this.deleted = deleted;
+        }
+    }
+
+    private final TimerStore store;
+    private final int shardCount;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ArrayDeque<WriteRecord> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private JsonObject document;
+    private volatile Snapshot snapshot;
+    // Les deltas ne peuvent être reconstruits qu'à partir de ce seq
+    private long historyFloor;
+
+    public TimerDocumentService(TimerStore store, int shardCount) throws IOException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount doit être >= 1");
+        }
+        this.store = store;
+        this.shardCount = shardCount;
+
+        byte[] persisted = store.load();
+        JsonObject loaded = null;
+        if (persisted != null) {
+            try {
+                loaded = JsonParser.parseString(new String(persisted, StandardCharsets.UTF_8)).getAsJsonObject();
+            } catch (Exception e) {
+                LOGGER.warn("⚠️ Document persisté illisible - démarrage sur un document vide: {}", e.getMessage());
+            }
+        }
+        this.document = loaded != null ? loaded : createEmptyDocument();
+        if (!this.document.has("timers") || !this.document.get("timers").isJsonObject()) {
+            this.document.add("timers", new JsonObject());
+        }
+
+        long seq = this.document.has("seq") ? this.document.get("seq").getAsLong() : 0;
+        this.document.addProperty("seq", seq);
+        this.historyFloor = seq;
+        this.snapshot = publish(this.document, seq);
+
+        LOGGER.info("📂 Document chargé ({}) - {} timers, seq {}, {} shards, ETag {}",
+            store.describe(), timers(this.document).size(), seq, shardCount, snapshot.etag);
+    }
+
+    /**
+     * Version courante - lecture sans verrou
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Delta merge-patch des changements après le curseur, ou null si l'historique
+     * ne remonte pas jusque-là (le client reçoit alors le document complet)
+     */
+    public Delta changesSince(long since) {
+        writeLock.lock();
+        try {
+            long seq = snapshot.seq;
+            if (since < historyFloor || since > seq) {
+                return null;
+            }
+            Map<String, JsonElement> merged = new LinkedHashMap<>();
+            Map<String, JsonElement> deleted = new LinkedHashMap<>();
+            for (WriteRecord record : history) {
+                if (record.seq > since) {
+                    merged.putAll(record.changes);
+                    deleted.putAll(record.deleted);
+                }
+            }
+            return new Delta(toPatchJson(merged, deleted, seq), snapshot.etag);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * POST : remplacement complet du document
+     */
+    public WriteResult replace(JsonObject newDocument, String ifMatch) throws IOException {
+        writeLock.lock();
+        try {
+            if (!matches(ifMatch)) {
+                return new WriteResult(true, snapshot.etag, snapshot.seq, 0);
+            }
+            JsonObject next = newDocument.deepCopy();
+            // L'ETag est porté par le header, jamais par le document
+            next.remove("etag");
+            if (!next.has("timers") || !next.get("timers").isJsonObject()) {
+                next.add("timers", new JsonObject());
+            }
+            return commit(next);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * PATCH : JSON merge-patch (RFC 7396) appliqué sur la dernière version. Les timers
+     * sont arbitrés dimension par dimension : une version n'est écrite que si elle gagne
+     * (createdAt le plus récent, puis createdBy, puis expiresAt) contre l'entrée
+     * courante et contre la tombstone de la dimension. Un client en retard ne peut
+     * donc pas écraser un timer plus récent, même sans If-Match.
+     */
+    public WriteResult patch(JsonObject mergePatch, String ifMatch) throws IOException {
+        writeLock.lock();
+        try {
+            if (!matches(ifMatch)) {
+                return new WriteResult(true, snapshot.etag, snapshot.seq, 0);
+            }
+            JsonObject next = document.deepCopy();
+            JsonObject rest = mergePatch.deepCopy();
+            JsonElement timersPatch = rest.remove("timers");
+            JsonElement deletedPatch = rest.remove("deleted");
+            applyMergePatch(next, rest);
+            if (!next.has("timers") || !next.get("timers").isJsonObject()) {
+                next.add("timers", new JsonObject());
+            }
+
+            if (deletedPatch != null && deletedPatch.isJsonObject()) {
+                JsonObject nextDeleted = deleted(next);
+                for (Map.Entry<String, JsonElement> entry : deletedPatch.getAsJsonObject().entrySet()) {
+                    keepNewest(nextDeleted, entry.getKey(), entry.getValue());
+                }
+            }
+            if (timersPatch != null && timersPatch.isJsonObject()) {
+                int rejected = applyTimersPatch(next, timersPatch.getAsJsonObject(),
+                    deletedPatch != null && deletedPatch.isJsonObject() ? deletedPatch.getAsJsonObject() : new JsonObject());
+                if (rejected > 0) {
+                    LOGGER.debug("🔀 PATCH : {} dimension(s) ignorée(s), version plus ancienne que le serveur", rejected);
+                }
+            } else if (timersPatch != null) {
+                applyMergePatch(next, patchOf("timers", timersPatch));
+                if (!next.has("timers") || !next.get("timers").isJsonObject()) {
+                    next.add("timers", new JsonObject());
+                }
+            }
+            return commit(next);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * POST d'un shard : remplace les timers du shard, If-Match sur l'ETag du shard.
+     * Les écritures sur des shards différents ne se bloquent jamais par 412.
+     */
+    public WriteResult replaceShard(int shard, JsonObject shardDocument, String ifMatch) throws IOException {
+        writeLock.lock();
+        try {
+            String shardEtag = snapshot.shardEtags[shard];
+            if (!matches(ifMatch, shardEtag)) {
+                return new WriteResult(true, shardEtag, snapshot.seq, 0);
+            }
+
+            JsonObject next = document.deepCopy();
+            JsonObject nextTimers = timers(next);
+            for (String dimension : timers(document).keySet()) {
+                if (ShardLayout.shardOf(dimension, shardCount) == shard) {
+                    nextTimers.remove(dimension);
+                }
+            }
+            JsonElement incoming = shardDocument.get("timers");
+            if (incoming != null && incoming.isJsonObject()) {
+                for (Map.Entry<String, JsonElement> entry : incoming.getAsJsonObject().entrySet()) {
+                    // Une dimension d'un autre shard ne peut pas passer par ce shard
+                    if (ShardLayout.shardOf(entry.getKey(), shardCount) == shard) {
+                        nextTimers.add(entry.getKey(), entry.getValue().deepCopy());
+                    }
+                }
+            }
+            // Tombstones du shard envoyées par le client : réconciliées (max) dans commit
+            JsonElement incomingDeleted = shardDocument.get("deleted");
+            if (incomingDeleted != null && incomingDeleted.isJsonObject()) {
+                JsonObject nextDeleted = deleted(next);
+                for (Map.Entry<String, JsonElement> entry : incomingDeleted.getAsJsonObject().entrySet()) {
+                    if (ShardLayout.shardOf(entry.getKey(), shardCount) == shard) {
+                        keepNewest(nextDeleted, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            WriteResult result = commit(next);
+            return new WriteResult(false, snapshot.shardEtags[shard], result.seq, result.changedDimensions);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Abonnement au flux : rejoue les changements après lastEventId puis reçoit
+     * les suivants, sans trou possible (inscription sous le verrou d'écriture)
+     */
+    public Subscriber subscribe(long lastEventId) {
+        Subscriber subscriber = new Subscriber();
+        writeLock.lock();
+        try {
+            if (lastEventId > 0 && lastEventId >= historyFloor) {
+                for (WriteRecord record : history) {
+                    if (record.seq > lastEventId) {
+                        subscriber.offer(formatEvent(record));
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            writeLock.unlock();
+        }
+        return subscriber;
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Appelé sous writeLock
+    private WriteResult commit(JsonObject next) throws IOException {
+        reconcileTombstones(document, next);
+        Map<String, JsonElement> changes = diffTimers(timers(document), timers(next));
+        Map<String, JsonElement> deletedVersions = new LinkedHashMap<>();
+        JsonObject tombstones = deleted(next);
+        changes.forEach((dimension, value) -> {
+            if (value.isJsonNull() && tombstones.has(dimension)) {
+                deletedVersions.put(dimension, tombstones.get(dimension));
+            }
+        });
+        if (tombstones.size() == 0) {
+            next.remove("deleted");
+        }
+
+        long seq = snapshot.seq + 1;
+        next.addProperty("seq", seq);
+        next.addProperty("lastUpdated", Instant.now().toString());
+
+        // Persister avant de publier : une écriture non sauvegardée n'est jamais visible
+        Snapshot published = publish(next, seq);
+        store.save(published.body);
+
+        document = next;
+        snapshot = published;
+
+        WriteRecord record = new WriteRecord(seq, changes, deletedVersions);
+        history.addLast(record);
+        while (history.size() > MAX_WRITE_HISTORY) {
+            historyFloor = history.pollFirst().seq;
+        }
+
+        if (!changes.isEmpty()) {
+            String event = formatEvent(record);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+
+        LOGGER.debug("💾 Écriture seq {} - {} dimension(s) modifiée(s), ETag {}", seq, changes.size(), published.etag);
+        return new WriteResult(false, published.etag, seq, changes.size());
+    }
+
+    private boolean matches(String ifMatch) {
+        return matches(ifMatch, snapshot.etag);
+    }
+
+    private static boolean matches(String ifMatch, String etag) {
+        if (ifMatch == null || ifMatch.isEmpty() || "*".equals(ifMatch.trim())) {
+            return true;
+        }
+        return normalizeEtag(ifMatch).equals(normalizeEtag(etag));
+    }
+
+    /**
+     * Compare les ETags sans préfixe faible ni guillemets
+     */
+    public static String normalizeEtag(String etag) {
+        String value = etag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private Snapshot publish(JsonObject document, long seq) {
+        byte[] body = GSON.toJson(document).getBytes(StandardCharsets.UTF_8);
+
+        // Projection en shards : {"shard": i, "timers": {...}}
+        JsonObject[] shardTimers = new JsonObject[shardCount];
+        JsonObject[] shardDeleted = new JsonObject[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardTimers[shard] = new JsonObject();
+            shardDeleted[shard] = new JsonObject();
+        }
+        for (Map.Entry<String, JsonElement> entry : timers(document).entrySet()) {
+            shardTimers[ShardLayout.shardOf(entry.getKey(), shardCount)].add(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, JsonElement> entry : tombstonesOf(document).entrySet()) {
+            shardDeleted[ShardLayout.shardOf(entry.getKey(), shardCount)].add(entry.getKey(), entry.getValue());
+        }
+
+        String[] shardEtags = new String[shardCount];
+        byte[][] shardBodies = new byte[shardCount][];
+        byte[][] shardBinaryBodies = new byte[shardCount][];
+        JsonArray manifestShards = new JsonArray();
+        for (int shard = 0; shard < shardCount; shard++) {
+            JsonObject shardDocument = new JsonObject();
+            shardDocument.addProperty("shard", shard);
+            shardDocument.add("timers", shardTimers[shard]);
+            if (shardDeleted[shard].size() > 0) {
+                shardDocument.add("deleted", shardDeleted[shard]);
+            }
+            shardBodies[shard] = GSON.toJson(shardDocument).getBytes(StandardCharsets.UTF_8);
+            shardBinaryBodies[shard] = BinaryTimerFormat.encode(shardDocument);
+            shardEtags[shard] = computeEtag(shardBodies[shard]);
+            manifestShards.add(shardEtags[shard]);
+        }
+
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("seq", seq);
+        manifest.addProperty("shardCount", shardCount);
+        manifest.add("shards", manifestShards);
+        byte[] manifestBody = GSON.toJson(manifest).getBytes(StandardCharsets.UTF_8);
+
+        return new Snapshot(computeEtag(body), body, BinaryTimerFormat.encode(document), seq,
+            shardEtags, shardBodies, shardBinaryBodies, computeEtag(manifestBody), manifestBody);
+    }
+
+    /**
+     * ETag fort : empreinte SHA-256 du corps exact servi
+     */
+    private static String computeEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static Map<String, JsonElement> diffTimers(JsonObject before, JsonObject after) {
+        Map<String, JsonElement> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : after.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                changes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String dimension : before.keySet()) {
+            if (!after.has(dimension)) {
+                changes.put(dimension, JsonNull.INSTANCE);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Timers d'un PATCH, arbitrés par dimension. Une suppression accompagnée de sa
+     * version ("deleted") ne retire qu'une entrée plus ancienne ou égale ; sans
+     * version (client ancien) elle s'applique telle quelle.
+     *
+     * @return nombre de dimensions ignorées
+     */
+    private static int applyTimersPatch(JsonObject next, JsonObject timersPatch, JsonObject deletedVersions) {
+        JsonObject nextTimers = timers(next);
+        JsonObject tombstones = tombstonesOf(next);
+        int rejected = 0;
+        for (Map.Entry<String, JsonElement> entry : timersPatch.entrySet()) {
+            String dimension = entry.getKey();
+            JsonElement version = entry.getValue();
+            JsonElement current = nextTimers.get(dimension);
+            if (version.isJsonNull()) {
+                JsonElement deletedVersion = deletedVersions.get(dimension);
+                if (current != null && (deletedVersion == null || compareTimers(current, deletedVersion) <= 0)) {
+                    nextTimers.remove(dimension);
+                } else if (current != null) {
+                    rejected++;
+                }
+            } else if (!version.isJsonObject()) {
+                rejected++;
+            } else if ((current == null || compareTimers(version, current) > 0)
+                    && (!tombstones.has(dimension) || compareTimers(version, tombstones.get(dimension)) > 0)) {
+                nextTimers.add(dimension, version.deepCopy());
+            } else {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    private static JsonObject patchOf(String name, JsonElement value) {
+        JsonObject patch = new JsonObject();
+        patch.add(name, value);
+        return patch;
+    }
+
+    private static void applyMergePatch(JsonObject target, JsonObject patch) {
+        for (Map.Entry<String, JsonElement> entry : patch.entrySet()) {
+            String key = entry.getKey();
+            JsonElement value = entry.getValue();
+            if (value.isJsonNull()) {
+                target.remove(key);
+            } else if (value.isJsonObject() && target.has(key) && target.get(key).isJsonObject()) {
+                applyMergePatch(target.getAsJsonObject(key), value.getAsJsonObject());
+            } else {
+                target.add(key, value.deepCopy());
+            }
+        }
+    }
+
+    private static String toPatchJson(Map<String, JsonElement> changes, Map<String, JsonElement> deleted, long seq) {
+        JsonObject timersPatch = new JsonObject();
+        JsonObject deletedPatch = new JsonObject();
+        changes.forEach((dimension, value) -> {
+            timersPatch.add(dimension, value);
+            if (value.isJsonNull() && deleted.containsKey(dimension)) {
+                deletedPatch.add(dimension, deleted.get(dimension));
+            }
+        });
+        JsonObject patch = new JsonObject();
+        patch.addProperty("seq", seq);
+        patch.add("timers", timersPatch);
+        if (deletedPatch.size() > 0) {
+            patch.add("deleted", deletedPatch);
+        }
+        return PATCH_GSON.toJson(patch);
+    }
+
+    private static String formatEvent(WriteRecord record) {
+        return "event: change\nid: " + record.seq + "\ndata: " + toPatchJson(record.changes, record.deleted, record.seq) + "\n\n";
+    }
+
+    /**
+     * Tombstones de la prochaine version : max (ordre des timers) des tombstones
+     * existantes, de celles reçues et des versions retirées par l'écriture. Une
+     * version reçue déjà supprimée ne revient pas ; les tombstones expirées depuis
+     * plus de ttlMinutes ou dépassées par un timer vivant sont oubliées.
+     */
+    private static void reconcileTombstones(JsonObject previous, JsonObject next) {
+        JsonObject tombstones = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : tombstonesOf(previous).entrySet()) {
+            keepNewest(tombstones, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, JsonElement> entry : tombstonesOf(next).entrySet()) {
+            keepNewest(tombstones, entry.getKey(), entry.getValue());
+        }
+        JsonObject nextTimers = timers(next);
+        for (Map.Entry<String, JsonElement> entry : timers(previous).entrySet()) {
+            if (!nextTimers.has(entry.getKey())) {
+                keepNewest(tombstones, entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (String dimension : new ArrayList<>(nextTimers.keySet())) {
+            JsonElement tombstone = tombstones.get(dimension);
+            if (tombstone != null && compareTimers(nextTimers.get(dimension), tombstone) <= 0) {
+                nextTimers.remove(dimension);
+            }
+        }
+
+        JsonElement ttl = next.get("ttlMinutes");
+        Instant horizon = Instant.now().minus(Duration.ofMinutes(
+            ttl != null && ttl.isJsonPrimitive() && ttl.getAsJsonPrimitive().isNumber() ? Math.max(ttl.getAsLong(), 0) : 60));
+        for (String dimension : new ArrayList<>(tombstones.keySet())) {
+            JsonElement tombstone = tombstones.get(dimension);
+            Instant expiresAt = instant(tombstone, "expiresAt");
+            JsonElement live = nextTimers.get(dimension);
+            if (expiresAt == null || !expiresAt.isAfter(horizon)
+                    || (live != null && compareTimers(live, tombstone) > 0)) {
+                tombstones.remove(dimension);
+            }
+        }
+        next.add("deleted", tombstones);
+    }
+
+    private static void keepNewest(JsonObject tombstones, String dimension, JsonElement candidate) {
+        if (candidate == null || !candidate.isJsonObject()) return;
+        JsonElement known = tombstones.get(dimension);
+        if (known == null || compareTimers(candidate, known) > 0) {
+            tombstones.add(dimension, candidate.deepCopy());
+        }
+    }
+
+    /**
+     * Ordre total entre deux versions d'un timer (>0 si a gagne) : createdAt, puis
+     * createdBy, puis expiresAt - même règle que TimerMergeEngine côté mod
+     */
+    static int compareTimers(JsonElement a, JsonElement b) {
+        int byCreatedAt = compareInstants(field(a, "createdAt"), field(b, "createdAt"));
+        if (byCreatedAt != 0) return byCreatedAt;
+
+        int byCreator = compareNullable(field(a, "createdBy"), field(b, "createdBy"));
+        if (byCreator != 0) return byCreator;
+
+        return compareInstants(field(a, "expiresAt"), field(b, "expiresAt"));
+    }
+
+    private static int compareInstants(String a, String b) {
+        if (Objects.equals(a, b)) return 0;
+        try {
+            return Instant.parse(a).compareTo(Instant.parse(b));
+        } catch (Exception e) {
+            return compareNullable(a, b);
+        }
+    }
+
+    private static int compareNullable(String a, String b) {
+        if (Objects.equals(a, b)) return 0;
+        if (a == null) return -1;
+        if (b == null) return 1;
+        return a.compareTo(b);
+    }
+
+    private static String field(JsonElement timer, String name) {
+        if (timer == null || !timer.isJsonObject()) return null;
+        JsonElement value = timer.getAsJsonObject().get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private static Instant instant(JsonElement timer, String name) {
+        try {
+            String value = field(timer, name);
+            return value != null ? Instant.parse(value) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static JsonObject timers(JsonObject document) {
+        return document.getAsJsonObject("timers");
+    }
+
+    private static JsonObject tombstonesOf(JsonObject document) {
+        JsonElement value = document.get("deleted");
+        return value != null && value.isJsonObject() ? value.getAsJsonObject() : new JsonObject();
+    }
+
+    private static JsonObject deleted(JsonObject document) {
+        JsonElement value = document.get("deleted");
+        if (value == null || !value.isJsonObject()) {
+            value = new JsonObject();
+            document.add("deleted", value);
+        }
+        return value.getAsJsonObject();
+    }
+
+    private static JsonObject createEmptyDocument() {
+        JsonObject document = new JsonObject();
+        document.addProperty("version", "1.0.0");
+        document.addProperty("lastUpdated", Instant.now().toString());
+        document.addProperty("ttlMinutes", 60);
+        document.addProperty("seq", 0);
+        document.add("timers", new JsonObject());
+        return document;
+    }
+}
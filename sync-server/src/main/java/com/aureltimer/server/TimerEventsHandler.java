@@ -0,0 +1,97 @@
+package com.aureltimer.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ ENDPOINT /timer_sync/events (Server-Sent Events)
+ *
+ * Un virtual thread par abonné, bloqué sur sa file d'événements :
+ * - Rejeu des écritures après Last-Event-ID puis push des suivantes
+ * - Commentaire keep-alive toutes les 15s (proxys, détection de coupure)
+ * - Abonné trop lent : flux fermé, le client se reconnecte et rattrape
+ */
+public class TimerEventsHandler implements HttpHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerEventsHandler.class);
+
+    private static final long KEEP_ALIVE_INTERVAL_MS = 15_000;
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final TimerDocumentService service;
+    private volatile boolean closed = false;
+
+    // Métriques
+    private final AtomicLong connections = new AtomicLong(0);
+
+    public TimerEventsHandler(TimerDocumentService service) {
+        this.service = service;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET");
+            HttpExchanges.sendError(exchange, 405, "Méthode non supportée");
+            exchange.close();
+            return;
+        }
+
+        connections.incrementAndGet();
+        TimerDocumentService.Subscriber subscriber = service.subscribe(
+            parseLastEventId(exchange.getRequestHeaders().getFirst("Last-Event-ID")));
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            // Longueur 0 = réponse chunked, ouverte jusqu'à la fermeture
+            exchange.sendResponseHeaders(200, 0);
+            out.write(KEEP_ALIVE);
+            out.flush();
+
+            while (!closed && !subscriber.isOverflowed()) {
+                String event = subscriber.poll(KEEP_ALIVE_INTERVAL_MS);
+                out.write(event != null ? event.getBytes(StandardCharsets.UTF_8) : KEEP_ALIVE);
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.debug("Abonné SSE déconnecté: {}", e.getMessage());
+        } finally {
+            service.unsubscribe(subscriber);
+            exchange.close();
+        }
+    }
+
+    /**
+     * Nombre de connexions SSE ouvertes depuis le démarrage
+     */
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Termine les flux ouverts (arrêt du serveur)
+     */
+    public void close() {
+        closed = true;
+    }
+
+    private static long parseLastEventId(String value) {
+        if (value == null) return 0;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
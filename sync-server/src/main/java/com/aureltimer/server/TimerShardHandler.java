@@ -0,0 +1,131 @@
+package com.aureltimer.server;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ ENDPOINTS DU DOCUMENT DÉCOUPÉ EN SHARDS
+ *
+ * - GET  /timer_sync/manifest.json : ETag de chaque shard (If-None-Match → 304)
+ * - GET  /timer_sync/shards/{i}.json : timers du shard i (If-None-Match → 304)
+ * - POST /timer_sync/shards/{i}.json : remplace les timers du shard, If-Match → 412
+ *   sur l'ETag du shard uniquement
+ */
+public class TimerShardHandler implements HttpHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerShardHandler.class);
+
+    public static final String MANIFEST_PATH = "/timer_sync/manifest.json";
+    public static final String SHARDS_PATH = "/timer_sync/shards/";
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+
+    private final TimerDocumentService service;
+    private final String writeToken;
+
+    // Métriques
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong writes = new AtomicLong(0);
+    private final AtomicLong preconditionFailures = new AtomicLong(0);
+
+    public TimerShardHandler(TimerDocumentService service, String writeToken) {
+        this.service = service;
+        this.writeToken = writeToken;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (MANIFEST_PATH.equals(path)) {
+                if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                    exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                    throw new HttpExchanges.HttpError(405, "Méthode non supportée");
+                }
+                TimerDocumentService.Snapshot snapshot = service.current();
+                HttpExchanges.sendConditional(exchange, snapshot.manifestEtag, snapshot.manifestBody);
+                return;
+            }
+
+            int shard = parseShard(path);
+            switch (method) {
+                case "GET":
+                case "HEAD":
+                    TimerDocumentService.Snapshot snapshot = service.current();
+                    HttpExchanges.sendConditional(exchange, snapshot.shardEtags[shard], snapshot.shardBodies[shard],
+                        snapshot.shardBinaryBodies[shard]);
+                    break;
+                case "POST":
+                    handleWrite(exchange, shard);
+                    break;
+                default:
+                    exchange.getResponseHeaders().set("Allow", "GET, HEAD, POST");
+                    throw new HttpExchanges.HttpError(405, "Méthode non supportée");
+            }
+        } catch (HttpExchanges.HttpError e) {
+            HttpExchanges.sendError(exchange, e.status, e.getMessage());
+        } catch (IOException e) {
+            LOGGER.debug("Client déconnecté pendant la réponse: {}", e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("❌ Erreur interne {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            HttpExchanges.sendError(exchange, 500, "Erreur interne");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleWrite(HttpExchange exchange, int shard) throws Exception {
+        HttpExchanges.requireWriteToken(exchange, writeToken);
+        JsonObject body = HttpExchanges.readJsonObject(exchange, MAX_BODY_BYTES);
+
+        TimerDocumentService.WriteResult result = service.replaceShard(
+            shard, body, exchange.getRequestHeaders().getFirst("If-Match"));
+
+        exchange.getResponseHeaders().set("ETag", result.etag);
+        if (result.preconditionFailed) {
+            preconditionFailures.incrementAndGet();
+            HttpExchanges.sendError(exchange, 412, "Shard modifié depuis la lecture");
+            return;
+        }
+
+        writes.incrementAndGet();
+        HttpExchanges.sendJson(exchange, 200,
+            "{\"success\":true,\"etag\":" + HttpExchanges.jsonString(result.etag) + ",\"seq\":" + result.seq + "}");
+    }
+
+    /**
+     * "/timer_sync/shards/3.json" → 3 (404 si hors plage)
+     */
+    private int parseShard(String path) throws HttpExchanges.HttpError {
+        if (path.startsWith(SHARDS_PATH) && path.endsWith(".json")) {
+            try {
+                int shard = Integer.parseInt(path.substring(SHARDS_PATH.length(), path.length() - 5));
+                if (shard >= 0 && shard < service.getShardCount()) {
+                    return shard;
+                }
+            } catch (NumberFormatException e) {
+                // Traité ci-dessous
+            }
+        }
+        throw new HttpExchanges.HttpError(404, "Shard inconnu");
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getWriteCount() {
+        return writes.get();
+    }
+
+    public long getPreconditionFailureCount() {
+        return preconditionFailures.get();
+    }
+}
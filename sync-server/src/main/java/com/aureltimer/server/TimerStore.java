@@ -0,0 +1,27 @@
+package com.aureltimer.server;
+
+import java.io.IOException;
+
+/**
+ * ✅ STOCKAGE DU DOCUMENT TIMER_SYNC
+ *
+ * Le serveur garde toujours le document courant en mémoire ; le store ne sert
+ * qu'à le recharger au démarrage et à le persister après chaque écriture.
+ */
+public interface TimerStore {
+
+    /**
+     * Charge le dernier document persisté (null si aucun)
+     */
+    byte[] load() throws IOException;
+
+    /**
+     * Persiste le document JSON compact après une écriture acceptée
+     */
+    void save(byte[] document) throws IOException;
+
+    /**
+     * Description pour les logs de démarrage
+     */
+    String describe();
+}
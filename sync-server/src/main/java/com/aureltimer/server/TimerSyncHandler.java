@@ -0,0 +1,173 @@
+package com.aureltimer.server;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ✅ ENDPOINT /timer_sync.json
+ *
+ * Implémentation de référence du protocole attendu par CloudflareClient :
+ * - GET  : ETag fort, If-None-Match → 304, ?since=N → delta + header X-Sync-Since,
+ *          document en binaire compact si Accept le demande
+ * - POST : document complet (JSON ou binaire), If-Match → 412 si la version a changé
+ * - PATCH: JSON merge-patch appliqué atomiquement sur la dernière version ; chaque
+ *          timer n'est écrit que s'il gagne l'ordre des versions (createdAt, puis
+ *          createdBy) contre l'entrée et la tombstone courantes - pas de 412 à gérer
+ * - Écritures protégées par "Authorization: Bearer <token>"
+ */
+public class TimerSyncHandler implements HttpHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerSyncHandler.class);
+
+    // Configuration
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final String SINCE_HEADER = "X-Sync-Since";
+    private static final String MERGE_PATCH_TYPE = "application/merge-patch+json";
+
+    private final TimerDocumentService service;
+    private final String writeToken;
+
+    // Métriques
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong fullReads = new AtomicLong(0);
+    private final AtomicLong incrementalReads = new AtomicLong(0);
+    private final AtomicLong notModified = new AtomicLong(0);
+    private final AtomicLong writes = new AtomicLong(0);
+    private final AtomicLong preconditionFailures = new AtomicLong(0);
+
+    /**
+     * @param writeToken token Bearer exigé pour écrire (null = tout token non vide accepté)
+     */
+    public TimerSyncHandler(TimerDocumentService service, String writeToken) {
+        this.service = service;
+        this.writeToken = writeToken;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            switch (exchange.getRequestMethod()) {
+                case "GET":
+                case "HEAD":
+                    handleGet(exchange);
+                    break;
+                case "POST":
+                    handleWrite(exchange, false);
+                    break;
+                case "PATCH":
+                    handleWrite(exchange, true);
+                    break;
+                default:
+                    exchange.getResponseHeaders().set("Allow", "GET, HEAD, POST, PATCH");
+                    HttpExchanges.sendError(exchange, 405, "Méthode non supportée");
+            }
+        } catch (HttpExchanges.HttpError e) {
+            HttpExchanges.sendError(exchange, e.status, e.getMessage());
+        } catch (IOException e) {
+            LOGGER.debug("Client déconnecté pendant la réponse: {}", e.getMessage());
+        } catch (Exception e) {
+            LOGGER.error("❌ Erreur interne {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            HttpExchanges.sendError(exchange, 500, "Erreur interne");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleGet(HttpExchange exchange) throws IOException {
+        TimerDocumentService.Snapshot snapshot = service.current();
+        exchange.getResponseHeaders().set("ETag", snapshot.etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null && TimerDocumentService.normalizeEtag(ifNoneMatch)
+                .equals(TimerDocumentService.normalizeEtag(snapshot.etag))) {
+            notModified.incrementAndGet();
+            HttpExchanges.sendEmpty(exchange, 304);
+            return;
+        }
+
+        long since = parseSince(exchange.getRequestURI().getRawQuery());
+        if (since > 0) {
+            TimerDocumentService.Delta delta = service.changesSince(since);
+            if (delta != null) {
+                // Le delta peut porter sur une version plus récente que le snapshot lu plus haut
+                exchange.getResponseHeaders().set("ETag", delta.etag);
+                exchange.getResponseHeaders().set(SINCE_HEADER, Long.toString(since));
+                incrementalReads.incrementAndGet();
+                HttpExchanges.sendJson(exchange, 200, delta.json);
+                return;
+            }
+        }
+
+        fullReads.incrementAndGet();
+        HttpExchanges.sendDocument(exchange, snapshot.body, snapshot.binaryBody);
+    }
+
+    private void handleWrite(HttpExchange exchange, boolean patch) throws Exception {
+        HttpExchanges.requireWriteToken(exchange, writeToken);
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (patch && (contentType == null || !(contentType.startsWith(MERGE_PATCH_TYPE) || contentType.startsWith("application/json")))) {
+            HttpExchanges.sendError(exchange, 415, "PATCH attend " + MERGE_PATCH_TYPE);
+            return;
+        }
+
+        JsonObject body = HttpExchanges.readJsonObject(exchange, MAX_BODY_BYTES);
+        String ifMatch = exchange.getRequestHeaders().getFirst("If-Match");
+
+        TimerDocumentService.WriteResult result = patch
+            ? service.patch(body, ifMatch)
+            : service.replace(body, ifMatch);
+
+        exchange.getResponseHeaders().set("ETag", result.etag);
+        if (result.preconditionFailed) {
+            preconditionFailures.incrementAndGet();
+            HttpExchanges.sendError(exchange, 412, "Version modifiée depuis la lecture");
+            return;
+        }
+
+        writes.incrementAndGet();
+        HttpExchanges.sendJson(exchange, 200,
+            "{\"success\":true,\"etag\":" + HttpExchanges.jsonString(result.etag) + ",\"seq\":" + result.seq + "}");
+    }
+
+    private static long parseSince(String query) {
+        if (query == null) return -1;
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("since=")) {
+                try {
+                    return Long.parseLong(parameter.substring(6));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getWriteCount() {
+        return writes.get();
+    }
+
+    public long getPreconditionFailureCount() {
+        return preconditionFailures.get();
+    }
+
+    /**
+     * Métriques de debug
+     */
+    public String getDebugMetrics() {
+        return String.format("get[full=%d, since=%d, 304=%d], write[ok=%d, 412=%d]",
+            fullReads.get(), incrementalReads.get(), notModified.get(), writes.get(), preconditionFailures.get());
+    }
+}